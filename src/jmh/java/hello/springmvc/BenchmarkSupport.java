@@ -0,0 +1,46 @@
+package hello.springmvc;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * 벤치마크 공통 설정.
+ */
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 스프링 부트 없이 컨트롤러를 띄우면 logback 기본 설정(DEBUG, 콘솔)이 적용되므로
+     * 컨트롤러의 log.info가 측정값을 덮어버리지 않도록 로그 레벨을 올린다.
+     */
+    public static void quietLogging() {
+        Logger root = (Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.WARN);
+    }
+
+    /**
+     * 실제 톰캣까지 포함해서 재야 하는 벤치마크용. 임의 포트로 애플리케이션을 띄운다.
+     * @param properties "hello.view.cache.enabled=false" 처럼 덮어쓸 설정
+     */
+    public static ConfigurableApplicationContext startApplication(String... properties) {
+        String[] args = Stream.concat(
+                // 처리량을 재는 동안 과부하 보호가 요청을 거절하지 않게 끈다.
+                Stream.of("server.port=0", "logging.level.hello.springmvc=warn", "hello.rate-limit.enabled=false"),
+                Arrays.stream(properties)
+        ).map(property -> "--" + property).toArray(String[]::new);
+        return SpringApplication.run(SpringmvcApplication.class, args);
+    }
+
+    public static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+}
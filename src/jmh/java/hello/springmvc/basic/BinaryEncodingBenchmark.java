@@ -0,0 +1,86 @@
+package hello.springmvc.basic;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HelloData 한 건과 1000건 목록을 JSON, CBOR, Smile로 직렬화/역직렬화하는 비용.
+ * 페이로드 크기는 setUp에서 한 번 출력한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BinaryEncodingBenchmark {
+
+    private static final TypeReference<List<HelloData>> LIST_TYPE = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private HelloData single;
+    private List<HelloData> list;
+    private byte[] singleBytes;
+    private byte[] listBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "cbor" -> new CBORMapper();
+            case "smile" -> new SmileMapper();
+            default -> new ObjectMapper();
+        };
+
+        single = helloData("userA", 20);
+        list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(helloData("user" + i, i % 100));
+        }
+        singleBytes = mapper.writeValueAsBytes(single);
+        listBytes = mapper.writeValueAsBytes(list);
+        System.out.printf("format=%s, single=%d bytes, list(1000)=%d bytes%n", format, singleBytes.length, listBytes.length);
+    }
+
+    @Benchmark
+    public byte[] serializeSingle() throws IOException {
+        return mapper.writeValueAsBytes(single);
+    }
+
+    @Benchmark
+    public HelloData deserializeSingle() throws IOException {
+        return mapper.readValue(singleBytes, HelloData.class);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws IOException {
+        return mapper.writeValueAsBytes(list);
+    }
+
+    @Benchmark
+    public List<HelloData> deserializeList() throws IOException {
+        return mapper.readValue(listBytes, LIST_TYPE);
+    }
+
+    private static HelloData helloData(String username, int age) {
+        HelloData helloData = new HelloData();
+        helloData.setUsername(username);
+        helloData.setAge(age);
+        return helloData;
+    }
+}
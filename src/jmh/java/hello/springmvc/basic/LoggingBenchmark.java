@@ -0,0 +1,96 @@
+package hello.springmvc.basic;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.core.status.Status;
+import ch.qos.logback.core.util.StatusUtil;
+import hello.springmvc.basic.request.RequestBodyStringController;
+import hello.springmvc.basic.request.RequestHeaderController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * /headers, /request-body-string-v4 를 동기 콘솔 로그(sync)와 AsyncAppender(async)로 각각 돌려서
+ * 처리량과 op당 할당량을 비교한다. 설정은 logback-bench-{mode}.xml 이다.
+ * async는 logback-async.xml과 달리 큐가 차면 기다리게(neverBlock=false) 해서 버려진 로그가 처리량에 섞이지 않게 한다.
+ * 콘솔 출력 비용 자체는 재지 않도록 System.out은 버리는 스트림으로 바꿔둔다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LoggingBenchmark {
+
+    private static final String BODY = "hello ".repeat(200);
+
+    @Param({"sync", "async"})
+    public String mode;
+
+    private MockMvc mockMvc;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() throws Exception {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+        long configuredAt = System.currentTimeMillis();
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        configurator.doConfigure(getClass().getResource("/logback-bench-" + mode + ".xml"));
+        // 설정 오류가 있어도 logback은 상태 메시지만 남기고 넘어가므로, 잘못된 설정으로 재지 않게 여기서 멈춘다.
+        if (new StatusUtil(context).getHighestLevel(configuredAt) >= Status.ERROR) {
+            throw new IllegalStateException("logback-bench-" + mode + ".xml has configuration errors");
+        }
+
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new RequestHeaderController(),
+                new RequestBodyStringController(new BodyLogFormatter(256))
+        ).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public MvcResult headers() throws Exception {
+        return mockMvc.perform(get("/headers")
+                .header("host", "localhost:8080")
+                .header("Accept", "text/html,application/xhtml+xml")
+                .header("Accept-Language", "ko-KR,ko;q=0.9,en-US;q=0.8")
+                .header("User-Agent", "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7)")
+                .header("Cookie", "myCookie=hello")
+        ).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult requestBodyStringV4() throws Exception {
+        return mockMvc.perform(post("/request-body-string-v4")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content(BODY)
+        ).andReturn();
+    }
+}
@@ -0,0 +1,70 @@
+package hello.springmvc.basic.request;
+
+import org.apache.tomcat.util.http.Parameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * hello-form.html이 보내는 바디(username, age)에 쓸데없는 필드를 extraFields개 붙여서
+ * 톰캣 파서(org.apache.tomcat.util.http.Parameters + Integer.parseInt)와 FormUrlEncodedReader를 비교한다.
+ * 톰캣 쪽은 getParameter가 내부에서 하는 일과 같게 바디를 byte[]로 다 읽은 뒤 파싱한다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FormParsingBenchmark {
+
+    @Param({"0", "30"})
+    public int extraFields;
+
+    private byte[] body;
+    private final Parameters parameters = new Parameters();
+    private final FormUrlEncodedReader reader =
+            new FormUrlEncodedReader(64, DataSize.ofKilobytes(4), DataSize.ofKilobytes(64));
+
+    @Setup
+    public void setUp() {
+        StringBuilder form = new StringBuilder("username=%ED%99%8D%EA%B8%B8%EB%8F%99+hello&age=20");
+        for (int i = 0; i < extraFields; i++) {
+            form.append("&field").append(i).append("=value%20").append(i);
+        }
+        body = form.toString().getBytes(StandardCharsets.US_ASCII);
+        parameters.setCharset(StandardCharsets.UTF_8);
+        parameters.setLimit(64);
+    }
+
+    @Benchmark
+    public int container() throws IOException {
+        byte[] copy = new ByteArrayInputStream(body).readAllBytes();
+        parameters.recycle();
+        parameters.setCharset(StandardCharsets.UTF_8);
+        parameters.processParameters(copy, 0, copy.length);
+        String username = parameters.getParameter("username");
+        return username.length() + Integer.parseInt(parameters.getParameter("age"));
+    }
+
+    @Benchmark
+    public int streaming() throws IOException {
+        int[] result = new int[1];
+        reader.read(new ByteArrayInputStream(body), body.length, (buffer, nameLength, length) -> {
+            if (FormUrlEncodedReader.nameEquals(buffer, nameLength, "username")) {
+                result[0] += FormUrlEncodedReader.toString(buffer, nameLength, length, StandardCharsets.UTF_8).length();
+            } else if (FormUrlEncodedReader.nameEquals(buffer, nameLength, "age")) {
+                result[0] += FormUrlEncodedReader.parseInt(buffer, nameLength, length);
+            }
+        });
+        return result[0];
+    }
+}
@@ -0,0 +1,91 @@
+package hello.springmvc.basic.request;
+
+import hello.springmvc.BenchmarkSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 브라우저가 보내는 정도(30개)의 헤더를 달고 /headers 와 /headers-v2 를 호출한다.
+ * gc.alloc.rate.norm 으로 요청당 할당량을 비교하는 것이 목적이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HeaderAccessBenchmark {
+
+    private static final String[][] BROWSER_HEADERS = {
+            {"Host", "localhost:8080"},
+            {"Connection", "keep-alive"},
+            {"Cache-Control", "max-age=0"},
+            {"sec-ch-ua", "\"Chromium\";v=\"128\", \"Not;A=Brand\";v=\"24\", \"Google Chrome\";v=\"128\""},
+            {"sec-ch-ua-mobile", "?0"},
+            {"sec-ch-ua-platform", "\"macOS\""},
+            {"Upgrade-Insecure-Requests", "1"},
+            {"User-Agent", "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/128.0.0.0 Safari/537.36"},
+            {"Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,image/apng,*/*;q=0.8"},
+            {"Sec-Fetch-Site", "same-origin"},
+            {"Sec-Fetch-Mode", "navigate"},
+            {"Sec-Fetch-User", "?1"},
+            {"Sec-Fetch-Dest", "document"},
+            {"Referer", "http://localhost:8080/index.html"},
+            {"Accept-Encoding", "gzip, deflate, br, zstd"},
+            {"Accept-Language", "ko-KR,ko;q=0.9,en-US;q=0.8,en;q=0.7"},
+            {"Cookie", "_ga=GA1.1.123456789.1700000000; JSESSIONID=8F1C2D3E4F5A6B7C8D9E0F1A2B3C4D5E; theme=dark; myCookie=hello; _gid=GA1.1.987654321.1700000000"},
+            {"If-None-Match", "W/\"2-nOO9QiTIwXgNtWtBJezz8kv3SLc\""},
+            {"If-Modified-Since", "Mon, 14 Oct 2024 10:00:00 GMT"},
+            {"DNT", "1"},
+            {"Pragma", "no-cache"},
+            {"Priority", "u=0, i"},
+            {"X-Requested-With", "XMLHttpRequest"},
+            {"X-Forwarded-For", "203.0.113.10"},
+            {"X-Forwarded-Proto", "http"},
+            {"X-Request-Id", "5f2b7c1e-8a4d-4c3b-9e6f-1a2b3c4d5e6f"},
+            {"Origin", "http://localhost:8080"},
+            {"Sec-GPC", "1"},
+            {"TE", "trailers"},
+            {"Via", "1.1 proxy.example.com"},
+    };
+
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        mockMvc = MockMvcBuilders.standaloneSetup(new RequestHeaderController())
+                .setCustomArgumentResolvers(new LazyHeadersArgumentResolver())
+                .build();
+    }
+
+    // MultiValueMap, @RequestHeader, @CookieValue
+    @Benchmark
+    public MvcResult headers() throws Exception {
+        return mockMvc.perform(withBrowserHeaders("/headers")).andReturn();
+    }
+
+    // LazyHeaders
+    @Benchmark
+    public MvcResult headersV2() throws Exception {
+        return mockMvc.perform(withBrowserHeaders("/headers-v2")).andReturn();
+    }
+
+    private MockHttpServletRequestBuilder withBrowserHeaders(String uri) {
+        MockHttpServletRequestBuilder builder = get(uri);
+        for (String[] header : BROWSER_HEADERS) {
+            builder.header(header[0], header[1]);
+        }
+        return builder;
+    }
+}
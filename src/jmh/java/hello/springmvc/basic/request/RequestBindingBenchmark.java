@@ -0,0 +1,188 @@
+package hello.springmvc.basic.request;
+
+import hello.springmvc.BenchmarkSupport;
+import hello.springmvc.basic.BodyLogFormatter;
+import hello.springmvc.basic.ImmutableHelloDataArgumentResolver;
+import hello.springmvc.wal.HelloDataWal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * basic.request 패키지의 바인딩 방식별 호출 비용.
+ * 같은 데이터(username=hello, age=20)를 각 컨트롤러 메서드에 MockMvc로 보내서
+ * DispatcherServlet부터 응답까지 한 번 도는 비용을 잰다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RequestBindingBenchmark {
+
+    private static final String JSON = "{\"username\":\"hello\", \"age\":20}";
+
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new RequestParamController(HelloDataWal.disabled()),
+                new RequestBodyStringController(new BodyLogFormatter(256)),
+                new RequestBodyJsonController(new HelloDataStreamReader(DataSize.ofMegabytes(10)), new BodyLogFormatter(256),
+                        HelloDataWal.disabled())
+        ).setCustomArgumentResolvers(new ImmutableHelloDataArgumentResolver(
+                new FormUrlEncodedReader(64, DataSize.ofKilobytes(4), DataSize.ofKilobytes(64)))).build();
+    }
+
+    // HttpServletRequest.getParameter
+    @Benchmark
+    public MvcResult requestParamV1() throws Exception {
+        return param("/request-param-v1");
+    }
+
+    // @RequestParam("username")
+    @Benchmark
+    public MvcResult requestParamV2() throws Exception {
+        return param("/request-param-v2");
+    }
+
+    // @RequestParam 이름 생략
+    @Benchmark
+    public MvcResult requestParamV3() throws Exception {
+        return param("/request-param-v3");
+    }
+
+    // @RequestParam 생략 (암묵적 바인딩)
+    @Benchmark
+    public MvcResult requestParamV4() throws Exception {
+        return param("/request-param-v4");
+    }
+
+    // @RequestParam(required = true/false), Integer age
+    @Benchmark
+    public MvcResult requestParamRequired() throws Exception {
+        return param("/request-param-required");
+    }
+
+    // @RequestParam(defaultValue) - 값이 있으니 기본값은 쓰이지 않는다
+    @Benchmark
+    public MvcResult requestParamDefault() throws Exception {
+        return param("/request-param-default");
+    }
+
+    // @RequestParam Map<String, Object>
+    @Benchmark
+    public MvcResult requestParamMap() throws Exception {
+        return param("/request-param-map");
+    }
+
+    // @ModelAttribute HelloData
+    @Benchmark
+    public MvcResult modelAttributeV1() throws Exception {
+        return param("/model-attribute-v1");
+    }
+
+    // @ModelAttribute 생략
+    @Benchmark
+    public MvcResult modelAttributeV2() throws Exception {
+        return param("/model-attribute-v2");
+    }
+
+    // ImmutableHelloData + 전용 아규먼트 리졸버 (리플렉션 없음)
+    @Benchmark
+    public MvcResult modelAttributeV3() throws Exception {
+        return param("/model-attribute-v3");
+    }
+
+    // InputStream -> String
+    @Benchmark
+    public MvcResult requestBodyStringV1() throws Exception {
+        return text("/request-body-string-v1");
+    }
+
+    // InputStream 파라미터 -> String
+    @Benchmark
+    public MvcResult requestBodyStringV2() throws Exception {
+        return text("/request-body-string-v2");
+    }
+
+    // HttpEntity<String>
+    @Benchmark
+    public MvcResult requestBodyStringV3() throws Exception {
+        return text("/request-body-string-v3");
+    }
+
+    // @RequestBody String
+    @Benchmark
+    public MvcResult requestBodyStringV4() throws Exception {
+        return text("/request-body-string-v4");
+    }
+
+    // InputStream -> String -> 직접 ObjectMapper
+    @Benchmark
+    public MvcResult requestBodyJsonV1() throws Exception {
+        return json("/request-body-json-v1");
+    }
+
+    // @RequestBody String -> 직접 ObjectMapper
+    @Benchmark
+    public MvcResult requestBodyJsonV2() throws Exception {
+        return json("/request-body-json-v2");
+    }
+
+    // @RequestBody HelloData
+    @Benchmark
+    public MvcResult requestBodyJsonV3() throws Exception {
+        return json("/request-body-json-v3");
+    }
+
+    // HttpEntity<HelloData>
+    @Benchmark
+    public MvcResult requestBodyJsonV4() throws Exception {
+        return json("/request-body-json-v4");
+    }
+
+    // @RequestBody HelloData -> HelloData 응답 (JSON 직렬화까지)
+    @Benchmark
+    public MvcResult requestBodyJsonV5() throws Exception {
+        return json("/request-body-json-v5");
+    }
+
+    // @RequestBody ImmutableHelloData + 전용 역직렬화기 (리플렉션 없음)
+    @Benchmark
+    public MvcResult requestBodyJsonV6() throws Exception {
+        return json("/request-body-json-v6");
+    }
+
+    // InputStream -> 토큰 단위 스트리밍 파싱
+    @Benchmark
+    public MvcResult requestBodyJsonStream() throws Exception {
+        return json("/request-body-json-stream");
+    }
+
+    private MvcResult param(String uri) throws Exception {
+        return mockMvc.perform(get(uri).param("username", "hello").param("age", "20")).andReturn();
+    }
+
+    private MvcResult text(String uri) throws Exception {
+        return mockMvc.perform(post(uri).contentType(MediaType.TEXT_PLAIN).content("hello")).andReturn();
+    }
+
+    private MvcResult json(String uri) throws Exception {
+        return mockMvc.perform(post(uri).contentType(MediaType.APPLICATION_JSON).content(JSON)).andReturn();
+    }
+}
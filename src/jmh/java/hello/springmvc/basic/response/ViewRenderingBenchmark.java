@@ -0,0 +1,68 @@
+package hello.springmvc.basic.response;
+
+import hello.springmvc.BenchmarkSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ResponseViewController의 세 뷰 엔드포인트 지연 시간 분포(p50, p90, p99, p99.9 ...).
+ * SampleTime 모드라 결과에 백분위가 같이 나온다. 렌더링 결과 캐시를 켠 경우와 끈 경우를 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ViewRenderingBenchmark {
+
+    @Param({"true", "false"})
+    public String viewCache;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest viewV1;
+    private HttpRequest viewV2;
+    private HttpRequest viewV3;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkSupport.startApplication("hello.view.cache.enabled=" + viewCache);
+        String baseUrl = "http://localhost:" + BenchmarkSupport.port(context);
+        client = HttpClient.newHttpClient();
+        viewV1 = HttpRequest.newBuilder(URI.create(baseUrl + "/response-view-v1")).build();
+        viewV2 = HttpRequest.newBuilder(URI.create(baseUrl + "/response-view-v2")).build();
+        viewV3 = HttpRequest.newBuilder(URI.create(baseUrl + "/response/hello")).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] responseViewV1() throws Exception {
+        return client.send(viewV1, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    @Benchmark
+    public byte[] responseViewV2() throws Exception {
+        return client.send(viewV2, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    @Benchmark
+    public byte[] responseViewV3() throws Exception {
+        return client.send(viewV3, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+}
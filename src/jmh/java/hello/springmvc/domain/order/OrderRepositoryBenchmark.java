@@ -0,0 +1,65 @@
+package hello.springmvc.domain.order;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 10,000명에게 orders건의 주문을 나눠 넣은 뒤 단건 조회, 범위 조회 지연 시간을 잰다.
+ * 셋업이 끝나면 GC 후 힙 사용량 증가분을 주문 수로 나눈 "주문당 힙 바이트"를 출력한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class OrderRepositoryBenchmark {
+
+    private static final int USERS = 10_000;
+
+    @Param({"1000000", "10000000"})
+    public int orders;
+
+    private OrderRepository orderRepository;
+
+    @Setup
+    public void setUp() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+
+        orderRepository = new OrderRepository();
+        OrderParam param = new OrderParam(1L, 1, 1000);
+        for (int i = 0; i < orders; i++) {
+            orderRepository.save(i % USERS, param);
+        }
+
+        System.gc();
+        long after = memory.getHeapMemoryUsage().getUsed();
+        System.out.printf("orders=%d, heap per order=%.1f bytes%n", orders, (after - before) / (double) orders);
+    }
+
+    @Benchmark
+    public Object findById() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long orderId = random.nextLong(1, orders + 1L);
+        return orderRepository.findById((orderId - 1) % USERS, orderId);
+    }
+
+    @Benchmark
+    public OrderPage findRange() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long from = random.nextLong(1, orders + 1L);
+        return orderRepository.findRange(random.nextInt(USERS), from, from + 100L * USERS, null, 100);
+    }
+}
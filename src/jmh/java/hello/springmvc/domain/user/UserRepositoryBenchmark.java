@@ -0,0 +1,55 @@
+package hello.springmvc.domain.user;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 16개 스레드가 조회 80%, 페이지 조회 5%, 수정 10%, 등록/삭제 5%를 섞어서 UserRepository를 호출한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+public class UserRepositoryBenchmark {
+
+    private static final int INITIAL_USERS = 100_000;
+
+    private UserRepository userRepository;
+
+    @Setup
+    public void setUp() {
+        userRepository = new UserRepository();
+        for (int i = 0; i < INITIAL_USERS; i++) {
+            userRepository.save("user" + i, i % 100);
+        }
+    }
+
+    @Benchmark
+    public Object mixed() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = random.nextLong(1, INITIAL_USERS);
+        int op = random.nextInt(100);
+        if (op < 80) {
+            return userRepository.findById(id);
+        }
+        if (op < 85) {
+            return userRepository.findPage(id, 20);
+        }
+        if (op < 95) {
+            return userRepository.update(id, new UserParam(null, op));
+        }
+        if (op < 98) {
+            return userRepository.save("user", op);
+        }
+        return userRepository.delete(random.nextLong(INITIAL_USERS, INITIAL_USERS * 2L));
+    }
+}
@@ -0,0 +1,160 @@
+package hello.springmvc.startup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 애플리케이션을 별도 프로세스로 여러 번 띄워서 기동 시간과 첫 요청 지연 시간을 잰다. (./gradlew startupTime)
+ * JMH는 한 JVM 안에서 반복 측정하므로 "JVM을 새로 띄우는 비용"을 재려면 이렇게 프로세스를 직접 만들어야 한다.
+ * - startup: 프로세스 시작부터 "Started SpringmvcApplication" 로그가 찍힐 때까지 (톰캣이 포트를 연 뒤다)
+ * - first request: 기동 직후 경로마다 처음 보낸 GET의 응답 시간. 지연 초기화한 컨트롤러는 여기서 비용을 낸다.
+ * 인자는 "--mode=이름" 뒤에 그 모드의 JVM 인자를 나열한다.
+ * ex) --mode=default -jar app.jar --mode=fast-start -XX:SharedArchiveFile=app.jsa -jar cds/app.jar
+ * 실행 횟수와 경로는 -Dstartup.runs=5, -Dstartup.paths=/hello-basic,/response-body-json-v1 로 바꾼다.
+ */
+public final class StartupTimeProbe {
+
+    private static final String STARTED = "Started SpringmvcApplication";
+    private static final long START_TIMEOUT_SECONDS = 120;
+
+    private StartupTimeProbe() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("startup.runs", 5);
+        List<String> paths = List.of(System.getProperty("startup.paths",
+                "/hello-basic,/response-body-json-v1,/response-view-v2,/request-param-v2?username=kim&age=20").split(","));
+        Map<String, List<String>> modes = parseModes(args);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+            long[] startup = new long[runs];
+            long[][] firstRequest = new long[paths.size()][runs];
+            for (int run = 0; run < runs; run++) {
+                Result result = launch(mode.getValue(), paths, client);
+                startup[run] = result.startupMillis();
+                for (int i = 0; i < paths.size(); i++) {
+                    firstRequest[i][run] = result.firstRequestMillis()[i];
+                }
+            }
+
+            System.out.printf("%n[%s] runs=%d%n", mode.getKey(), runs);
+            System.out.printf("  %-50s median=%5dms min=%5dms%n", "startup", median(startup), min(startup));
+            for (int i = 0; i < paths.size(); i++) {
+                System.out.printf("  %-50s median=%5dms min=%5dms%n", "first GET " + paths.get(i),
+                        median(firstRequest[i]), min(firstRequest[i]));
+            }
+        }
+    }
+
+    private static Map<String, List<String>> parseModes(String[] args) {
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        List<String> current = null;
+        for (String arg : args) {
+            if (arg.startsWith("--mode=")) {
+                current = new ArrayList<>();
+                modes.put(arg.substring("--mode=".length()), current);
+            } else if (current != null) {
+                current.add(arg);
+            } else {
+                throw new IllegalArgumentException("jvm arguments must follow --mode=<name>: " + arg);
+            }
+        }
+        if (modes.isEmpty()) {
+            throw new IllegalArgumentException("usage: --mode=<name> <jvm args>... [--mode=<name> <jvm args>...]");
+        }
+        return modes;
+    }
+
+    private static Result launch(List<String> jvmArgs, List<String> paths, HttpClient client) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("--server.port=" + port);
+        command.add("--logging.level.hello.springmvc=info");
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        CompletableFuture<Long> started = new CompletableFuture<>();
+        Thread reader = new Thread(() -> drain(process, start, started), "startup-probe-reader");
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            long startupMillis = started.get(START_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            long[] firstRequestMillis = new long[paths.size()];
+            for (int i = 0; i < paths.size(); i++) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + paths.get(i))).build();
+                long requestStart = System.nanoTime();
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                firstRequestMillis[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requestStart);
+                if (response.statusCode() >= 400) {
+                    throw new IllegalStateException(paths.get(i) + " returned " + response.statusCode());
+                }
+            }
+            return new Result(startupMillis, firstRequestMillis);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * 출력을 계속 읽지 않으면 파이프 버퍼가 가득 차서 애플리케이션이 로그를 쓰다가 멈춘다.
+     */
+    private static void drain(Process process, long start, CompletableFuture<Long> started) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!started.isDone() && line.contains(STARTED)) {
+                    started.complete(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            }
+            started.completeExceptionally(new IllegalStateException("process exited before start. exit= " + process.waitFor()));
+        } catch (IOException | InterruptedException e) {
+            started.completeExceptionally(e);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static long min(long[] values) {
+        long min = Long.MAX_VALUE;
+        for (long value : values) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    private record Result(long startupMillis, long[] firstRequestMillis) {
+    }
+}
@@ -0,0 +1,67 @@
+package hello.springmvc.wal;
+
+import hello.springmvc.BenchmarkSupport;
+import hello.springmvc.basic.HelloData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 스레드 32개가 동시에 append 할 때 초당 durable write 수.
+ * maxBatch=1 이면 레코드마다 fsync 하는 것과 같고, 값을 키울수록 fsync 한 번에 묶이는 레코드가 늘어난다.
+ * 결과는 디스크(특히 fsync 지연)에 크게 좌우되므로 같은 장비에서 maxBatch끼리만 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(32)
+public class HelloDataWalBenchmark {
+
+    @Param({"1", "8", "64", "256"})
+    public int maxBatch;
+
+    private Path dir;
+    private HelloDataWal wal;
+    private HelloData data;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkSupport.quietLogging();
+        dir = Files.createTempDirectory("hello-wal");
+        wal = new HelloDataWal(true, dir.resolve("hello-data.wal").toString(), maxBatch);
+        wal.open();
+
+        data = new HelloData();
+        data.setUsername("hello");
+        data.setAge(20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        wal.close();
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public void append() {
+        wal.append(data);
+    }
+}
@@ -0,0 +1,93 @@
+package hello.springmvc.web.compression;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.springmvc.basic.HelloData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * rows건짜리 HelloData JSON 목록(1건이면 약 30바이트, 10000건이면 약 300KB) 한 응답을 gzip으로 만드는 CPU 시간.
+ * - newGzipStream: 응답마다 GZIPOutputStream(새 Deflater)을 만드는 일반적인 방식
+ * - pooledDeflater: DeflaterPool에서 빌린 Deflater로 압축 (CRC 계산 포함, 필터가 하는 일과 같다)
+ * - cachedBody: 같은 바디가 반복될 때 CompressedBodyCache에서 꺼내는 비용 (CRC + 원본 비교)
+ * 압축 수준별 전송 바이트 수는 setUp에서 한 번 출력한다. gc 프로파일러로 op당 할당량도 같이 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompressionBenchmark {
+
+    private static final String CONTENT_TYPE = "application/json";
+
+    @Param({"1", "30", "500", "10000"})
+    public int rows;
+
+    @Param({"1", "6"})
+    public int level;
+
+    private final DeflaterPool deflaterPool = new DeflaterPool(4);
+    private final CompressedBodyCache cache = new CompressedBodyCache(16, Integer.MAX_VALUE);
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<HelloData> list = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            HelloData helloData = new HelloData();
+            helloData.setUsername("user" + i);
+            helloData.setAge(i % 100);
+            list.add(helloData);
+        }
+        body = new ObjectMapper().writeValueAsBytes(list);
+
+        int crc = crc(body);
+        cache.put(CONTENT_TYPE, level, body, body.length, crc, deflaterPool.gzip(body, body.length, crc, level));
+        System.out.printf("rows=%d, identity=%d bytes, gzip level1=%d, level6=%d, level9=%d bytes%n", rows, body.length,
+                deflaterPool.gzip(body, body.length, crc, 1).length,
+                deflaterPool.gzip(body, body.length, crc, 6).length,
+                deflaterPool.gzip(body, body.length, crc, 9).length);
+    }
+
+    @Benchmark
+    public byte[] newGzipStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] pooledDeflater() {
+        return deflaterPool.gzip(body, body.length, crc(body), level);
+    }
+
+    @Benchmark
+    public byte[] cachedBody() {
+        return cache.get(CONTENT_TYPE, level, body, body.length, crc(body));
+    }
+
+    private static int crc(byte[] body) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(body);
+        return (int) crc32.getValue();
+    }
+}
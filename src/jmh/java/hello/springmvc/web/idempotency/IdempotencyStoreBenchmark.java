@@ -0,0 +1,77 @@
+package hello.springmvc.web.idempotency;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 키 keys개가 들어 있는 IdempotencyStore에서 중복 요청 한 건을 찾는 비용과 새 키를 넣는 비용.
+ * - duplicate: 이미 완료된 키로 acquire (재전송 요청이 받는 경로)
+ * - newKey: 처음 보는 키로 acquire + complete. 용량이 차 있으므로 매번 LRU 하나를 내보낸다.
+ * 키 하나가 차지하는 메모리는 setUp에서 GC 전후 힙 차이로 한 번 출력한다. (키 문자열과 결과 객체는 빼고 잰다)
+ * -t 옵션으로 스레드를 늘려 세그먼트 락 경합도 같이 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class IdempotencyStoreBenchmark {
+
+    private static final String RESULT = "ok";
+    private static final byte[] FINGERPRINT = new byte[32];
+
+    @Param({"1000000"})
+    public int keys;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private IdempotencyStore<String> store;
+    private String[] keyStrings;
+
+    @Setup
+    public void setUp() {
+        keyStrings = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            keyStrings[i] = "POST /mapping/users\n" + i;
+        }
+
+        long before = usedHeap();
+        store = new IdempotencyStore<>(keys, Long.MAX_VALUE, String::length, Duration.ofHours(24));
+        for (String key : keyStrings) {
+            store.complete(store.acquire(key, FINGERPRINT), RESULT);
+        }
+        long after = usedHeap();
+        System.out.printf("keys=%d, store=%d MB, %d bytes/key%n",
+                store.size(), (after - before) >> 20, (after - before) / store.size());
+    }
+
+    @Benchmark
+    public boolean duplicate() {
+        return store.acquire(keyStrings[ThreadLocalRandom.current().nextInt(keys)], FINGERPRINT).isLeader();
+    }
+
+    @Benchmark
+    public boolean newKey() {
+        IdempotencyStore.Slot<String> slot = store.acquire("new-" + sequence.incrementAndGet(), FINGERPRINT);
+        store.complete(slot, RESULT);
+        return slot.isLeader();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,76 @@
+package hello.springmvc.web.resource;
+
+import hello.springmvc.BenchmarkSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * static/ 파일 처리량. precompressed=false 는 스프링 기본 ResourceHttpRequestHandler,
+ * true 는 StaticContentFilter다. 브라우저처럼 Accept-Encoding: gzip 을 보내는 경우와
+ * ETag로 다시 요청해서 304를 받는 경우를 같이 잰다. (기본 핸들러는 Last-Modified로 304를 준다)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class StaticResourceBenchmark {
+
+    @Param({"true", "false"})
+    public String precompressed;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest helloForm;
+    private HttpRequest helloFormGzip;
+    private HttpRequest helloFormConditional;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = BenchmarkSupport.startApplication("hello.static.precompressed.enabled=" + precompressed);
+        URI uri = URI.create("http://localhost:" + BenchmarkSupport.port(context) + "/basic/hello-form.html");
+        client = HttpClient.newHttpClient();
+        helloForm = HttpRequest.newBuilder(uri).build();
+        helloFormGzip = HttpRequest.newBuilder(uri).header("Accept-Encoding", "gzip").build();
+
+        HttpResponse<Void> first = client.send(helloForm, HttpResponse.BodyHandlers.discarding());
+        HttpRequest.Builder conditional = HttpRequest.newBuilder(uri);
+        first.headers().firstValue("ETag").ifPresent(etag -> conditional.header("If-None-Match", etag));
+        first.headers().firstValue("Last-Modified").ifPresent(date -> conditional.header("If-Modified-Since", date));
+        helloFormConditional = conditional.build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] identity() throws Exception {
+        return client.send(helloForm, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    @Benchmark
+    public byte[] gzip() throws Exception {
+        return client.send(helloFormGzip, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    @Benchmark
+    public int notModified() throws Exception {
+        return client.send(helloFormConditional, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
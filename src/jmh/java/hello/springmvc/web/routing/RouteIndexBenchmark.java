@@ -0,0 +1,72 @@
+package hello.springmvc.web.routing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MappingController, MappingClassController 모양의 경로를 routes개 만들어 두고
+ * 요청 경로 하나에 맞는 후보를 찾는 비용을 비교한다.
+ * linearScan은 기본 RequestMappingHandlerMapping처럼 패턴을 전부 검사하는 방식이고,
+ * trie는 RouteTrie 조회다. routes가 늘어날 때 linearScan만 느려져야 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RouteIndexBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int routes;
+
+    private final List<PathPattern> patterns = new ArrayList<>();
+    private final RouteTrie<PathPattern> trie = new RouteTrie<>();
+    private String path;
+    private PathContainer pathContainer;
+
+    @Setup
+    public void setUp() {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        int groups = routes / 4;
+        for (int i = 0; i < groups; i++) {
+            for (String pattern : List.of(
+                    "/mapping" + i + "/{userId}",
+                    "/mapping" + i + "/users/{userId}/orders/{orderId}",
+                    "/mapping" + i + "/users/{userId}",
+                    "/mapping-param" + i)) {
+                PathPattern pathPattern = parser.parse(pattern);
+                patterns.add(pathPattern);
+                trie.add(pattern, pathPattern);
+            }
+        }
+        path = "/mapping" + (groups - 1) + "/users/userA/orders/100";
+        pathContainer = PathContainer.parsePath(path);
+    }
+
+    @Benchmark
+    public List<PathPattern> linearScan() {
+        List<PathPattern> result = new ArrayList<>();
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(pathContainer)) {
+                result.add(pattern);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<PathPattern> trie() {
+        return trie.match(path);
+    }
+}
@@ -0,0 +1,246 @@
+package hello.springmvc;
+
+import hello.springmvc.basic.ImmutableHelloDataArgumentResolver;
+import hello.springmvc.basic.request.FormUrlEncodedReader;
+import hello.springmvc.basic.request.LazyHeadersArgumentResolver;
+import hello.springmvc.basic.request.UploadSpooler;
+import hello.springmvc.basic.request.UploadedBodyArgumentResolver;
+import hello.springmvc.web.cache.CachedResponse;
+import hello.springmvc.web.cache.ResponseCacheFilter;
+import hello.springmvc.web.cache.ResponseCacheStore;
+import hello.springmvc.web.compression.CompressedBodyCache;
+import hello.springmvc.web.compression.CompressionFilter;
+import hello.springmvc.web.compression.CompressionLevels;
+import hello.springmvc.web.compression.DeflaterPool;
+import hello.springmvc.web.idempotency.Idempotent;
+import hello.springmvc.web.idempotency.IdempotencyFilter;
+import hello.springmvc.web.idempotency.IdempotencyStore;
+import hello.springmvc.web.metrics.MetricsFilter;
+import hello.springmvc.web.metrics.MetricsRegistry;
+import hello.springmvc.web.ratelimit.RateLimitFilter;
+import hello.springmvc.web.ratelimit.RateLimited;
+import hello.springmvc.web.ratelimit.RouteLimit;
+import hello.springmvc.web.resource.StaticAssetRegistry;
+import hello.springmvc.web.resource.StaticContentFilter;
+import hello.springmvc.web.routing.IndexedRequestMappingHandlerMapping;
+import hello.springmvc.web.singleflight.SingleFlight;
+import hello.springmvc.web.singleflight.SingleFlightFilter;
+import hello.springmvc.web.support.CapturedResponse;
+import hello.springmvc.web.support.HandlerAnnotationIndex;
+import hello.springmvc.web.view.RenderedViewCacheResolver;
+import jakarta.servlet.MultipartConfigElement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 필터, 인터셉터, 아규먼트 리졸버 등 웹 계층 공통 기능 등록.
+ * 필터 순서는 숫자가 작을수록 바깥쪽(먼저 실행)이다.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ApplicationContext applicationContext;
+    private final FormUrlEncodedReader formUrlEncodedReader;
+    private final UploadSpooler uploadSpooler;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new ImmutableHelloDataArgumentResolver(formUrlEncodedReader));
+        resolvers.add(new LazyHeadersArgumentResolver());
+        resolvers.add(new UploadedBodyArgumentResolver(uploadSpooler));
+    }
+
+    /**
+     * /request-body-upload 에서만 multipart 크기 제한을 hello.upload.max-size로 올린다.
+     * 톰캣은 multipart 설정을 서블릿마다 따로 가지므로, 같은 컨텍스트를 쓰는 DispatcherServlet을 이 경로에만 하나 더 등록한다.
+     * 다른 경로는 spring.servlet.multipart.*(기본 파일 1MB, 요청 10MB) 그대로다.
+     */
+    @Bean
+    public ServletRegistrationBean<DispatcherServlet> uploadDispatcherServlet(
+            WebApplicationContext webApplicationContext,
+            MultipartProperties multipartProperties,
+            @Value("${hello.upload.max-size:4GB}") DataSize maxSize) {
+        ServletRegistrationBean<DispatcherServlet> registration = new ServletRegistrationBean<>(
+                new DispatcherServlet(webApplicationContext), "/request-body-upload");
+        registration.setName("uploadDispatcherServlet");
+        String location = multipartProperties.getLocation() != null ? multipartProperties.getLocation() : "";
+        registration.setMultipartConfig(new MultipartConfigElement(location, maxSize.toBytes(), maxSize.toBytes(),
+                (int) multipartProperties.getFileSizeThreshold().toBytes()));
+        return registration;
+    }
+
+    /**
+     * 종료 시 close()로 스냅숏 스케줄러를 멈춘다.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "hello.metrics.enabled", havingValue = "true")
+    public MetricsRegistry metricsRegistry(
+            @Value("${hello.metrics.snapshot-interval:10s}") Duration snapshotInterval,
+            @Value("${hello.metrics.log-dump:false}") boolean logDump) {
+        return new MetricsRegistry(snapshotInterval, logDump);
+    }
+
+    /**
+     * 과부하 보호는 가장 바깥에 둬서 거절할 요청이 다른 필터를 거치지 않게 한다.
+     * 경로 그룹별 제한은 hello.rate-limit.routes.{이름}.* 에서 읽고, 없는 값은 RouteLimit 기본값을 쓴다.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            @Value("${hello.rate-limit.enabled:true}") boolean enabled,
+            @Value("${hello.rate-limit.max-clients:10000}") int maxClients) {
+        Binder binder = Binder.get(applicationContext.getEnvironment());
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(new RateLimitFilter(
+                new HandlerAnnotationIndex<>(RateLimited.class, applicationContext),
+                route -> binder.bindOrCreate("hello.rate-limit.routes." + route, RouteLimit.class),
+                maxClients));
+        registration.setEnabled(enabled);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "hello.metrics.enabled", havingValue = "true")
+    public FilterRegistrationBean<MetricsFilter> metricsFilter(
+            MetricsRegistry metricsRegistry,
+            @Value("${hello.metrics.base-package:hello.springmvc.basic}") String basePackage) {
+        FilterRegistrationBean<MetricsFilter> registration = new FilterRegistrationBean<>(
+                new MetricsFilter(metricsRegistry, basePackage));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    /**
+     * static/ 아래 파일을 기동 시점에 읽고 gzip 변형과 ETag를 미리 만들어 둔다. 종료 시 close()로 임시 파일을 지운다.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "hello.static.precompressed.enabled", havingValue = "true")
+    public StaticAssetRegistry staticAssetRegistry() throws IOException {
+        return StaticAssetRegistry.load();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "hello.static.precompressed.enabled", havingValue = "true")
+    public FilterRegistrationBean<StaticContentFilter> staticContentFilter(
+            StaticAssetRegistry staticAssetRegistry,
+            @Value("${hello.static.sendfile-min-size:48KB}") DataSize sendfileMinSize) {
+        FilterRegistrationBean<StaticContentFilter> registration = new FilterRegistrationBean<>(
+                new StaticContentFilter(staticAssetRegistry, sendfileMinSize.toBytes()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 30);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    /**
+     * 정적 파일 필터 안쪽에 둔다. 정적 파일은 미리 압축해 둔 변형을 쓰므로 여기까지 오지 않는다.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "hello.compression.enabled", havingValue = "true")
+    public FilterRegistrationBean<CompressionFilter> compressionFilter(
+            @Value("${hello.compression.levels:text/html:6,application/json:1}") String levels,
+            @Value("${hello.compression.min-size:1KB}") DataSize minSize,
+            @Value("${hello.compression.max-buffer-size:1MB}") DataSize maxBufferSize,
+            @Value("${hello.compression.pool-size:64}") int poolSize,
+            @Value("${hello.compression.cache.max-entries:256}") int cacheMaxEntries,
+            @Value("${hello.compression.cache.max-body-size:64KB}") DataSize cacheMaxBodySize) {
+        FilterRegistrationBean<CompressionFilter> registration = new FilterRegistrationBean<>(new CompressionFilter(
+                new DeflaterPool(poolSize), new CompressionLevels(levels),
+                new CompressedBodyCache(cacheMaxEntries, (int) cacheMaxBodySize.toBytes()),
+                (int) minSize.toBytes(), (int) maxBufferSize.toBytes()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 40);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            @Value("${hello.idempotency.enabled:true}") boolean enabled,
+            @Value("${hello.idempotency.max-entries:100000}") int maxEntries,
+            @Value("${hello.idempotency.ttl:24h}") Duration ttl,
+            @Value("${hello.idempotency.max-wait:5s}") Duration maxWait,
+            @Value("${hello.idempotency.max-size:64MB}") DataSize maxSize,
+            @Value("${hello.idempotency.max-body-size:64KB}") DataSize maxBodySize,
+            @Value("${hello.idempotency.max-request-size:1MB}") DataSize maxRequestSize) {
+        IdempotencyStore<CapturedResponse> store =
+                new IdempotencyStore<>(maxEntries, maxSize.toBytes(), CapturedResponse::estimatedSize, ttl);
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(new IdempotencyFilter(
+                new HandlerAnnotationIndex<>(Idempotent.class, applicationContext), store, maxWait.toMillis(),
+                (int) maxBodySize.toBytes(), (int) maxRequestSize.toBytes()));
+        registration.setEnabled(enabled);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 50);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<SingleFlightFilter> singleFlightFilter(
+            @Value("${hello.single-flight.enabled:true}") boolean enabled) {
+        FilterRegistrationBean<SingleFlightFilter> registration = new FilterRegistrationBean<>(new SingleFlightFilter(
+                new HandlerAnnotationIndex<>(SingleFlight.class, applicationContext)));
+        registration.setEnabled(enabled);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 60);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(
+            @Value("${hello.response-cache.enabled:true}") boolean enabled,
+            @Value("${hello.response-cache.max-entries:256}") int maxEntries,
+            @Value("${hello.response-cache.max-variants:4}") int maxVariants) {
+        FilterRegistrationBean<ResponseCacheFilter> registration = new FilterRegistrationBean<>(new ResponseCacheFilter(
+                new HandlerAnnotationIndex<>(CachedResponse.class, applicationContext),
+                new ResponseCacheStore(maxEntries, maxVariants)));
+        registration.setEnabled(enabled);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 70);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "hello.view.cache.enabled", havingValue = "true")
+    public RenderedViewCacheResolver renderedViewCacheResolver(
+            ThymeleafViewResolver thymeleafViewResolver,
+            @Value("${hello.view.cache.max-entries:128}") int maxEntries,
+            @Value("${hello.view.cache.max-model-size:4}") int maxModelSize,
+            @Value("${hello.view.cache.ttl-seconds:60}") long ttlSeconds) {
+        return new RenderedViewCacheResolver(thymeleafViewResolver, new ResponseCacheStore(maxEntries), maxModelSize, ttlSeconds);
+    }
+
+    /**
+     * 스프링 MVC가 기본 RequestMappingHandlerMapping 대신 트라이 색인을 쓰는 구현을 만들도록 한다.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "hello.routing.index.enabled", havingValue = "true")
+    public WebMvcRegistrations indexedHandlerMappingRegistrations() {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
+                return new IndexedRequestMappingHandlerMapping();
+            }
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package hello.springmvc.basic;
+
+import org.springframework.http.MediaType;
+
+/**
+ * consumes, produces에 쓰는 바이너리 Media Type. CBOR는 스프링에 상수가 있지만 Smile은 없어서 여기 모아둔다.
+ * jackson-dataformat-cbor, -smile이 클래스패스에 있으면 스프링 MVC가 CBOR, Smile 컨버터를 기본 컨버터 목록에 넣으므로 따로 등록하지 않는다.
+ * 그래서 produces를 좁히지 않은 HelloData 핸들러도 Accept에 따라 CBOR, Smile로 응답할 수 있다.
+ */
+public final class BinaryMediaType {
+
+    public static final String APPLICATION_CBOR_VALUE = MediaType.APPLICATION_CBOR_VALUE;
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    private BinaryMediaType() {
+    }
+}
@@ -0,0 +1,25 @@
+package hello.springmvc.basic;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 요청 바디를 로그에 남길 때 hello.logging.max-body-length 글자까지만 남긴다.
+ * 짧은 바디는 새 문자열을 만들지 않고 그대로 돌려준다.
+ */
+@Component
+public class BodyLogFormatter {
+
+    private final int maxLength;
+
+    public BodyLogFormatter(@Value("${hello.logging.max-body-length:256}") int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    public String abbreviate(String body) {
+        if (body == null || body.length() <= maxLength) {
+            return body;
+        }
+        return body.substring(0, maxLength) + "...(" + body.length() + " chars)";
+    }
+}
@@ -0,0 +1,13 @@
+package hello.springmvc.basic;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+/**
+ * HelloData의 불변 버전.
+ * 리플렉션(setter 호출) 없이 바인딩되도록 전용 바인더를 쓴다.
+ * 요청 파라미터: ImmutableHelloDataArgumentResolver
+ * JSON 바디(@RequestBody): ImmutableHelloDataDeserializer
+ */
+@JsonDeserialize(using = ImmutableHelloDataDeserializer.class)
+public record ImmutableHelloData(String username, int age) {
+}
@@ -0,0 +1,115 @@
+package hello.springmvc.basic;
+
+import hello.springmvc.basic.request.FormUrlEncodedReader;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 요청 파라미터(username, age)를 ImmutableHelloData로 바인딩한다.
+ * '@ModelAttribute'는 WebDataBinder가 리플렉션으로 setter를 찾아 호출하지만,
+ * 여기서는 파라미터를 직접 꺼내서 생성자를 한 번 호출할 뿐이다.
+ * '@RequestBody'가 붙은 파라미터는 메시지 컨버터(ImmutableHelloDataDeserializer)에 맡긴다.
+ * hello-form.html 같은 form-urlencoded POST는 컨테이너 파서를 거치지 않고 FormUrlEncodedReader로 바디를 직접 읽는다.
+ * 이때 age는 String을 만들지 않고 바이트에서 바로 int로 읽는다. 바디에 없는 필드는 쿼리 파라미터에서 찾는다.
+ */
+public class ImmutableHelloDataArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final FormUrlEncodedReader formUrlEncodedReader;
+
+    public ImmutableHelloDataArgumentResolver(FormUrlEncodedReader formUrlEncodedReader) {
+        this.formUrlEncodedReader = formUrlEncodedReader;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.getParameterType() == ImmutableHelloData.class
+                && !parameter.hasParameterAnnotation(RequestBody.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory)
+            throws ServletRequestBindingException, IOException {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        if (request != null && isFormPost(request)) {
+            return readForm(request);
+        }
+        return new ImmutableHelloData(webRequest.getParameter("username"), parseAge(webRequest.getParameter("age")));
+    }
+
+    private ImmutableHelloData readForm(HttpServletRequest request) throws IOException, ServletRequestBindingException {
+        Charset charset = request.getCharacterEncoding() != null
+                ? Charset.forName(request.getCharacterEncoding()) : StandardCharsets.UTF_8;
+        FormFields fields = new FormFields(charset);
+        formUrlEncodedReader.read(request.getInputStream(), request.getContentLengthLong(), fields);
+        if (fields.invalidAge != null) {
+            throw new ServletRequestBindingException("age is not a number: " + fields.invalidAge);
+        }
+
+        String username = fields.username != null ? fields.username : request.getParameter("username");
+        int age = fields.hasAge ? fields.age : parseAge(request.getParameter("age"));
+        return new ImmutableHelloData(username, age);
+    }
+
+    private static boolean isFormPost(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return "POST".equals(request.getMethod()) && contentType != null
+                && contentType.regionMatches(true, 0, MediaType.APPLICATION_FORM_URLENCODED_VALUE, 0,
+                MediaType.APPLICATION_FORM_URLENCODED_VALUE.length());
+    }
+
+    private int parseAge(String age) throws ServletRequestBindingException {
+        if (age == null || age.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(age);
+        } catch (NumberFormatException e) {
+            throw new ServletRequestBindingException("age is not a number: " + age);
+        }
+    }
+
+    /**
+     * 같은 이름이 여러 번 오면 컨테이너(getParameter)와 같게 처음 값을 쓴다.
+     */
+    private static class FormFields implements FormUrlEncodedReader.FieldHandler {
+
+        private final Charset charset;
+        private String username;
+        private boolean hasAge;
+        private int age;
+        private String invalidAge;
+
+        FormFields(Charset charset) {
+            this.charset = charset;
+        }
+
+        @Override
+        public void field(byte[] buffer, int nameLength, int length) {
+            if (username == null && FormUrlEncodedReader.nameEquals(buffer, nameLength, "username")) {
+                username = FormUrlEncodedReader.toString(buffer, nameLength, length, charset);
+            } else if (!hasAge && FormUrlEncodedReader.nameEquals(buffer, nameLength, "age")) {
+                hasAge = true;
+                if (nameLength == length) {
+                    return; // age= 처럼 비어 있으면 0
+                }
+                try {
+                    age = FormUrlEncodedReader.parseInt(buffer, nameLength, length);
+                } catch (NumberFormatException e) {
+                    invalidAge = FormUrlEncodedReader.toString(buffer, nameLength, length, charset);
+                }
+            }
+        }
+    }
+}
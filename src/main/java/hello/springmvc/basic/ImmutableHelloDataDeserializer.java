@@ -0,0 +1,41 @@
+package hello.springmvc.basic;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * ImmutableHelloData 전용 Jackson 역직렬화기.
+ * 기본 BeanDeserializer처럼 리플렉션으로 생성자, 필드를 찾지 않고 토큰을 직접 읽어서 만든다.
+ * age는 StdDeserializer의 _parseIntPrimitive로 읽어서 기본 int 바인딩과 같은 규칙을 쓴다.
+ * ("20"은 20, "abc"는 InvalidFormatException → 400. getValueAsInt()는 "abc"를 0으로 바꿔버린다)
+ */
+public class ImmutableHelloDataDeserializer extends StdDeserializer<ImmutableHelloData> {
+
+    public ImmutableHelloDataDeserializer() {
+        super(ImmutableHelloData.class);
+    }
+
+    @Override
+    public ImmutableHelloData deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return (ImmutableHelloData) context.handleUnexpectedToken(ImmutableHelloData.class, parser);
+        }
+
+        String username = null;
+        int age = 0;
+        String fieldName;
+        while ((fieldName = parser.nextFieldName()) != null) {
+            JsonToken value = parser.nextToken();
+            switch (fieldName) {
+                case "username" -> username = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                case "age" -> age = _parseIntPrimitive(parser, context);
+                default -> parser.skipChildren();
+            }
+        }
+        return new ImmutableHelloData(username, age);
+    }
+}
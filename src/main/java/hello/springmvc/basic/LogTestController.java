@@ -14,7 +14,7 @@ public class LogTestController {
     @RequestMapping("/log-test")
     public String logTest() {
         String name = "Spring";
-        System.out.println("name = " + name);
+        // System.out.println은 비동기 로그 설정을 거치지 않고 요청 스레드에서 바로 콘솔에 쓰므로 사용하지 않는다.
 
         log.trace("trace log={}", name);
         log.debug("debug log={}", name);
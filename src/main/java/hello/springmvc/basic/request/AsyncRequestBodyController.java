@@ -0,0 +1,52 @@
+package hello.springmvc.basic.request;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.springmvc.basic.BodyLogFormatter;
+import hello.springmvc.basic.HelloData;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RequestBodyStringController, RequestBodyJsonController의 비동기 버전.
+ * 동기 버전은 바디가 다 올라올 때까지 톰캣 워커 스레드가 read()에서 기다리므로, 느린 업로드가 워커 수만큼 몰리면
+ * 다른 요청은 받지도 못한다. 여기서는 NonBlockingBodyReader가 바디가 도착할 때만 잠깐씩 스레드를 빌려 쓴다.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class AsyncRequestBodyController {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final NonBlockingBodyReader nonBlockingBodyReader;
+    private final BodyLogFormatter bodyLogFormatter;
+
+    /**
+     * request-body-string-v1 ~ v4 의 비동기 버전
+     */
+    @PostMapping("/request-body-string-async")
+    public DeferredResult<String> requestBodyStringAsync(HttpServletRequest request) {
+        return nonBlockingBodyReader.read(request, body -> {
+            String messageBody = new String(body, StandardCharsets.UTF_8);
+            log.info("messageBody= {}", bodyLogFormatter.abbreviate(messageBody));
+            return "ok";
+        });
+    }
+
+    /**
+     * request-body-json-v5 의 비동기 버전
+     */
+    @PostMapping("/request-body-json-async")
+    public DeferredResult<HelloData> requestBodyJsonAsync(HttpServletRequest request) {
+        return nonBlockingBodyReader.read(request, body -> {
+            HelloData data = objectMapper.readValue(body, HelloData.class);
+            log.info("username= {}, age= {}", data.getUsername(), data.getAge());
+            return data;
+        });
+    }
+}
@@ -0,0 +1,18 @@
+package hello.springmvc.basic.request;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.IOException;
+
+/**
+ * 요청 바디가 설정된 최대 크기를 넘었을 때 발생.
+ * '@ResponseStatus' 덕분에 컨트롤러 밖으로 던져지면 413(Payload Too Large)으로 응답된다.
+ */
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class BodyTooLargeException extends IOException {
+
+    public BodyTooLargeException(long maxBytes) {
+        super("request body exceeds " + maxBytes + " bytes");
+    }
+}
@@ -0,0 +1,16 @@
+package hello.springmvc.basic.request;
+
+import java.util.List;
+
+/**
+ * 벌크 요청 처리 결과. 수천 건의 응답이 커지지 않도록 거절된 레코드만 index와 사유를 담는다.
+ * rejections에 없는 index는 모두 accepted.
+ */
+public record BulkResult(int accepted, int rejected, List<Rejection> rejections) {
+
+    /**
+     * @param index 요청 바디 안에서 레코드의 순서 (0부터)
+     */
+    public record Rejection(int index, String reason) {
+    }
+}
@@ -0,0 +1,172 @@
+package hello.springmvc.basic.request;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * application/x-www-form-urlencoded 바디를 InputStream에서 한 번 훑으면서 필드 단위로 넘겨준다.
+ * 컨테이너 파서는 바디 전체를 읽어 Map<String, String[]>을 만들지만, 여기서는
+ * %XX와 '+'를 스레드마다 재사용하는 버퍼에 바로 풀어 넣고 (name, value) 바이트 구간만 FieldHandler에 알려준다.
+ * String을 만들지, 숫자로 바로 읽을지는 FieldHandler가 정한다.
+ * 해시 충돌을 노린 대량 파라미터 공격에 대비해 파라미터 수, 필드 크기, 바디 크기를 제한한다.
+ * (파라미터를 해시맵에 넣지 않으므로 충돌 자체가 생기지 않지만, 개수 제한은 CPU를 쓰기 전에 끊기 위함이다)
+ */
+@Component
+public class FormUrlEncodedReader {
+
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+
+    private final int maxParameters;
+    private final int maxFieldSize;
+    private final long maxBodyBytes;
+    private final ThreadLocal<Buffers> buffers;
+
+    public FormUrlEncodedReader(@Value("${hello.form.max-parameters:64}") int maxParameters,
+                                @Value("${hello.form.max-field-size:4KB}") DataSize maxFieldSize,
+                                @Value("${hello.form.max-body-size:64KB}") DataSize maxBodySize) {
+        this.maxParameters = maxParameters;
+        this.maxFieldSize = (int) maxFieldSize.toBytes();
+        this.maxBodyBytes = maxBodySize.toBytes();
+        this.buffers = ThreadLocal.withInitial(() -> new Buffers(new byte[READ_BUFFER_SIZE], new byte[this.maxFieldSize]));
+    }
+
+    /**
+     * name은 buffer[0, nameLength), value는 buffer[nameLength, length) 이다.
+     * buffer는 다음 필드에서 덮어쓰므로 콜백 안에서만 유효하다.
+     */
+    @FunctionalInterface
+    public interface FieldHandler {
+        void field(byte[] buffer, int nameLength, int length) throws IOException;
+    }
+
+    /**
+     * @return 읽은 파라미터 수
+     */
+    public int read(InputStream inputStream, long contentLength, FieldHandler handler) throws IOException {
+        if (contentLength > maxBodyBytes) {
+            throw new BodyTooLargeException(maxBodyBytes);
+        }
+
+        Buffers buffers = this.buffers.get();
+        byte[] in = buffers.in();
+        byte[] field = buffers.field();
+        InputStream limited = new LimitedInputStream(inputStream, maxBodyBytes);
+
+        int parameters = 0;
+        int length = 0;
+        int nameLength = -1;
+        int percent = 0; // %XX 중 몇 번째 자리를 읽을 차례인지 (0이면 % 밖)
+        int high = 0;
+        int n;
+        while ((n = limited.read(in, 0, in.length)) != -1) {
+            for (int i = 0; i < n; i++) {
+                int c = in[i];
+                int decoded;
+                if (percent == 1) {
+                    high = hex(c);
+                    percent = 2;
+                    continue;
+                } else if (percent == 2) {
+                    decoded = (high << 4) | hex(c);
+                    percent = 0;
+                } else if (c == '%') {
+                    percent = 1;
+                    continue;
+                } else if (c == '+') {
+                    decoded = ' ';
+                } else if (c == '=' && nameLength < 0) {
+                    nameLength = length;
+                    continue;
+                } else if (c == '&') {
+                    parameters = emit(handler, field, nameLength, length, parameters);
+                    length = 0;
+                    nameLength = -1;
+                    continue;
+                } else {
+                    decoded = c;
+                }
+
+                if (length == field.length) {
+                    throw new BodyTooLargeException(field.length);
+                }
+                field[length++] = (byte) decoded;
+            }
+        }
+        if (percent != 0) {
+            throw new MalformedFormException("incomplete percent-encoding at end of body");
+        }
+        return emit(handler, field, nameLength, length, parameters);
+    }
+
+    private int emit(FieldHandler handler, byte[] field, int nameLength, int length, int parameters)
+            throws IOException {
+        if (nameLength < 0) {
+            nameLength = length;
+        }
+        if (nameLength == 0) {
+            return parameters; // "&&" 나 "=value" 처럼 이름이 없는 필드는 버린다.
+        }
+        if (parameters == maxParameters) {
+            throw new MalformedFormException("too many parameters. max= " + maxParameters);
+        }
+        handler.field(field, nameLength, length);
+        return parameters + 1;
+    }
+
+    private static int hex(int c) throws MalformedFormException {
+        int digit = Character.digit(c, 16);
+        if (digit < 0) {
+            throw new MalformedFormException("invalid percent-encoding");
+        }
+        return digit;
+    }
+
+    public static boolean nameEquals(byte[] buffer, int nameLength, String asciiName) {
+        if (nameLength != asciiName.length()) {
+            return false;
+        }
+        for (int i = 0; i < nameLength; i++) {
+            if (buffer[i] != asciiName.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 바이트 구간을 바로 int로 읽는다. 숫자가 아니거나 범위를 넘으면 NumberFormatException.
+     */
+    public static int parseInt(byte[] buffer, int from, int to) {
+        if (from == to) {
+            throw new NumberFormatException("empty");
+        }
+        boolean negative = buffer[from] == '-';
+        int i = negative || buffer[from] == '+' ? from + 1 : from;
+        if (i == to) {
+            throw new NumberFormatException("no digits");
+        }
+        // Integer.parseInt처럼 음수 쪽으로 누적해야 Integer.MIN_VALUE까지 표현된다.
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int result = 0;
+        for (; i < to; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9 || result < (limit + digit) / 10) {
+                throw new NumberFormatException("not an int");
+            }
+            result = result * 10 - digit;
+        }
+        return negative ? result : -result;
+    }
+
+    public static String toString(byte[] buffer, int from, int to, Charset charset) {
+        return new String(buffer, from, to - from, charset);
+    }
+
+    private record Buffers(byte[] in, byte[] field) {
+    }
+}
@@ -0,0 +1,136 @@
+package hello.springmvc.basic.request;
+
+import hello.springmvc.basic.HelloData;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 벌크 요청으로 들어온 HelloData를 batchSize 단위로 묶어서 처리하는 단계.
+ * 워커 수는 코어 수로 고정하고 대기 큐도 크기를 제한한다.
+ * 큐가 꽉 차면 CallerRunsPolicy에 의해 요청 스레드가 직접 배치를 처리하게 되는데,
+ * 그동안은 바디를 더 읽지 않으므로 자연스럽게 back-pressure가 걸린다.
+ * 종료(shutdown) 뒤에는 CallerRunsPolicy가 배치를 말없이 버려서 finish()가 영원히 기다리게 되므로,
+ * 이때는 배치를 받지 않고 ServiceUnavailableException(503)을 던진다.
+ */
+@Slf4j
+@Component
+public class HelloDataBatchProcessor {
+
+    private final int batchSize;
+    private final ThreadPoolExecutor executor;
+
+    public HelloDataBatchProcessor(@Value("${hello.bulk.batch-size:500}") int batchSize,
+                                   @Value("${hello.bulk.queue-capacity:64}") int queueCapacity) {
+        int workers = Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.batchSize = batchSize;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "hello-bulk-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException("bulk processor is shut down");
+                    }
+                    runnable.run();
+                });
+    }
+
+    /**
+     * 요청 하나당 하나씩 연다. HelloDataStreamReader의 consumer로 그대로 넘기면 된다.
+     */
+    public Session openSession() {
+        return new Session();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 배치 하나를 검증하고 처리한 뒤, 거절된 레코드만 모아서 돌려준다.
+     * @param offset 배치 첫 레코드가 요청 전체에서 몇 번째인지
+     */
+    protected List<BulkResult.Rejection> process(int offset, List<HelloData> batch) {
+        List<BulkResult.Rejection> rejections = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            HelloData data = batch.get(i);
+            String reason = validate(data);
+            if (reason != null) {
+                rejections.add(new BulkResult.Rejection(offset + i, reason));
+                continue;
+            }
+            log.debug("username= {}, age= {}", data.getUsername(), data.getAge());
+        }
+        return rejections;
+    }
+
+    private String validate(HelloData data) {
+        if (!StringUtils.hasText(data.getUsername())) {
+            return "username is empty";
+        }
+        if (data.getAge() < 0) {
+            return "age must not be negative";
+        }
+        return null;
+    }
+
+    public class Session implements Consumer<HelloData> {
+
+        private final List<CompletableFuture<List<BulkResult.Rejection>>> pending = new ArrayList<>();
+        private List<HelloData> current = new ArrayList<>(batchSize);
+        private int total;
+
+        @Override
+        public void accept(HelloData data) {
+            current.add(data);
+            total++;
+            if (current.size() == batchSize) {
+                submit();
+            }
+        }
+
+        /**
+         * 남은 레코드까지 제출하고 모든 배치가 끝날 때까지 기다린다.
+         */
+        public BulkResult finish() {
+            if (!current.isEmpty()) {
+                submit();
+            }
+
+            List<BulkResult.Rejection> rejections = new ArrayList<>();
+            for (CompletableFuture<List<BulkResult.Rejection>> future : pending) {
+                rejections.addAll(future.join());
+            }
+            return new BulkResult(total - rejections.size(), rejections.size(), rejections);
+        }
+
+        private void submit() {
+            List<HelloData> batch = current;
+            int offset = total - batch.size();
+            current = new ArrayList<>(batchSize);
+            try {
+                pending.add(CompletableFuture.supplyAsync(() -> process(offset, batch), executor));
+            } catch (RejectedExecutionException e) {
+                throw new ServiceUnavailableException("server is shutting down", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package hello.springmvc.basic.request;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import hello.springmvc.basic.HelloData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * 요청 바디를 String으로 복사하지 않고, InputStream에서 바로 토큰 단위로 읽어 HelloData로 만든다.
+ * 아래 세 가지 형태를 모두 받는다.
+ * {"username":"hello", "age":20}                      단일 객체
+ * [{"username":"a", "age":1}, {"username":"b", "age":2}] 배열
+ * {"username":"a", "age":1}\n{"username":"b", "age":2}  NDJSON (루트 레벨 값이 연속)
+ * 한 번에 레코드 하나만 만들어서 consumer에 넘기므로, 요청 하나가 쓰는 메모리는 바디 크기와 상관없이 일정하다.
+ * JSON이 깨졌거나 age가 숫자가 아니면 MalformedBodyException(400)을 던진다. 그 전까지 읽은 레코드는 이미 consumer에 넘어가 있다.
+ */
+@Component
+public class HelloDataStreamReader {
+
+    private final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE) // 서블릿 InputStream은 컨테이너가 닫는다.
+            .build();
+
+    private final long maxBodyBytes;
+
+    public HelloDataStreamReader(@Value("${hello.json.stream.max-body-size:10MB}") DataSize maxBodySize) {
+        this.maxBodyBytes = maxBodySize.toBytes();
+    }
+
+    /**
+     * @param contentLength 알 수 없으면 -1. 값이 있으면 읽기 전에 먼저 크기를 검사한다.
+     * @return 읽은 레코드 수
+     */
+    public int read(InputStream inputStream, long contentLength, Consumer<HelloData> consumer) throws IOException {
+        if (contentLength > maxBodyBytes) {
+            throw new BodyTooLargeException(maxBodyBytes);
+        }
+
+        try (JsonParser parser = jsonFactory.createParser(new LimitedInputStream(inputStream, maxBodyBytes))) {
+            JsonToken token = parser.nextToken();
+            int count = 0;
+
+            if (token == JsonToken.START_ARRAY) {
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == null) {
+                        throw new JsonParseException(parser, "unexpected end of array");
+                    }
+                    consumer.accept(readHelloData(parser));
+                    count++;
+                }
+                if (parser.nextToken() != null) {
+                    throw new JsonParseException(parser, "unexpected content after array");
+                }
+                return count;
+            }
+
+            while (token != null) {
+                consumer.accept(readHelloData(parser));
+                count++;
+                token = parser.nextToken();
+            }
+            return count;
+        } catch (JsonProcessingException e) {
+            throw new MalformedBodyException("malformed json body: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * 현재 토큰이 START_OBJECT인 상태에서 호출. 모르는 필드는 건너뛴다.
+     */
+    private HelloData readHelloData(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "expected HelloData object but was " + parser.currentToken());
+        }
+
+        HelloData helloData = new HelloData();
+        String fieldName;
+        while ((fieldName = parser.nextFieldName()) != null) {
+            JsonToken value = parser.nextToken();
+            switch (fieldName) {
+                case "username" -> helloData.setUsername(value == JsonToken.VALUE_NULL ? null : parser.getValueAsString());
+                case "age" -> helloData.setAge(readAge(parser, value));
+                default -> parser.skipChildren();
+            }
+        }
+        return helloData;
+    }
+
+    /**
+     * getValueAsInt()는 "abc" 같은 값을 0으로 바꿔버리므로 직접 읽는다.
+     * ObjectMapper로 읽는 request-body-json-v3 ~ v5와 같게 숫자 문자열("20")과 null(0)은 받는다.
+     */
+    private static int readAge(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getIntValue();
+        }
+        if (value == JsonToken.VALUE_NULL) {
+            return 0;
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            try {
+                return Integer.parseInt(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                throw new JsonParseException(parser, "age is not a number: " + parser.getText());
+            }
+        }
+        throw new JsonParseException(parser, "age is not a number: " + value);
+    }
+}
@@ -0,0 +1,95 @@
+package hello.springmvc.basic.request;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.Enumeration;
+
+/**
+ * 읽기 전용 헤더 뷰. 컨트롤러 파라미터로 받으면 LazyHeadersArgumentResolver가 만들어준다.
+ * '@RequestHeader MultiValueMap'처럼 모든 헤더를 미리 복사하지 않고, 값을 요청할 때 컨테이너에서 바로 읽는다.
+ * 쿠키도 request.getCookies()처럼 모든 쿠키를 Cookie 객체로 만들지 않고,
+ * Cookie 헤더를 한 번 훑으면서 요청한 이름의 값만 꺼낸다.
+ */
+public class LazyHeaders {
+
+    private final HttpServletRequest request;
+
+    public LazyHeaders(HttpServletRequest request) {
+        this.request = request;
+    }
+
+    /**
+     * @return 헤더 값. 같은 이름이 여러 개면 첫 번째. 없으면 null
+     */
+    public String get(String name) {
+        return request.getHeader(name);
+    }
+
+    public Enumeration<String> getAll(String name) {
+        return request.getHeaders(name);
+    }
+
+    public String host() {
+        return request.getHeader("host");
+    }
+
+    /**
+     * @return 쿠키 값. 없으면 null
+     */
+    public String cookie(String name) {
+        Enumeration<String> headers = request.getHeaders("cookie");
+        while (headers.hasMoreElements()) {
+            String value = findCookie(headers.nextElement(), name);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * "a=1; myCookie=hello; b=2" 형식의 Cookie 헤더에서 name의 값만 잘라낸다.
+     * 이름 비교는 regionMatches로 하므로, 일치하는 쿠키 값 하나 외에는 문자열을 만들지 않는다.
+     */
+    static String findCookie(String header, String name) {
+        int length = header.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && (header.charAt(i) == ' ' || header.charAt(i) == ';')) {
+                i++;
+            }
+            int nameStart = i;
+            while (i < length && header.charAt(i) != '=' && header.charAt(i) != ';') {
+                i++;
+            }
+            int nameEnd = i;
+            while (nameEnd > nameStart && header.charAt(nameEnd - 1) == ' ') {
+                nameEnd--;
+            }
+            if (i >= length || header.charAt(i) == ';') {
+                continue; // 값 없는 쿠키
+            }
+
+            int valueStart = ++i;
+            while (i < length && header.charAt(i) != ';') {
+                i++;
+            }
+            int valueEnd = i;
+
+            if (nameEnd - nameStart == name.length() && header.regionMatches(nameStart, name, 0, name.length())) {
+                while (valueStart < valueEnd && header.charAt(valueStart) == ' ') {
+                    valueStart++;
+                }
+                while (valueEnd > valueStart && header.charAt(valueEnd - 1) == ' ') {
+                    valueEnd--;
+                }
+                if (valueEnd - valueStart >= 2 && header.charAt(valueStart) == '"' && header.charAt(valueEnd - 1) == '"') {
+                    valueStart++;
+                    valueEnd--;
+                }
+                return header.substring(valueStart, valueEnd);
+            }
+        }
+        return null;
+    }
+}
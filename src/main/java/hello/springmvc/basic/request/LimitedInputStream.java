@@ -0,0 +1,57 @@
+package hello.springmvc.basic.request;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 읽은 바이트 수를 세다가 maxBytes를 넘는 순간 BodyTooLargeException을 던지는 InputStream.
+ * Content-Length가 없는(chunked) 요청도 메모리에 전부 올리기 전에 끊어낼 수 있다.
+ */
+class LimitedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long count;
+
+    LimitedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            advance(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        advance(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void advance(long n) throws BodyTooLargeException {
+        count += n;
+        if (count > maxBytes) {
+            throw new BodyTooLargeException(maxBytes);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package hello.springmvc.basic.request;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.IOException;
+
+/**
+ * 요청 바디를 직접 파싱하다가 형식이 잘못된 것을 발견했을 때 발생. (깨진 JSON, 숫자가 아닌 age 등)
+ * '@ResponseStatus' 덕분에 컨트롤러 밖으로 던져지면 400(Bad Request)으로 응답된다.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class MalformedBodyException extends IOException {
+
+    public MalformedBodyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
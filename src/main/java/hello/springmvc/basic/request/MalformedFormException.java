@@ -0,0 +1,17 @@
+package hello.springmvc.basic.request;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.IOException;
+
+/**
+ * form-urlencoded 바디가 잘못됐거나(깨진 %XX) 파라미터 수 제한을 넘었을 때 발생. 400으로 응답된다.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class MalformedFormException extends IOException {
+
+    public MalformedFormException(String message) {
+        super(message);
+    }
+}
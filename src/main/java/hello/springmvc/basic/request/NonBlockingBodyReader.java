@@ -0,0 +1,107 @@
+package hello.springmvc.basic.request;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * 요청 바디를 ReadListener로 읽는다. 핸들러는 DeferredResult를 바로 반환하므로 톰캣 워커 스레드는 곧장 풀로 돌아가고,
+ * 바디 조각이 도착할 때마다 컨테이너가 onDataAvailable을 호출해서 읽을 수 있는 만큼만 읽는다.
+ * 다 읽으면 BodyHandler를 실행해서 그 결과로 DeferredResult를 완료한다. (BodyHandler는 컨테이너 스레드에서 돌므로 블록하면 안 된다)
+ * setReadListener는 비동기 모드에서만 호출할 수 있으므로, 스프링이 startAsync를 한 직후(preProcess)에 등록한다.
+ */
+@Component
+public class NonBlockingBodyReader {
+
+    private static final String INTERCEPTOR_KEY = NonBlockingBodyReader.class.getName();
+
+    private final long maxBodyBytes;
+    private final long timeoutMillis;
+
+    public NonBlockingBodyReader(@Value("${hello.async.max-body-size:10MB}") DataSize maxBodySize,
+                                 @Value("${hello.async.timeout:60s}") Duration timeout) {
+        this.maxBodyBytes = maxBodySize.toBytes();
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    @FunctionalInterface
+    public interface BodyHandler<T> {
+        T handle(byte[] body) throws Exception;
+    }
+
+    public <T> DeferredResult<T> read(HttpServletRequest request, BodyHandler<T> handler) {
+        DeferredResult<T> result = new DeferredResult<>(timeoutMillis);
+        long contentLength = request.getContentLengthLong();
+        if (contentLength > maxBodyBytes) {
+            result.setErrorResult(new BodyTooLargeException(maxBodyBytes));
+            return result;
+        }
+
+        WebAsyncUtils.getAsyncManager(request).registerDeferredResultInterceptor(INTERCEPTOR_KEY,
+                new DeferredResultProcessingInterceptor() {
+                    @Override
+                    public <R> void preProcess(NativeWebRequest webRequest, DeferredResult<R> deferredResult)
+                            throws IOException {
+                        ServletInputStream inputStream = request.getInputStream();
+                        inputStream.setReadListener(new BodyListener<>(inputStream, contentLength, handler, result));
+                    }
+                });
+        return result;
+    }
+
+    private class BodyListener<T> implements ReadListener {
+
+        private final ServletInputStream inputStream;
+        private final ByteArrayOutputStream body;
+        private final BodyHandler<T> handler;
+        private final DeferredResult<T> result;
+        private final byte[] buffer = new byte[8 * 1024];
+
+        BodyListener(ServletInputStream inputStream, long contentLength, BodyHandler<T> handler, DeferredResult<T> result) {
+            this.inputStream = inputStream;
+            this.body = new ByteArrayOutputStream(contentLength > 0 ? (int) contentLength : 1024);
+            this.handler = handler;
+            this.result = result;
+        }
+
+        @Override
+        public void onDataAvailable() throws IOException {
+            // isReady()가 false면 여기서 멈추고, 다음 조각이 오면 컨테이너가 다시 호출한다.
+            while (inputStream.isReady() && !inputStream.isFinished()) {
+                int n = inputStream.read(buffer);
+                if (n == -1) {
+                    break;
+                }
+                if (body.size() + n > maxBodyBytes) {
+                    throw new BodyTooLargeException(maxBodyBytes);
+                }
+                body.write(buffer, 0, n);
+            }
+        }
+
+        @Override
+        public void onAllDataRead() {
+            try {
+                result.setResult(handler.handle(body.toByteArray()));
+            } catch (Exception e) {
+                result.setErrorResult(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            result.setErrorResult(t);
+        }
+    }
+}
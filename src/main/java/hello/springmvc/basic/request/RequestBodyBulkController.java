@@ -0,0 +1,35 @@
+package hello.springmvc.basic.request;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * HelloData를 요청 하나에 한 건씩 보내는 대신, 수천 건을 JSON 배열이나 NDJSON으로 한 번에 받는다.
+ * content-type: application/json 또는 application/x-ndjson
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class RequestBodyBulkController {
+
+    private final HelloDataStreamReader helloDataStreamReader;
+    private final HelloDataBatchProcessor helloDataBatchProcessor;
+
+    /**
+     * 바디를 읽는 대로 배치 처리 단계로 넘기고, 전부 끝나면 건별 결과를 JSON으로 돌려준다.
+     */
+    @PostMapping("/request-body-json-bulk")
+    public BulkResult requestBodyJsonBulk(HttpServletRequest request) throws IOException {
+        HelloDataBatchProcessor.Session session = helloDataBatchProcessor.openSession();
+        helloDataStreamReader.read(request.getInputStream(), request.getContentLengthLong(), session);
+
+        BulkResult result = session.finish();
+        log.info("accepted= {}, rejected= {}", result.accepted(), result.rejected());
+        return result;
+    }
+}
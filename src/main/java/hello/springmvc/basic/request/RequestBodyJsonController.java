@@ -2,12 +2,20 @@ package hello.springmvc.basic.request;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.springmvc.basic.BinaryMediaType;
+import hello.springmvc.basic.BodyLogFormatter;
 import hello.springmvc.basic.HelloData;
+import hello.springmvc.basic.ImmutableHelloData;
+import hello.springmvc.wal.HelloDataWal;
+import hello.springmvc.web.idempotency.Idempotent;
+import hello.springmvc.web.ratelimit.RateLimited;
 import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -24,16 +32,21 @@ import java.nio.charset.StandardCharsets;
  */
 @Slf4j
 @Controller
+@RateLimited("json-body")
+@RequiredArgsConstructor
 public class RequestBodyJsonController {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HelloDataStreamReader helloDataStreamReader;
+    private final BodyLogFormatter bodyLogFormatter;
+    private final HelloDataWal helloDataWal;
 
     @PostMapping("/request-body-json-v1")
     public void requestBodyJsonV1(HttpServletRequest request, HttpServletResponse response) throws IOException {
 
         ServletInputStream inputStream = request.getInputStream();
         String messageBody = StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
-        log.info("messageBody= {}", messageBody);
+        log.info("messageBody= {}", bodyLogFormatter.abbreviate(messageBody));
 
         HelloData helloData = objectMapper.readValue(messageBody, HelloData.class);
         log.info("username= {}, age= {}", helloData.getUsername(), helloData.getAge());
@@ -45,7 +58,7 @@ public class RequestBodyJsonController {
     @PostMapping("/request-body-json-v2")
     public String requestBodyJsonV2(@RequestBody String messageBody) throws JsonProcessingException {
 
-        log.info("messageBody= {}", messageBody);
+        log.info("messageBody= {}", bodyLogFormatter.abbreviate(messageBody));
         HelloData helloData = objectMapper.readValue(messageBody, HelloData.class);
         log.info("username= {}, age= {}", helloData.getUsername(), helloData.getAge());
 
@@ -61,12 +74,15 @@ public class RequestBodyJsonController {
      *             만약 생략하면 '@ModelAttirube'가 자동 적용된다(단순 타입이 아니므로).
      *             그러면 QueryParameter가 존재하지 않음으로 helloData는
      *             username, age 모두 아무런 값도 없는 객체가 반환된다.
+     *             받은 데이터는 WAL에 기록된 뒤에 응답한다.
      */
     @ResponseBody
+    @Idempotent
     @PostMapping("/request-body-json-v3")
     public String requestBodyJsonV3(@RequestBody HelloData data) {
 
         log.info("username= {}, age= {}", data.getUsername(), data.getAge());
+        helloDataWal.append(data);
 
         return "ok";
     }
@@ -93,7 +109,53 @@ public class RequestBodyJsonController {
     @PostMapping("/request-body-json-v5")
     public HelloData requestBodyJsonV5(@RequestBody HelloData data) {
         log.info("username= {}, age= {}", data.getUsername(), data.getAge());
+        helloDataWal.append(data);
 
         return data;
     }
+
+    /**
+     * v5와 같지만 CBOR, Smile 바디만 받는다. 응답 형식은 Accept로 고른다.
+     * Content-Type: application/cbor 로 보내고 Accept: application/cbor 로 받으면 JSON 파싱이 아예 없다.
+     */
+    @ResponseBody
+    @PostMapping(value = "/request-body-binary",
+            consumes = {BinaryMediaType.APPLICATION_CBOR_VALUE, BinaryMediaType.APPLICATION_SMILE_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, BinaryMediaType.APPLICATION_CBOR_VALUE, BinaryMediaType.APPLICATION_SMILE_VALUE})
+    public HelloData requestBodyBinary(@RequestBody HelloData data) {
+        log.info("username= {}, age= {}", data.getUsername(), data.getAge());
+        helloDataWal.append(data);
+
+        return data;
+    }
+
+    /**
+     * v3와 같지만 불변 객체(record)로 받는다.
+     * ImmutableHelloData에 지정된 ImmutableHelloDataDeserializer가 리플렉션 없이 토큰을 직접 읽는다.
+     */
+    @ResponseBody
+    @PostMapping("/request-body-json-v6")
+    public String requestBodyJsonV6(@RequestBody ImmutableHelloData data) {
+        log.info("username= {}, age= {}", data.username(), data.age());
+
+        return "ok";
+    }
+
+    /**
+     * v1, v2처럼 바디 전체를 String으로 복사한 뒤 파싱하지 않고, InputStream에서 바로 파싱한다.
+     * 단일 객체, 배열, NDJSON 모두 받을 수 있고, hello.json.stream.max-body-size 보다 크면 413 응답.
+     * 큰 바디를 받느라 v1 ~ v6보다 훨씬 오래 걸리므로 제한 그룹을 따로 둔다.
+     * 같은 그룹이면 이 요청들의 긴 지연 때문에 동시 처리 한도가 줄어서 v1 ~ v6까지 거절된다.
+     * 레코드가 수십만 개일 수 있으므로 레코드별 로그는 debug로만 남기고 info는 개수 한 줄만 남긴다.
+     */
+    @ResponseBody
+    @RateLimited("json-stream")
+    @PostMapping("/request-body-json-stream")
+    public String requestBodyJsonStream(HttpServletRequest request) throws IOException {
+        int count = helloDataStreamReader.read(request.getInputStream(), request.getContentLengthLong(),
+                data -> log.debug("username= {}, age= {}", data.getUsername(), data.getAge()));
+        log.info("count= {}", count);
+
+        return "ok";
+    }
 }
@@ -1,8 +1,11 @@
 package hello.springmvc.basic.request;
 
+import hello.springmvc.basic.BodyLogFormatter;
+import hello.springmvc.web.idempotency.Idempotent;
 import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -21,14 +24,17 @@ import java.nio.charset.StandardCharsets;
 
 @Slf4j
 @Controller
+@RequiredArgsConstructor
 public class RequestBodyStringController {
 
+    private final BodyLogFormatter bodyLogFormatter;
+
     @PostMapping("/request-body-string-v1")
     public void requestBodyString(HttpServletRequest request, HttpServletResponse response) throws IOException {
         ServletInputStream inputStream = request.getInputStream();
         String messageBody = StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
 
-        log.info("messageBody= {}", messageBody);
+        log.info("messageBody= {}", bodyLogFormatter.abbreviate(messageBody));
 
         response.getWriter().write("ok");
 
@@ -45,7 +51,7 @@ public class RequestBodyStringController {
     public void requestBodyStringV2(InputStream inputStream, Writer responseWriter) throws IOException {
         String messageBody = StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
 
-        log.info("messageBody= {}", messageBody);
+        log.info("messageBody= {}", bodyLogFormatter.abbreviate(messageBody));
 
         responseWriter.write("ok");
     }
@@ -56,12 +62,13 @@ public class RequestBodyStringController {
      * @return HttpEntity를 return하면 view 조회하지 않고, http 응답 메시지에 설정한 body와 header를 넣어서 바로 보냄.
      * request는 RequestEntity, response는 ResponseEntity를 사용해도 된다.
      */
+    @Idempotent
     @PostMapping("/request-body-string-v3")
     public HttpEntity<String> requestBodyStringV3(HttpEntity<String> httpEntity) {
         String messageBody = httpEntity.getBody();
         HttpHeaders headers = httpEntity.getHeaders();
-        log.info("messageBody= {}", messageBody);
-        log.info("headers= {}", headers);
+        log.info("messageBody= {}", bodyLogFormatter.abbreviate(messageBody));
+        log.debug("headers= {}", headers);
 
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.add("header1", "111");
@@ -77,10 +84,25 @@ public class RequestBodyStringController {
     @ResponseBody
     @PostMapping("/request-body-string-v4")
     public String requestBodyStringV4(@RequestBody String messageBody, @RequestHeader MultiValueMap<String, String> headersMap) {
-        log.info("messageBody= {}, headers= {}", messageBody, headersMap);
+        log.info("messageBody= {}", bodyLogFormatter.abbreviate(messageBody));
+        log.debug("headers= {}", headersMap);
 
         return "ok";
     }
 
+    /**
+     * v1, v2는 바디 전체를 String으로 만들기 때문에 수백 MB짜리 업로드가 오면 힙이 모자란다.
+     * UploadedBody로 받으면 바디는 디스크에 있고, 힙은 UploadSpooler의 버퍼 하나만 쓴다.
+     * multipart로 보내면 이름이 file인 파트를 받는다.
+     * @return 받은 크기와 CRC32C
+     */
+    @ResponseBody
+    @PostMapping("/request-body-upload")
+    public UploadResult requestBodyUpload(UploadedBody file) {
+        log.info("filename= {}, size= {}, crc32c= {}", file.filename(), file.size(), file.checksum());
+
+        return UploadResult.of(file);
+    }
+
 }
 
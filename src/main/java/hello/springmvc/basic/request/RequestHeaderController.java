@@ -45,14 +45,30 @@ public class RequestHeaderController {
             @RequestHeader("host") String host,
             @CookieValue(value = "myCookie", required = false) String cookie
     ) {
-        log.info("request={}", request);
-        log.info("response={}", response);
+        // request, response, 헤더 전체는 요청마다 문자열이 크게 만들어지므로 debug 레벨에서만 남긴다.
+        log.debug("request={}", request);
+        log.debug("response={}", response);
         log.info("httpMethod={}", httpMethod);
         log.info("locale={}", locale);
-        log.info("headerMap={}", headerMap);
+        log.debug("headerMap={}", headerMap);
         log.info("header host={}", host);
         log.info("myCookie={}", cookie);
 
         return "ok";
     }
+
+    /**
+     * headers와 같은 정보를 LazyHeaders로 필요한 것만 읽는다.
+     * 헤더 전체 MultiValueMap, 쿠키 배열을 만들지 않으므로 요청마다 생기는 컬렉션이 없다.
+     * @param headers 읽기 전용 헤더 뷰. 값을 요청할 때 컨테이너에서 바로 읽는다.
+     */
+    @RequestMapping("/headers-v2")
+    public String headersV2(HttpServletRequest request, LazyHeaders headers) {
+        log.info("httpMethod={}", request.getMethod());
+        log.info("locale={}", request.getLocale());
+        log.info("header host={}", headers.host());
+        log.info("myCookie={}", headers.cookie("myCookie"));
+
+        return "ok";
+    }
 }
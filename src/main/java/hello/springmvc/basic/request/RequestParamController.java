@@ -1,8 +1,11 @@
 package hello.springmvc.basic.request;
 
 import hello.springmvc.basic.HelloData;
+import hello.springmvc.basic.ImmutableHelloData;
+import hello.springmvc.wal.HelloDataWal;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.ModelAttribute;
@@ -13,10 +16,19 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import java.io.IOException;
 import java.util.Map;
 
+/**
+ * 요청 파라미터를 받는 여러 방법 예제.
+ * v1 ~ model-attribute-v2는 일부러 컨테이너 파서(getParameter, Map<String, String[]>)와 스프링 바인딩을 그대로 쓴다.
+ * form-urlencoded 바디를 FormUrlEncodedReader로 직접 읽는(파라미터 수, 크기 제한 포함) 경로는 model-attribute-v3 뿐이고,
+ * hello-form.html도 그쪽으로 보낸다.
+ */
 @Slf4j
 @Controller
+@RequiredArgsConstructor
 public class RequestParamController {
 
+    private final HelloDataWal helloDataWal;
+
     @RequestMapping("/request-param-v1")
     public void requestParamV1(HttpServletRequest request, HttpServletResponse response) throws IOException {
         String username = request.getParameter("username");
@@ -121,12 +133,14 @@ public class RequestParamController {
      * 코드 간결화: 여러 필드를 일일이 매핑할 필요 없이 자동으로 바인딩
      * @param helloData 모델로 사용할 클래스를 미리 생성해둬야함.
      *                  HelloData 클래스에 @Data(롬복) 적용해서 setter 등 메서드 자동으로 생성했음.
+     *                  바인딩된 데이터는 WAL에 기록된 뒤에 응답한다.
      */
     @ResponseBody
     @RequestMapping("/model-attribute-v1")
     public String modelAttributeV1(@ModelAttribute HelloData helloData) {
         log.info("HelloData= {}", helloData);
         log.info("username= {}, age= {}", helloData.getUsername(), helloData.getAge());
+        helloDataWal.append(helloData);
 
         return "ok";
     }
@@ -145,4 +159,16 @@ public class RequestParamController {
 
         return "ok";
     }
+
+    /**
+     * 불변 객체(record)로 받기. setter가 없으므로 '@ModelAttribute'의 리플렉션 바인딩 대신
+     * ImmutableHelloDataArgumentResolver가 요청 파라미터를 직접 꺼내서 만든다.
+     */
+    @ResponseBody
+    @RequestMapping("/model-attribute-v3")
+    public String modelAttributeV3(ImmutableHelloData helloData) {
+        log.info("username= {}, age= {}", helloData.username(), helloData.age());
+
+        return "ok";
+    }
 }
@@ -0,0 +1,20 @@
+package hello.springmvc.basic.request;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 서버가 종료 중이거나 자원이 모자라서 지금은 요청을 처리할 수 없을 때 발생.
+ * '@ResponseStatus' 덕분에 컨트롤러 밖으로 던져지면 503(Service Unavailable)으로 응답된다. 클라이언트는 나중에 다시 보내면 된다.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
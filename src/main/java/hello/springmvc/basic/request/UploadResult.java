@@ -0,0 +1,11 @@
+package hello.springmvc.basic.request;
+
+/**
+ * 업로드를 받은 결과. 클라이언트는 crc32c를 자기가 보낸 바디의 CRC32C와 비교해 볼 수 있다.
+ */
+public record UploadResult(String filename, String contentType, long size, String crc32c) {
+
+    public static UploadResult of(UploadedBody body) {
+        return new UploadResult(body.filename(), body.contentType(), body.size(), body.checksum());
+    }
+}
@@ -0,0 +1,150 @@
+package hello.springmvc.basic.request;
+
+import jakarta.servlet.http.Part;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * 요청 바디를 힙에 모으지 않고 임시 파일로 흘려 쓰면서 CRC32C를 같이 계산한다.
+ * - 버퍼는 기동할 때 buffer-size짜리 다이렉트 버퍼를 buffers개 만들어 두고 빌려 쓴다.
+ *   다이렉트 버퍼는 FileChannel.write가 커널로 넘기기 전에 한 번 더 복사하지 않아도 되고,
+ *   업로드가 아무리 커도 쓰는 메모리는 버퍼 하나뿐이다. 동시에 받는 업로드가 buffers개를 넘으면 버퍼가 돌아올 때까지
+ *   buffer-wait만큼 기다리고, 그래도 없으면 ServiceUnavailableException(503)을 던진다. (느린 업로드에 톰캣 스레드가 다 묶이지 않게)
+ * - max-size를 넘으면 그때까지 쓴 파일을 지우고 BodyTooLargeException(413)을 던진다.
+ * multipart 파트는 톰캣이 이미 디스크(spring.servlet.multipart.location)에 받아 두었으므로
+ * 다시 복사하지 않고 Part.write()로 옮긴 뒤, 파일을 한 번 읽어 CRC32C만 계산한다.
+ */
+@Component
+public class UploadSpooler {
+
+    private final Path directory;
+    private final long maxBytes;
+    private final BlockingQueue<ByteBuffer> buffers;
+    private final long bufferWaitMillis;
+
+    public UploadSpooler(@Value("${hello.upload.dir:}") String directory,
+                         @Value("${hello.upload.max-size:4GB}") DataSize maxSize,
+                         @Value("${hello.upload.buffer-size:256KB}") DataSize bufferSize,
+                         @Value("${hello.upload.buffers:16}") int buffers,
+                         @Value("${hello.upload.buffer-wait:5s}") Duration bufferWait) throws IOException {
+        this.directory = Files.createDirectories(StringUtils.hasText(directory)
+                ? Path.of(directory) : Path.of(System.getProperty("java.io.tmpdir")));
+        this.maxBytes = maxSize.toBytes();
+        this.buffers = new ArrayBlockingQueue<>(buffers);
+        for (int i = 0; i < buffers; i++) {
+            this.buffers.add(ByteBuffer.allocateDirect((int) bufferSize.toBytes()));
+        }
+        this.bufferWaitMillis = bufferWait.toMillis();
+    }
+
+    /**
+     * @param contentLength 모르면 -1
+     * @param filename      multipart가 아니면 null
+     */
+    public UploadedBody spool(InputStream inputStream, long contentLength, String contentType, String filename)
+            throws IOException {
+        if (contentLength > maxBytes) {
+            throw new BodyTooLargeException(maxBytes);
+        }
+
+        ByteBuffer buffer = borrow();
+        try {
+            Path file = Files.createTempFile(directory, "upload-", ".tmp");
+            try (ReadableByteChannel source = Channels.newChannel(new LimitedInputStream(inputStream, maxBytes));
+                 FileChannel target = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                CRC32C crc = new CRC32C();
+                long size = 0;
+                boolean eof = false;
+                while (!eof) {
+                    // 스트림은 한 번에 몇 KB씩만 주므로 버퍼를 가득 채운 다음에 쓴다.
+                    while (buffer.hasRemaining()) {
+                        if (source.read(buffer) < 0) {
+                            eof = true;
+                            break;
+                        }
+                    }
+                    buffer.flip();
+                    size += buffer.remaining();
+                    crc.update(buffer);
+                    buffer.rewind();
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                return new UploadedBody(file, size, crc.getValue(), contentType, filename);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+        } finally {
+            buffer.clear();
+            buffers.add(buffer);
+        }
+    }
+
+    public UploadedBody spool(Part part) throws IOException {
+        if (part.getSize() > maxBytes) {
+            throw new BodyTooLargeException(maxBytes);
+        }
+
+        Path file = Files.createTempFile(directory, "upload-", ".tmp");
+        try {
+            part.write(file.toAbsolutePath().toString());
+            return new UploadedBody(file, Files.size(file), checksum(file), part.getContentType(),
+                    part.getSubmittedFileName());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            part.delete();
+        }
+    }
+
+    private long checksum(Path file) throws IOException {
+        ByteBuffer buffer = borrow();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CRC32C crc = new CRC32C();
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+            return crc.getValue();
+        } finally {
+            buffer.clear();
+            buffers.add(buffer);
+        }
+    }
+
+    private ByteBuffer borrow() throws InterruptedIOException {
+        try {
+            ByteBuffer buffer = buffers.poll(bufferWaitMillis, TimeUnit.MILLISECONDS);
+            if (buffer == null) {
+                throw new ServiceUnavailableException("no upload buffer available within " + bufferWaitMillis + "ms");
+            }
+            return buffer;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for an upload buffer");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package hello.springmvc.basic.request;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 디스크에 받아 둔 요청 바디(또는 multipart 파트) 핸들.
+ * 바디는 힙에 올라와 있지 않고, 필요할 때 openStream()으로 처음부터 다시 읽는다.
+ * 파일은 요청이 끝나면 UploadedBodyArgumentResolver가 지운다. 그 전에 다 썼으면 close()로 바로 지워도 된다.
+ */
+public class UploadedBody implements AutoCloseable {
+
+    private final Path file;
+    private final long size;
+    private final long crc32c;
+    private final String contentType;
+    private final String filename;
+
+    UploadedBody(Path file, long size, long crc32c, String contentType, String filename) {
+        this.file = file;
+        this.size = size;
+        this.crc32c = crc32c;
+        this.contentType = contentType;
+        this.filename = filename;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long crc32c() {
+        return crc32c;
+    }
+
+    /**
+     * @return CRC32C를 8자리 16진수로 (ex. "e3069283")
+     */
+    public String checksum() {
+        return String.format("%08x", crc32c);
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    /**
+     * @return multipart 파트의 파일 이름. 바디를 그대로 받았으면 null
+     */
+    public String filename() {
+        return filename;
+    }
+
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(file);
+    }
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,67 @@
+package hello.springmvc.basic.request;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.Part;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.MethodParameter;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.multipart.support.MissingServletRequestPartException;
+
+import java.io.IOException;
+
+/**
+ * 컨트롤러 파라미터 타입이 UploadedBody면 바디를 UploadSpooler로 디스크에 받아서 넘겨준다.
+ * multipart 요청이면 파라미터 이름과 같은 파트를, 아니면 바디 전체를 받는다.
+ * 받은 파일은 DispatcherServlet이 요청을 마칠 때(request scope 소멸 콜백) 지운다.
+ * 그래서 비동기로 넘겨서 요청 스레드가 끝난 뒤에 읽으면 안 된다.
+ */
+@Slf4j
+public class UploadedBodyArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final UploadSpooler uploadSpooler;
+
+    public UploadedBodyArgumentResolver(UploadSpooler uploadSpooler) {
+        this.uploadSpooler = uploadSpooler;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.getParameterType() == UploadedBody.class;
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        String name = parameter.getParameterName();
+        UploadedBody body;
+        if (StringUtils.startsWithIgnoreCase(request.getContentType(), "multipart/")) {
+            Part part = request.getPart(name);
+            if (part == null) {
+                throw new MissingServletRequestPartException(name);
+            }
+            body = uploadSpooler.spool(part);
+        } else {
+            body = uploadSpooler.spool(request.getInputStream(), request.getContentLengthLong(),
+                    request.getContentType(), null);
+        }
+
+        RequestContextHolder.currentRequestAttributes().registerDestructionCallback(
+                UploadedBody.class.getName() + "." + name, () -> delete(body), RequestAttributes.SCOPE_REQUEST);
+        return body;
+    }
+
+    private static void delete(UploadedBody body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            log.warn("failed to delete uploaded body", e);
+        }
+    }
+}
@@ -1,9 +1,19 @@
 package hello.springmvc.basic.requestmapping;
 
+import hello.springmvc.domain.user.User;
+import hello.springmvc.domain.user.UserPage;
+import hello.springmvc.domain.user.UserParam;
+import hello.springmvc.domain.user.UserRepository;
+import hello.springmvc.web.idempotency.Idempotent;
+import hello.springmvc.web.singleflight.SingleFlight;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/mapping/users")
+@RequiredArgsConstructor
 public class MappingClassController {
 
     /**
@@ -16,28 +26,41 @@ public class MappingClassController {
      * 각 컨트롤러 메서드에는 중복되지 않는 경로만 써주면 된다.
      */
 
+    private final UserRepository userRepository;
+
+    /**
+     * 커서 기반 페이지네이션. 첫 페이지는 cursor 없이, 다음 페이지는 응답의 nextCursor를 넘긴다.
+     * ex) GET /mapping/users?size=20 -> GET /mapping/users?cursor=20&size=20
+     */
     @GetMapping
-    public String user() {
-        return "get users";
+    public UserPage user(@RequestParam(required = false) Long cursor,
+                         @RequestParam(defaultValue = "20") int size) {
+        return userRepository.findPage(cursor, size);
     }
 
+    @Idempotent
+    @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
-    public String addUser() {
-        return "post user";
+    public User addUser(@RequestBody UserParam param) {
+        return userRepository.save(param.username(), param.age() != null ? param.age() : 0);
     }
 
+    // 같은 회원을 동시에 여러 번 조회하면 한 번만 실행한다.
+    @SingleFlight
     @GetMapping("/{userId}")
-    public String findUser(@PathVariable String userId) {
-        return "get userId= " + userId;
+    public ResponseEntity<User> findUser(@PathVariable Long userId) {
+        return ResponseEntity.of(userRepository.findById(userId));
     }
 
     @PatchMapping("/{userId}")
-    public String updateUser(@PathVariable String userId) {
-        return "update userId= " + userId;
+    public ResponseEntity<User> updateUser(@PathVariable Long userId, @RequestBody UserParam param) {
+        return ResponseEntity.of(userRepository.update(userId, param));
     }
 
     @DeleteMapping("/{userId}")
-    public String deleteUser(@PathVariable String userId) {
-        return "delete userId= " + userId;
+    public ResponseEntity<Void> deleteUser(@PathVariable Long userId) {
+        return userRepository.delete(userId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
     }
 }
@@ -1,14 +1,24 @@
 package hello.springmvc.basic.requestmapping;
 
+import hello.springmvc.domain.order.Order;
+import hello.springmvc.domain.order.OrderPage;
+import hello.springmvc.domain.order.OrderParam;
+import hello.springmvc.domain.order.OrderRepository;
+import hello.springmvc.web.singleflight.SingleFlight;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
+@RequiredArgsConstructor
 public class MappingController {
 
     private Logger log = LoggerFactory.getLogger(getClass());
+    private final OrderRepository orderRepository;
 
     @RequestMapping(value = "/hello-basic")
 //  @RequestMapping({"/hello-basic", "hello-go"}) //  배열 이용해서 복수 url 받을 수 있음.
@@ -41,10 +51,34 @@ public class MappingController {
         return "ok";
     }
 
+    // 같은 주문을 동시에 여러 번 조회하면 한 번만 실행한다.
+    @SingleFlight
     @GetMapping("/mapping/users/{userId}/orders/{orderId}")
-    public String mappingPath(@PathVariable String userId, @PathVariable Long orderId) {
+    public ResponseEntity<Order> mappingPath(@PathVariable Long userId, @PathVariable Long orderId) {
         log.info("mappingPath userId= {}, orderId= {}", userId, orderId);
-        return "ok";
+        return ResponseEntity.of(orderRepository.findById(userId, orderId));
+    }
+
+    /**
+     * 주문 범위 조회. orderId가 from ~ to(포함)인 주문을 id 순서로 size개씩.
+     * 다음 페이지는 응답의 nextCursor를 cursor로 넘긴다.
+     * ex) /mapping/users/1/orders?from=100&to=200&size=50
+     */
+    @GetMapping("/mapping/users/{userId}/orders")
+    public OrderPage mappingOrders(@PathVariable Long userId,
+                                   @RequestParam(defaultValue = "0") long from,
+                                   @RequestParam(defaultValue = "" + Long.MAX_VALUE) long to,
+                                   @RequestParam(required = false) Long cursor,
+                                   @RequestParam(defaultValue = "100") int size) {
+        log.info("mappingOrders userId= {}, from= {}, to= {}, cursor= {}", userId, from, to, cursor);
+        return orderRepository.findRange(userId, from, to, cursor, size);
+    }
+
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping("/mapping/users/{userId}/orders")
+    public Order mappingAddOrder(@PathVariable Long userId, @RequestBody OrderParam param) {
+        log.info("mappingAddOrder userId= {}", userId);
+        return orderRepository.save(userId, param);
     }
 
     /**
@@ -0,0 +1,70 @@
+package hello.springmvc.basic.response;
+
+import hello.springmvc.basic.HelloData;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ResponseBodyController의 비동기 버전.
+ * - CompletableFuture: 값을 만드는 작업이 다른 스레드에서 끝나면 그때 응답한다.
+ * - StreamingResponseBody: 바디 쓰기를 스프링 MVC 비동기 실행기(applicationTaskExecutor)로 넘긴다.
+ * - NonBlockingBodyWriter: 바디 쓰기를 WriteListener로 한다. 느린 클라이언트가 읽는 동안 어떤 스레드도 묶이지 않는다.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class AsyncResponseBodyController {
+
+    /**
+     * 요청 하나로 힙을 크게 잡지 못하게 느린 다운로드 테스트에 쓰는 크기(1MB)까지만 만든다.
+     */
+    private static final int MAX_SIZE = 1024 * 1024;
+
+    private final NonBlockingBodyWriter nonBlockingBodyWriter;
+
+    @GetMapping("/response-body-json-future")
+    public CompletableFuture<HelloData> responseBodyJsonFuture() {
+        return CompletableFuture.supplyAsync(() -> {
+            HelloData helloData = new HelloData();
+            helloData.setUsername("userA");
+            helloData.setAge(20);
+            return helloData;
+        });
+    }
+
+    /**
+     * @param size 응답 바이트 수. 느린 클라이언트 테스트용으로 크게 줄 수 있다. (최대 MAX_SIZE)
+     */
+    @GetMapping("/response-body-string-stream")
+    public StreamingResponseBody responseBodyStringStream(@RequestParam(defaultValue = "2") int size) {
+        byte[] body = body(size);
+        return outputStream -> outputStream.write(body);
+    }
+
+    @GetMapping("/response-body-string-nio")
+    public DeferredResult<Void> responseBodyStringNio(@RequestParam(defaultValue = "2") int size,
+                                                      HttpServletRequest request, HttpServletResponse response) {
+        return nonBlockingBodyWriter.write(request, response, MediaType.TEXT_PLAIN_VALUE, body(size));
+    }
+
+    private static byte[] body(int size) {
+        if (size == 2) {
+            return "ok".getBytes(StandardCharsets.US_ASCII);
+        }
+        byte[] body = new byte[Math.min(Math.max(size, 0), MAX_SIZE)];
+        Arrays.fill(body, (byte) 'o');
+        return body;
+    }
+}
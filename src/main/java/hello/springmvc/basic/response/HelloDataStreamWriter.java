@@ -0,0 +1,105 @@
+package hello.springmvc.basic.response;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import hello.springmvc.basic.HelloData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * HelloDataStreamReader의 반대 방향. 레코드를 하나씩 JsonGenerator로 응답 스트림에 바로 쓴다.
+ * 목록을 메모리에 만들지 않으므로 몇 건을 보내든 요청 하나가 쓰는 메모리는 일정하다.
+ * - flushEvery 건마다 flush 해서 클라이언트가 받기 시작할 수 있게 한다.
+ * - 클라이언트가 느리면 소켓 버퍼가 차서 write가 블록되므로 그만큼 생성도 늦춰진다. (back-pressure)
+ * - 클라이언트가 끊으면 write에서 IOException이 나서 멈춘다. 비동기 타임아웃으로 인터럽트돼도 flush 시점에 멈춘다.
+ */
+@Component
+public class HelloDataStreamWriter {
+
+    public enum Format {
+        /** [{...},{...}] */
+        JSON(MediaType.APPLICATION_JSON),
+        /** {...}\n{...}\n */
+        NDJSON(MediaType.APPLICATION_NDJSON),
+        /** data: {...}\n\n */
+        SSE(MediaType.TEXT_EVENT_STREAM);
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+    }
+
+    private final JsonFactory jsonFactory = new JsonFactoryBuilder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET) // 서블릿 OutputStream은 컨테이너가 닫는다.
+            .disable(StreamWriteFeature.FLUSH_PASSED_TO_STREAM) // flush는 아래에서 직접 한다.
+            .rootValueSeparator((String) null)
+            .build();
+
+    private final int flushEvery;
+
+    public HelloDataStreamWriter(@Value("${hello.stream.flush-every:1000}") int flushEvery) {
+        this.flushEvery = flushEvery;
+    }
+
+    /**
+     * @param flushEvery 0 이하면 설정값을 쓴다.
+     * @return 쓴 레코드 수
+     */
+    public long write(OutputStream outputStream, Format format, Iterator<? extends HelloData> rows, int flushEvery)
+            throws IOException {
+        int cadence = flushEvery > 0 ? flushEvery : this.flushEvery;
+        long count = 0;
+        try (JsonGenerator generator = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8)) {
+            if (format == Format.JSON) {
+                generator.writeStartArray();
+            }
+            while (rows.hasNext()) {
+                HelloData row = rows.next();
+                if (format == Format.SSE) {
+                    generator.writeRaw("data: ");
+                }
+                generator.writeStartObject();
+                generator.writeStringField("username", row.getUsername());
+                generator.writeNumberField("age", row.getAge());
+                generator.writeEndObject();
+                if (format == Format.NDJSON) {
+                    generator.writeRaw('\n');
+                } else if (format == Format.SSE) {
+                    generator.writeRaw("\n\n");
+                }
+
+                if (++count % cadence == 0) {
+                    flush(generator, outputStream);
+                }
+            }
+            if (format == Format.JSON) {
+                generator.writeEndArray();
+            }
+            flush(generator, outputStream);
+        }
+        return count;
+    }
+
+    private static void flush(JsonGenerator generator, OutputStream outputStream) throws IOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("streaming cancelled");
+        }
+        generator.flush();
+        outputStream.flush();
+    }
+}
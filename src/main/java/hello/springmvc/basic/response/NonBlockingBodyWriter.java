@@ -0,0 +1,84 @@
+package hello.springmvc.basic.response;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.io.IOException;
+
+/**
+ * 응답 바디를 WriteListener로 쓴다. 소켓 버퍼가 찰 때마다(isReady()가 false) 쓰기를 멈추고 스레드를 반납했다가,
+ * 느린 클라이언트가 읽어가서 다시 쓸 수 있게 되면 컨테이너가 onWritePossible을 호출한다.
+ * 다 쓰면 AsyncContext를 직접 complete 하므로 반환한 DeferredResult는 결과 없이 끝난다. (스프링으로 다시 디스패치하지 않는다)
+ * DeferredResult에는 타임아웃을 두지 않는다. 타임아웃이 나면 스프링이 리스너가 쓰는 중인 응답에 에러를 쓰려고 다시 디스패치한다.
+ * 느린 클라이언트는 읽는 동안 계속 쓰게 두고, 아예 읽지 않는 클라이언트는 톰캣의 쓰기 타임아웃(server.tomcat.connection-timeout)이
+ * 끊으면서 onError를 호출한다.
+ */
+@Component
+public class NonBlockingBodyWriter {
+
+    private static final String INTERCEPTOR_KEY = NonBlockingBodyWriter.class.getName();
+    private static final int CHUNK_SIZE = 8 * 1024;
+    /**
+     * AsyncContext.setTimeout()에 0 이하를 주면 타임아웃이 없다.
+     */
+    private static final long NO_TIMEOUT = 0;
+
+    public DeferredResult<Void> write(HttpServletRequest request, HttpServletResponse response,
+                                      String contentType, byte[] body) {
+        DeferredResult<Void> result = new DeferredResult<>(NO_TIMEOUT);
+        WebAsyncUtils.getAsyncManager(request).registerDeferredResultInterceptor(INTERCEPTOR_KEY,
+                new DeferredResultProcessingInterceptor() {
+                    @Override
+                    public <R> void preProcess(NativeWebRequest webRequest, DeferredResult<R> deferredResult)
+                            throws IOException {
+                        response.setContentType(contentType);
+                        response.setContentLength(body.length);
+                        ServletOutputStream outputStream = response.getOutputStream();
+                        outputStream.setWriteListener(new BodyListener(request, outputStream, body, result));
+                    }
+                });
+        return result;
+    }
+
+    private static class BodyListener implements WriteListener {
+
+        private final HttpServletRequest request;
+        private final ServletOutputStream outputStream;
+        private final byte[] body;
+        private final DeferredResult<Void> result;
+        private int written;
+
+        BodyListener(HttpServletRequest request, ServletOutputStream outputStream, byte[] body,
+                     DeferredResult<Void> result) {
+            this.request = request;
+            this.outputStream = outputStream;
+            this.body = body;
+            this.result = result;
+        }
+
+        @Override
+        public void onWritePossible() throws IOException {
+            while (outputStream.isReady()) {
+                if (written == body.length) {
+                    request.getAsyncContext().complete();
+                    return;
+                }
+                int length = Math.min(CHUNK_SIZE, body.length - written);
+                outputStream.write(body, written, length);
+                written += length;
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            result.setErrorResult(t);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package hello.springmvc.basic.response;
 
+import hello.springmvc.basic.BinaryMediaType;
 import hello.springmvc.basic.HelloData;
+import hello.springmvc.web.cache.CachedResponse;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -16,24 +19,29 @@ import java.io.IOException;
 @RestController // Controller와 ResponseBody 합친 것. Http 메시지 바디에 직접 데이터 입력(뷰템플릿 ).
 //@Controller
 //@ResponseBody
+// 아래 핸들러들은 항상 같은 응답을 만들기 때문에 @CachedResponse로 인코딩된 결과를 캐시한다.
 public class ResponseBodyController {
 
+    @CachedResponse
     @GetMapping("/response-body-string-v1")
     public void responseBodyV1(HttpServletResponse response) throws IOException {
         response.getWriter().write("ok");
     }
 
+    @CachedResponse
     @GetMapping("/response-body-string-v2")
     public ResponseEntity<String> responseBodyV2() {
         return new ResponseEntity<>("ok", HttpStatus.OK);
     }
 
     @ResponseBody
+    @CachedResponse
     @GetMapping("/response-body-string-v3")
     public String responseBodyV3() {
         return "ok";
     }
 
+    @CachedResponse
     @GetMapping("/response-body-json-v1")
     public ResponseEntity<HelloData> responseBodyJsonV1() {
         HelloData helloData = new HelloData();
@@ -53,6 +61,7 @@ public class ResponseBodyController {
 
     @ResponseStatus(HttpStatus.OK)
     @ResponseBody
+    @CachedResponse
     @GetMapping("/response-body-json-v2")
     public HelloData responseBodyJsonV2() {
 
@@ -61,4 +70,18 @@ public class ResponseBodyController {
         helloData.setAge(20);
         return helloData;
     }
+
+    /**
+     * Accept 헤더에 따라 JSON, CBOR, Smile 중 하나로 응답한다.
+     * Accept: application/cbor 이면 같은 HelloData가 JSON보다 작은 바이너리로 나간다.
+     */
+    @CachedResponse
+    @GetMapping(value = "/response-body-binary", produces = {
+            MediaType.APPLICATION_JSON_VALUE, BinaryMediaType.APPLICATION_CBOR_VALUE, BinaryMediaType.APPLICATION_SMILE_VALUE})
+    public HelloData responseBodyBinary() {
+        HelloData helloData = new HelloData();
+        helloData.setUsername("userA");
+        helloData.setAge(20);
+        return helloData;
+    }
 }
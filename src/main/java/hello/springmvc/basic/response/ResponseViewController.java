@@ -1,11 +1,13 @@
 package hello.springmvc.basic.response;
 
+import hello.springmvc.web.ratelimit.RateLimited;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.servlet.ModelAndView;
 
 @Controller
+@RateLimited("view")
 public class ResponseViewController {
 
     @RequestMapping("/response-view-v1")
@@ -0,0 +1,81 @@
+package hello.springmvc.basic.response;
+
+import hello.springmvc.basic.HelloData;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.LongStream;
+
+/**
+ * responseBodyJsonV1, V2는 HelloData 하나를 반환하지만, 여기서는 count 건을 만들면서 바로 응답에 쓴다.
+ * ex) GET /response-body-stream?count=10000000&format=ndjson
+ *     GET /response-body-stream?count=100&format=sse&flushEvery=1
+ * 쓰기는 WebAsyncTask로 MVC 비동기 실행기에서 한다. 수천만 건은 오래 걸리므로 타임아웃(hello.stream.timeout)을 이 요청에만 길게 준다.
+ * (spring.mvc.async.request-timeout은 다른 DeferredResult, CompletableFuture 핸들러까지 바뀌므로 건드리지 않는다)
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class StreamingResponseController {
+
+    private final HelloDataStreamWriter helloDataStreamWriter;
+
+    @Value("${hello.stream.max-count:100000000}")
+    private long maxCount;
+
+    @Value("${hello.stream.timeout:10m}")
+    private Duration timeout;
+
+    /**
+     * 바디는 작업 안에서 response에 직접 쓰고 작업은 null을 돌려준다. (response 파라미터가 있으므로 뷰를 찾지 않는다)
+     */
+    @GetMapping("/response-body-stream")
+    public WebAsyncTask<Void> responseBodyStream(
+            @RequestParam(defaultValue = "1000") long count,
+            @RequestParam(defaultValue = "json") String format,
+            @RequestParam(defaultValue = "0") int flushEvery,
+            HttpServletResponse response) throws IOException {
+        HelloDataStreamWriter.Format streamFormat;
+        try {
+            streamFormat = HelloDataStreamWriter.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return null;
+        }
+        long rows = Math.min(Math.max(count, 0), maxCount);
+
+        response.setContentType(streamFormat.mediaType().toString());
+        return new WebAsyncTask<>(timeout.toMillis(), () -> {
+            try {
+                long written = helloDataStreamWriter.write(response.getOutputStream(), streamFormat, helloData(rows),
+                        flushEvery);
+                log.info("streamed rows= {}, format= {}", written, streamFormat);
+            } catch (IOException e) {
+                // 클라이언트가 중간에 끊은 경우. 더 쓸 곳이 없으므로 로그만 남긴다.
+                log.debug("streaming stopped. format= {}, cause= {}", streamFormat, e.toString());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 실제로는 DB 커서 같은 것이 들어갈 자리. 한 건씩만 만든다.
+     */
+    private static Iterator<HelloData> helloData(long count) {
+        return LongStream.range(0, count).mapToObj(i -> {
+            HelloData helloData = new HelloData();
+            helloData.setUsername("user" + i);
+            helloData.setAge((int) (i % 100));
+            return helloData;
+        }).iterator();
+    }
+}
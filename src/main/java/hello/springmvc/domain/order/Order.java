@@ -0,0 +1,8 @@
+package hello.springmvc.domain.order;
+
+/**
+ * 주문. 저장소 안에서는 이 객체로 보관하지 않고 필드별 primitive 배열로 보관하며,
+ * 조회할 때만 만들어서 돌려준다.
+ */
+public record Order(long userId, long orderId, long itemId, int quantity, int price) {
+}
@@ -0,0 +1,119 @@
+package hello.springmvc.domain.order;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 회원 한 명의 주문 목록. orderId 오름차순으로 정렬된 primitive 배열(열 단위)에 보관한다.
+ * 주문 하나당 객체 헤더나 박싱 없이 8 + 8 + 4 + 4 = 24바이트(+ 배열 여유 공간)만 쓰므로,
+ * 주문이 수천만 건이어도 주문당 메모리가 일정하다.
+ * 조회는 이진 탐색이고, orderId는 보통 증가하는 순서로 들어오므로 추가는 대부분 배열 끝에 붙는다.
+ */
+class OrderBook {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final long userId;
+    private final StampedLock lock = new StampedLock();
+    private long[] orderIds = new long[INITIAL_CAPACITY];
+    private long[] itemIds = new long[INITIAL_CAPACITY];
+    private int[] quantities = new int[INITIAL_CAPACITY];
+    private int[] prices = new int[INITIAL_CAPACITY];
+    private int size;
+
+    OrderBook(long userId) {
+        this.userId = userId;
+    }
+
+    void add(long orderId, long itemId, int quantity, int price) {
+        long stamp = lock.writeLock();
+        try {
+            if (size == orderIds.length) {
+                grow();
+            }
+            int index = size == 0 || orderIds[size - 1] < orderId ? size : insertionPoint(orderId);
+            if (index < size) {
+                if (orderIds[index] == orderId) {
+                    throw new IllegalArgumentException("duplicate orderId: " + orderId);
+                }
+                int moved = size - index;
+                System.arraycopy(orderIds, index, orderIds, index + 1, moved);
+                System.arraycopy(itemIds, index, itemIds, index + 1, moved);
+                System.arraycopy(quantities, index, quantities, index + 1, moved);
+                System.arraycopy(prices, index, prices, index + 1, moved);
+            }
+            orderIds[index] = orderId;
+            itemIds[index] = itemId;
+            quantities[index] = quantity;
+            prices[index] = price;
+            size++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    Order find(long orderId) {
+        long stamp = lock.readLock();
+        try {
+            int index = Arrays.binarySearch(orderIds, 0, size, orderId);
+            return index < 0 ? null : orderAt(index);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * fromId 이상 toId 이하인 주문을 after 다음부터 최대 limit개
+     * @param after 이전 페이지의 마지막 orderId. 첫 페이지면 null. Long.MAX_VALUE 다음은 없으므로 빈 페이지를 돌려준다.
+     */
+    OrderPage range(long fromId, long toId, Long after, int limit) {
+        if (after != null && after == Long.MAX_VALUE) {
+            // after + 1 이 Long.MIN_VALUE로 넘어가서 처음부터 다시 읽지 않도록
+            return new OrderPage(List.of(), null);
+        }
+        long stamp = lock.readLock();
+        try {
+            long lower = after == null ? fromId : Math.max(fromId, after + 1);
+            int index = insertionPoint(lower);
+            List<Order> orders = new ArrayList<>(Math.min(limit, Math.max(0, size - index)));
+            while (index < size && orderIds[index] <= toId && orders.size() < limit) {
+                orders.add(orderAt(index++));
+            }
+            boolean hasNext = index < size && orderIds[index] <= toId;
+            return new OrderPage(orders, hasNext ? orders.get(orders.size() - 1).orderId() : null);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Order orderAt(int index) {
+        return new Order(userId, orderIds[index], itemIds[index], quantities[index], prices[index]);
+    }
+
+    /**
+     * @return orderId 이상인 첫 위치
+     */
+    private int insertionPoint(long orderId) {
+        int index = Arrays.binarySearch(orderIds, 0, size, orderId);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    private void grow() {
+        int capacity = orderIds.length + (orderIds.length >> 1);
+        orderIds = Arrays.copyOf(orderIds, capacity);
+        itemIds = Arrays.copyOf(itemIds, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+    }
+}
@@ -0,0 +1,9 @@
+package hello.springmvc.domain.order;
+
+import java.util.List;
+
+/**
+ * 커서 기반 페이지. 다음 페이지는 cursor=nextCursor 로 요청한다. 마지막 페이지면 nextCursor는 null.
+ */
+public record OrderPage(List<Order> orders, Long nextCursor) {
+}
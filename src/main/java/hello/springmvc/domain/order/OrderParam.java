@@ -0,0 +1,7 @@
+package hello.springmvc.domain.order;
+
+/**
+ * 주문 등록 요청 바디
+ */
+public record OrderParam(long itemId, int quantity, int price) {
+}
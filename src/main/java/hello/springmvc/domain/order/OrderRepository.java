@@ -0,0 +1,53 @@
+package hello.springmvc.domain.order;
+
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 회원별 주문 저장소. 회원 id로 OrderBook을 찾고, 그 안에서 orderId로 조회/범위 조회한다.
+ * 잠금은 회원 단위(OrderBook)로 걸리므로 서로 다른 회원의 주문은 서로 기다리지 않는다.
+ */
+@Repository
+public class OrderRepository {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final ConcurrentHashMap<Long, OrderBook> books = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public Order save(long userId, OrderParam param) {
+        long orderId = sequence.incrementAndGet();
+        books.computeIfAbsent(userId, OrderBook::new).add(orderId, param.itemId(), param.quantity(), param.price());
+        return new Order(userId, orderId, param.itemId(), param.quantity(), param.price());
+    }
+
+    public Optional<Order> findById(long userId, long orderId) {
+        OrderBook book = books.get(userId);
+        return Optional.ofNullable(book == null ? null : book.find(orderId));
+    }
+
+    /**
+     * orderId가 fromId ~ toId(포함) 범위인 주문을 id 순서로 페이지 단위로 읽는다.
+     * @param cursor 이전 페이지의 nextCursor. 첫 페이지면 null
+     */
+    public OrderPage findRange(long userId, long fromId, long toId, Long cursor, int size) {
+        OrderBook book = books.get(userId);
+        if (book == null) {
+            return new OrderPage(List.of(), null);
+        }
+        return book.range(fromId, toId, cursor, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    public int countByUser(long userId) {
+        OrderBook book = books.get(userId);
+        return book == null ? 0 : book.size();
+    }
+
+    public void clearStore() {
+        books.clear();
+    }
+}
@@ -0,0 +1,7 @@
+package hello.springmvc.domain.user;
+
+/**
+ * 회원. 수정할 때는 새 객체로 바꿔 끼우므로 여러 스레드가 동시에 읽어도 안전하다.
+ */
+public record User(long id, String username, int age) {
+}
@@ -0,0 +1,7 @@
+package hello.springmvc.domain.user;
+
+/**
+ * 회원 등록, 수정 요청 바디. 수정(PATCH)할 때 null인 필드는 바꾸지 않는다.
+ */
+public record UserParam(String username, Integer age) {
+}
@@ -0,0 +1,71 @@
+package hello.springmvc.domain.user;
+
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 메모리 회원 저장소.
+ * ConcurrentSkipListMap은 락 없이(CAS) 동시 읽기/쓰기를 처리하면서 id 순서를 유지하므로,
+ * "마지막으로 본 id 다음부터" 읽는 커서 페이지네이션을 전체 정렬 없이 할 수 있다.
+ * 수정은 computeIfPresent로 불변 User를 통째로 바꿔서, 읽는 쪽이 반쯤 바뀐 객체를 보는 일이 없다.
+ */
+@Repository
+public class UserRepository {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final ConcurrentSkipListMap<Long, User> store = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public User save(String username, int age) {
+        User user = new User(sequence.incrementAndGet(), username, age);
+        store.put(user.id(), user);
+        return user;
+    }
+
+    public Optional<User> findById(long id) {
+        return Optional.ofNullable(store.get(id));
+    }
+
+    /**
+     * @param cursor 이전 페이지의 nextCursor. 첫 페이지면 null
+     */
+    public UserPage findPage(Long cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ConcurrentNavigableMap<Long, User> range = cursor == null ? store : store.tailMap(cursor, false);
+
+        List<User> users = new ArrayList<>(limit);
+        Iterator<User> iterator = range.values().iterator();
+        while (iterator.hasNext() && users.size() < limit) {
+            users.add(iterator.next());
+        }
+        Long nextCursor = iterator.hasNext() ? users.get(users.size() - 1).id() : null;
+        return new UserPage(users, nextCursor);
+    }
+
+    public Optional<User> update(long id, UserParam param) {
+        return Optional.ofNullable(store.computeIfPresent(id, (key, user) -> new User(
+                user.id(),
+                param.username() != null ? param.username() : user.username(),
+                param.age() != null ? param.age() : user.age())));
+    }
+
+    public boolean delete(long id) {
+        return store.remove(id) != null;
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    public void clearStore() {
+        store.clear();
+    }
+}
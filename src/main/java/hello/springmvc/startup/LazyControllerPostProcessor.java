@@ -0,0 +1,49 @@
+package hello.springmvc.startup;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Controller;
+
+import java.util.Set;
+
+/**
+ * fast-start 프로필에서 컨트롤러 빈만 지연 초기화한다. (eager-controllers에 적은 자주 쓰는 컨트롤러는 제외)
+ * 핸들러 매핑은 빈 이름과 타입만으로 등록되므로 컨트롤러 인스턴스는 첫 요청 때 만들어진다.
+ * spring.main.lazy-initialization=true로 전부 지연시키면 WAL 복구, 지표 스케줄러, 정적 파일 적재까지
+ * 첫 요청으로 밀려나기 때문에 컨트롤러로 범위를 좁혔다.
+ * AOT로 빌드하면 여기서 바꾼 lazyInit 값이 생성된 빈 정의 코드에 그대로 들어간다.
+ */
+@Component
+@ConditionalOnProperty(name = "hello.fast-start.lazy-controllers", havingValue = "true")
+public class LazyControllerPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+
+    private Set<String> eagerControllers = Set.of();
+
+    /**
+     * BeanFactoryPostProcessor에는 @Value가 주입되지 않으므로 Environment에서 직접 읽는다.
+     */
+    @Override
+    public void setEnvironment(Environment environment) {
+        String[] names = environment.getProperty("hello.fast-start.eager-controllers", String[].class, new String[0]);
+        eagerControllers = Set.of(names);
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+            if (beanDefinition instanceof AnnotatedBeanDefinition annotated
+                    && annotated.getMetadata().isAnnotated(Controller.class.getName())
+                    && !eagerControllers.contains(beanName)) {
+                beanDefinition.setLazyInit(true);
+            }
+        }
+    }
+}
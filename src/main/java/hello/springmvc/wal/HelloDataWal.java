@@ -0,0 +1,281 @@
+package hello.springmvc.wal;
+
+import hello.springmvc.basic.HelloData;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * POST로 들어온 HelloData를 append-only 파일에 남기는 write-ahead log.
+ * 요청 스레드는 레코드를 인코딩해서 큐에 넣고 기다리기만 하고, 실제 쓰기는 flusher 스레드 하나가 한다.
+ * flusher는 그 사이 쌓인 레코드를 (최대 maxBatch개) 한 번에 off-heap 버퍼로 모아 쓰고 force()는 한 번만 호출한다.
+ * 동시에 100명이 요청해도 fsync는 몇 번이면 끝나는 group commit 방식이다.
+ * append()는 force()가 끝난 뒤에 반환하므로 응답이 나갔다면 레코드는 디스크에 있다.
+ * 파일은 열어 있는 동안 배타 잠금(FileChannel.tryLock)을 잡는다. 다른 프로세스나 같은 JVM의 다른 컨텍스트가
+ * 같은 파일을 쓰고 있으면 각자 자기 위치에 덧붙여서 파일이 깨지므로, 잠금을 못 잡으면 기동을 실패시킨다.
+ * hello.wal.enabled=false 이면 아무것도 하지 않는다.
+ */
+@Slf4j
+@Component
+public class HelloDataWal {
+
+    private static final int STAGING_BUFFER_SIZE = 1024 * 1024;
+    private static final long APPEND_TIMEOUT_SECONDS = 10;
+
+    private final boolean enabled;
+    private final Path path;
+    private final int maxBatch;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    private FileChannel channel;
+    private Thread flusher;
+    private volatile boolean running;
+
+    public HelloDataWal(@Value("${hello.wal.enabled:false}") boolean enabled,
+                        @Value("${hello.wal.path:data/hello-data.wal}") String path,
+                        @Value("${hello.wal.max-batch:256}") int maxBatch) {
+        this.enabled = enabled;
+        this.path = Path.of(path);
+        this.maxBatch = maxBatch;
+    }
+
+    /**
+     * 컨트롤러를 직접 생성하는 곳(벤치마크 등)에서 쓰는 아무것도 하지 않는 인스턴스.
+     */
+    public static HelloDataWal disabled() {
+        return new HelloDataWal(false, "", 1);
+    }
+
+    /**
+     * 기동 시 복구. 앞에서부터 레코드를 읽다가 길이나 CRC가 맞지 않는 곳(쓰다가 죽은 자리)에서 멈추고
+     * 그 뒤를 잘라낸 다음 이어서 쓴다. 남은 레코드는 세기만 한다.
+     * HelloData를 들고 있는 저장소가 없어서 다시 적용할 상태가 없기 때문이다. 다시 읽어야 하면 replay()를 쓴다.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        lock();
+
+        long fileSize = channel.size();
+        int[] recovered = new int[1];
+        long validEnd = scan(channel, data -> recovered[0]++);
+        if (validEnd < fileSize) {
+            log.warn("wal torn tail truncated. path= {}, size= {}, validEnd= {}", path, fileSize, validEnd);
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+        channel.position(validEnd);
+        log.info("wal opened. path= {}, records= {}", path, recovered[0]);
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "hello-wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    private void lock() throws IOException {
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // 같은 JVM 안에서 이미 잡은 잠금 (테스트 컨텍스트가 여러 개 뜬 경우 등)
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("wal is already in use by another writer. path= " + path.toAbsolutePath());
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        if (!running) {
+            return;
+        }
+        // FileChannel은 인터럽트를 받으면 닫혀버리므로 interrupt() 대신 flusher가 큐를 비우고 끝나기를 기다린다.
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(APPEND_TIMEOUT_SECONDS));
+        channel.close();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 레코드가 디스크에 기록(force)될 때까지 블록한다.
+     */
+    public void append(HelloData data) {
+        if (!enabled) {
+            return;
+        }
+        Pending pending = new Pending(WalCodec.encode(data), new CompletableFuture<>());
+        queue.add(pending);
+        if (!running) {
+            // close()와 경합해서 flusher가 못 가져간 경우
+            queue.remove(pending);
+            throw new IllegalStateException("wal is closed");
+        }
+        try {
+            pending.done().get(APPEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("interrupted while waiting for wal"));
+        } catch (TimeoutException e) {
+            throw new UncheckedIOException(new IOException("wal append timed out", e));
+        } catch (ExecutionException e) {
+            throw new UncheckedIOException("wal append failed", (IOException) e.getCause());
+        }
+    }
+
+    /**
+     * 로그에 남은 유효한 레코드를 순서대로 읽는다. 복구 확인이나 재처리용. (쓰는 쪽 잠금은 잡지 않는다)
+     */
+    public int replay(Consumer<HelloData> consumer) throws IOException {
+        int[] count = new int[1];
+        try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            scan(readChannel, data -> {
+                consumer.accept(data);
+                count[0]++;
+            });
+        }
+        return count[0];
+    }
+
+    private static long scan(FileChannel channel, Consumer<HelloData> consumer) throws IOException {
+        channel.position(0);
+        // 스트림을 닫으면 채널도 닫히므로 닫지 않는다.
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024));
+        long validEnd = 0;
+        while (true) {
+            byte[] payload;
+            int crc;
+            try {
+                int length = in.readInt();
+                crc = in.readInt();
+                if (length <= 0 || length > WalCodec.MAX_PAYLOAD_SIZE) {
+                    break;
+                }
+                payload = new byte[length];
+                in.readFully(payload);
+            } catch (EOFException e) {
+                break;
+            }
+            if (!WalCodec.isValid(payload, crc)) {
+                break;
+            }
+            consumer.accept(WalCodec.decode(payload));
+            validEnd += WalCodec.HEADER_SIZE + payload.length;
+        }
+        return validEnd;
+    }
+
+    private void flushLoop() {
+        ByteBuffer staging = ByteBuffer.allocateDirect(STAGING_BUFFER_SIZE);
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            writeBatch(batch, staging);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<Pending> batch, ByteBuffer staging) {
+        long start = -1;
+        try {
+            start = channel.position();
+            for (Pending pending : batch) {
+                ByteBuffer record = pending.record();
+                if (record.remaining() > staging.remaining()) {
+                    flushStaging(staging);
+                }
+                if (record.remaining() > staging.capacity()) {
+                    writeFully(record);
+                } else {
+                    staging.put(record);
+                }
+            }
+            flushStaging(staging);
+            channel.force(false);
+            batch.forEach(pending -> pending.done().complete(null));
+        } catch (IOException e) {
+            log.error("wal write failed. records= {}", batch.size(), e);
+            rollback(start);
+            batch.forEach(pending -> pending.done().completeExceptionally(e));
+        } finally {
+            staging.clear();
+        }
+    }
+
+    /**
+     * 배치 중간까지만 써진 채로 두면 다음 배치가 그 뒤에 붙어서 복구 시 함께 버려진다. 배치 시작 위치로 되돌린다.
+     */
+    private void rollback(long start) {
+        if (start < 0) {
+            return;
+        }
+        try {
+            channel.truncate(start);
+            channel.position(start);
+        } catch (IOException e) {
+            log.error("wal rollback failed. position= {}", start, e);
+        }
+    }
+
+    private void flushStaging(ByteBuffer staging) throws IOException {
+        staging.flip();
+        writeFully(staging);
+        staging.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private record Pending(ByteBuffer record, CompletableFuture<Void> done) {
+    }
+}
@@ -0,0 +1,60 @@
+package hello.springmvc.wal;
+
+import hello.springmvc.basic.HelloData;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * HelloData 한 건을 로그 레코드로 인코딩/디코딩한다.
+ * [payload 길이 int][payload CRC32C int][age int][username 길이 int (null이면 -1)][username UTF-8]
+ * 재기동 시 CRC가 맞지 않거나 잘린 레코드를 만나면 그 지점을 로그의 끝으로 본다.
+ */
+final class WalCodec {
+
+    static final int HEADER_SIZE = 8;
+    static final int MAX_PAYLOAD_SIZE = 1024 * 1024;
+
+    private WalCodec() {
+    }
+
+    static ByteBuffer encode(HelloData data) {
+        byte[] username = data.getUsername() == null ? null : data.getUsername().getBytes(StandardCharsets.UTF_8);
+        int payloadSize = 8 + (username == null ? 0 : username.length);
+        if (payloadSize > MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("record too large: " + payloadSize);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payloadSize);
+        buffer.position(HEADER_SIZE);
+        buffer.putInt(data.getAge());
+        buffer.putInt(username == null ? -1 : username.length);
+        if (username != null) {
+            buffer.put(username);
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), HEADER_SIZE, payloadSize);
+        buffer.putInt(0, payloadSize);
+        buffer.putInt(4, (int) crc.getValue());
+        return buffer.flip();
+    }
+
+    static boolean isValid(byte[] payload, int crc) {
+        CRC32C check = new CRC32C();
+        check.update(payload);
+        return (int) check.getValue() == crc;
+    }
+
+    static HelloData decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        HelloData data = new HelloData();
+        data.setAge(buffer.getInt());
+        int usernameLength = buffer.getInt();
+        if (usernameLength >= 0) {
+            data.setUsername(new String(payload, buffer.position(), usernameLength, StandardCharsets.UTF_8));
+        }
+        return data;
+    }
+}
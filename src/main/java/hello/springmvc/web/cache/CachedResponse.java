@@ -0,0 +1,29 @@
+package hello.springmvc.web.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 응답이 항상 같은 GET 핸들러에 붙인다.
+ * 처음 한 번만 핸들러를 실행하고, 이후에는 ResponseCacheFilter가 인코딩된 바이트를 바로 내려보낸다.
+ * 상태 코드 200인 응답의 바디와 Content-Type만 저장되므로, 다른 응답 헤더를 쓰는 핸들러에는 붙이지 않는다.
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedResponse {
+
+    /**
+     * 캐시 유지 시간(초)
+     */
+    long ttlSeconds() default 60;
+
+    /**
+     * 응답을 바꾸는 쿼리 파라미터 이름. 여기 없는 파라미터는 캐시 키에 넣지 않는다.
+     * (?a=1, ?a=2 ... 처럼 의미 없는 쿼리로 캐시를 채워 다른 항목을 밀어내지 못하게)
+     */
+    String[] params() default {};
+}
@@ -0,0 +1,126 @@
+package hello.springmvc.web.cache;
+
+import hello.springmvc.web.support.HandlerAnnotationIndex;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * '@CachedResponse'가 붙은 GET 핸들러의 응답을 캐시한다.
+ * 캐시에 있으면 DispatcherServlet까지 가지 않고 저장된 바이트와 ETag, Content-Length를 바로 쓴다.
+ * If-None-Match가 ETag와 같으면 바디 없이 304로 응답한다.
+ * 같은 경로라도 Accept에 따라 다른 형식(JSON, CBOR, Smile)으로 응답할 수 있으므로 Accept를 variant로 나눠 저장하고 Vary: Accept를 붙인다.
+ * 키는 경로와 @CachedResponse(params)에 적은 쿼리 파라미터로만 만든다. 경로 하나에 Accept variant는 store의 maxVariants개까지만 저장한다.
+ * HEAD는 캐시된 GET 응답의 헤더만 쓰고, 캐시에 없으면 핸들러를 실행하되 저장하지 않는다.
+ */
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final int MAX_ACCEPT_LENGTH = 256;
+
+    private final HandlerAnnotationIndex<CachedResponse> index;
+    private final ResponseCacheStore store;
+
+    public ResponseCacheFilter(HandlerAnnotationIndex<CachedResponse> index, ResponseCacheStore store) {
+        this.index = index;
+        this.store = store;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CachedResponse cachedResponse = index.find(request);
+        if (cachedResponse == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String accept = acceptKey(request.getHeader(HttpHeaders.ACCEPT));
+        if (accept == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        String key = cacheKey(request, cachedResponse.params());
+        ResponseCacheStore.Entry entry = store.get(key, accept);
+        if (entry != null) {
+            write(entry, request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && "GET".equals(request.getMethod())) {
+            entry = store.put(key, accept, wrapper.getContentAsByteArray(), wrapper.getContentType(),
+                    cachedResponse.ttlSeconds());
+            if (entry != null) {
+                wrapper.setHeader(HttpHeaders.ETAG, entry.etag());
+            }
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void write(ResponseCacheStore.Entry entry, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, entry.etag());
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.equals("*") || ifNoneMatch.contains(entry.etag()))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        if (entry.contentType() != null) {
+            response.setContentType(entry.contentType());
+        }
+        response.setContentLength(entry.body().length);
+        if (!"HEAD".equals(request.getMethod())) {
+            response.getOutputStream().write(entry.body());
+        }
+    }
+
+    /**
+     * 경로 뒤에 params에 적은 파라미터만 적은 순서대로 붙인다. 값이 없는 파라미터는 빈 값으로 넣는다.
+     */
+    static String cacheKey(HttpServletRequest request, String[] params) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        for (String param : params) {
+            String[] values = request.getParameterValues(param);
+            key.append('&').append(param).append('=');
+            if (values != null) {
+                key.append(String.join(",", values));
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * 같은 Accept를 다르게 쓴 값("application/json,text/plain"과 "application/json, text/plain")이 같은 키가 되도록 파싱해서 다시 쓴다.
+     * @return 파싱할 수 없거나 너무 길면 null (캐시를 거치지 않는다)
+     */
+    static String acceptKey(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.ALL_VALUE;
+        }
+        if (accept.length() > MAX_ACCEPT_LENGTH) {
+            return null;
+        }
+        try {
+            return MediaType.toString(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+    }
+}
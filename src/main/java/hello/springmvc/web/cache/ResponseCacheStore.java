@@ -0,0 +1,91 @@
+package hello.springmvc.web.cache;
+
+import org.springframework.util.DigestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * 인코딩이 끝난 응답 바이트를 보관하는 LRU 캐시.
+ * maxEntries를 넘으면 가장 오래 사용하지 않은 항목부터 버리고, TTL이 지난 항목은 조회할 때 지운다.
+ * 같은 키에 형식이 다른 응답(variant, 예: Accept별 JSON, CBOR)을 maxVariants개까지 함께 둔다.
+ * 키마다 variant 수가 막혀 있으므로, 별별 Accept를 보내는 요청이 와도 다른 키의 항목을 밀어내지 못한다.
+ */
+public class ResponseCacheStore {
+
+    private static final String NO_VARIANT = "";
+
+    private final Map<String, Map<String, Entry>> entries;
+    private final int maxVariants;
+    private final LongSupplier clock;
+
+    public ResponseCacheStore(int maxEntries) {
+        this(maxEntries, 1, System::nanoTime);
+    }
+
+    public ResponseCacheStore(int maxEntries, int maxVariants) {
+        this(maxEntries, maxVariants, System::nanoTime);
+    }
+
+    ResponseCacheStore(int maxEntries, int maxVariants, LongSupplier clock) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, Entry>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.maxVariants = maxVariants;
+        this.clock = clock;
+    }
+
+    public Entry get(String key) {
+        return get(key, NO_VARIANT);
+    }
+
+    public synchronized Entry get(String key, String variant) {
+        Map<String, Entry> variants = entries.get(key);
+        if (variants == null) {
+            return null;
+        }
+        Entry entry = variants.get(variant);
+        if (entry != null && entry.isExpired(clock.getAsLong())) {
+            variants.remove(variant);
+            if (variants.isEmpty()) {
+                entries.remove(key);
+            }
+            return null;
+        }
+        return entry;
+    }
+
+    public Entry put(String key, byte[] body, String contentType, long ttlSeconds) {
+        return put(key, NO_VARIANT, body, contentType, ttlSeconds);
+    }
+
+    /**
+     * @return 저장한 항목. 키에 이미 다른 variant가 maxVariants개 있으면 저장하지 않고 null
+     */
+    public synchronized Entry put(String key, String variant, byte[] body, String contentType, long ttlSeconds) {
+        long now = clock.getAsLong();
+        Map<String, Entry> variants = entries.computeIfAbsent(key, k -> new LinkedHashMap<>());
+        if (!variants.containsKey(variant) && variants.size() >= maxVariants) {
+            // 만료된 variant가 있으면 그 자리를 쓴다.
+            variants.values().removeIf(entry -> entry.isExpired(now));
+            if (variants.size() >= maxVariants) {
+                return null;
+            }
+        }
+        String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        Entry entry = new Entry(body, contentType, etag, now + ttlSeconds * 1_000_000_000L);
+        variants.put(variant, entry);
+        return entry;
+    }
+
+    public record Entry(byte[] body, String contentType, String etag, long expiresAtNanos) {
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos > 0;
+        }
+    }
+}
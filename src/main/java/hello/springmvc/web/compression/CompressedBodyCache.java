@@ -0,0 +1,48 @@
+package hello.springmvc.web.compression;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 같은 바디가 반복해서 나가는 응답(정적인 뷰, 캐시된 JSON)은 압축 결과를 재사용한다.
+ * 키는 (content type, 수준, 길이, CRC32)이고, CRC가 우연히 같을 수 있으므로 원본 바이트도 비교한다.
+ * 원본까지 보관하므로 maxBodySize 이하의 바디만 넣는다. maxEntries를 넘으면 가장 오래 안 쓴 것부터 버린다.
+ */
+public class CompressedBodyCache {
+
+    private final int maxBodySize;
+    private final Map<Key, Entry> entries;
+
+    public CompressedBodyCache(int maxEntries, int maxBodySize) {
+        this.maxBodySize = maxBodySize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public boolean accepts(int length) {
+        return length <= maxBodySize;
+    }
+
+    public synchronized byte[] get(String contentType, int level, byte[] body, int length, int crc) {
+        Entry entry = entries.get(new Key(contentType, level, length, crc));
+        if (entry == null || !Arrays.equals(entry.original(), 0, length, body, 0, length)) {
+            return null;
+        }
+        return entry.compressed();
+    }
+
+    public synchronized void put(String contentType, int level, byte[] body, int length, int crc, byte[] compressed) {
+        entries.put(new Key(contentType, level, length, crc), new Entry(Arrays.copyOf(body, length), compressed));
+    }
+
+    private record Key(String contentType, int level, int length, int crc) {
+    }
+
+    private record Entry(byte[] original, byte[] compressed) {
+    }
+}
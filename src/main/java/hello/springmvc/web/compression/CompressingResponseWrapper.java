@@ -0,0 +1,277 @@
+package hello.springmvc.web.compression;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * 압축할지 정하려면 바디 크기를 알아야 하므로 압축할 수 있는 Content-Type의 바디만 일단 모아둔다.
+ * 버퍼는 Content-Length가 선언돼 있으면 그 크기로 한 번에 잡는다.
+ * 아래 경우에는 모아둔 것을 그대로 내보내고 이후로는 원래 응답에 바로 쓴다. (pass-through, 압축하지 않는다)
+ * - 첫 쓰기 때 Content-Type이 압축 대상이 아닐 때(CBOR, 이미지 등), 선언한 Content-Length가 maxBufferSize보다 클 때
+ * - 바디가 maxBufferSize를 넘었을 때
+ * - flushBuffer()가 호출됐을 때 (스트리밍하겠다는 뜻이다)
+ *   단, 선언한 Content-Length만큼 다 모은 뒤의 flushBuffer()는 응답을 끝낸다는 뜻이므로 계속 모은다.
+ *   ContentCachingResponseWrapper.copyBodyToResponse()가 길이를 정하고 바디를 쓴 뒤 항상 flushBuffer()를 부른다.
+ * - 비동기 처리가 시작됐을 때, 논블로킹 쓰기(setWriteListener)를 시작했을 때
+ * - sendError(), sendRedirect()
+ * 스트림의 flush()는 모으는 중에는 무시한다. 메시지 컨버터가 쓰기를 마치면서 항상 호출하기 때문이다.
+ */
+class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final CompressionLevels levels;
+    private final int maxBufferSize;
+    private boolean contentTypeChecked;
+    private byte[] buffer = EMPTY;
+    private int count;
+    private long declaredContentLength = -1;
+    private boolean passThrough;
+    private BufferingOutputStream outputStream;
+    private PrintWriter writer;
+
+    CompressingResponseWrapper(HttpServletResponse response, CompressionLevels levels, int maxBufferSize) {
+        super(response);
+        this.levels = levels;
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        return bufferingStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            writer = new PrintWriter(new OutputStreamWriter(bufferingStream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (passThrough) {
+            super.setContentLengthLong(len);
+        } else {
+            declaredContentLength = len;
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (!passThrough && HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            declaredContentLength = value == null ? -1 : Long.parseLong(value);
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (!passThrough && HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            declaredContentLength = Long.parseLong(value);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (!passThrough && HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            declaredContentLength = value;
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (!passThrough && declaredContentLength >= 0 && count == declaredContentLength) {
+            return;
+        }
+        passThrough();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+        count = 0;
+        super.resetBuffer();
+    }
+
+    @Override
+    public void reset() {
+        count = 0;
+        declaredContentLength = -1;
+        contentTypeChecked = false;
+        super.reset();
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        count = 0;
+        passThrough();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        count = 0;
+        passThrough();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        count = 0;
+        passThrough();
+        super.sendRedirect(location);
+    }
+
+    boolean isPassThrough() {
+        return passThrough;
+    }
+
+    /**
+     * 필터 체인이 끝난 뒤 호출한다. Writer 버퍼에 남은 문자를 마저 모은다.
+     */
+    void finishBuffering() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long declaredContentLength() {
+        return declaredContentLength;
+    }
+
+    /**
+     * 지금까지 모은 바디를 그대로 내보내고 이후 쓰기는 원래 응답으로 바로 보낸다.
+     */
+    void passThrough() throws IOException {
+        if (passThrough) {
+            return;
+        }
+        passThrough = true;
+        if (declaredContentLength >= 0) {
+            super.setContentLengthLong(declaredContentLength);
+        }
+        if (count > 0) {
+            super.getOutputStream().write(buffer, 0, count);
+        }
+        buffer = EMPTY;
+        count = 0;
+    }
+
+    private BufferingOutputStream bufferingStream() {
+        if (outputStream == null) {
+            outputStream = new BufferingOutputStream();
+        }
+        return outputStream;
+    }
+
+    /**
+     * 메시지 컨버터와 ContentCachingResponseWrapper는 바디를 쓰기 전에 Content-Type을 정하므로 첫 쓰기 때 한 번만 본다.
+     */
+    private void checkContentType() throws IOException {
+        if (contentTypeChecked || passThrough) {
+            return;
+        }
+        contentTypeChecked = true;
+        if (levels.levelFor(getContentType()) == CompressionLevels.NONE || declaredContentLength > maxBufferSize) {
+            passThrough();
+        }
+    }
+
+    private void buffer(byte[] b, int off, int len) {
+        int required = count + len;
+        if (buffer == EMPTY && declaredContentLength >= required && declaredContentLength <= maxBufferSize) {
+            buffer = new byte[(int) declaredContentLength];
+        } else if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.min(maxBufferSize, Math.max(required, Math.max(256, buffer.length * 2))));
+        }
+        System.arraycopy(b, off, buffer, count, len);
+        count = required;
+    }
+
+    private class BufferingOutputStream extends ServletOutputStream {
+
+        private final byte[] single = new byte[1];
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkContentType();
+            if (!passThrough && count + len > maxBufferSize) {
+                passThrough();
+            }
+            if (passThrough) {
+                CompressingResponseWrapper.super.getOutputStream().write(b, off, len);
+            } else {
+                buffer(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (passThrough) {
+                CompressingResponseWrapper.super.getOutputStream().flush();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            try {
+                return !passThrough || CompressingResponseWrapper.super.getOutputStream().isReady();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                passThrough();
+                CompressingResponseWrapper.super.getOutputStream().setWriteListener(writeListener);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package hello.springmvc.web.compression;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.CRC32;
+
+/**
+ * 응답 바디를 gzip으로 압축한다. (톰캣의 server.compression은 응답마다 Deflater를 새로 만든다)
+ * - 압축 수준은 Content-Type으로 정하고(CompressionLevels), 목록에 없는 타입은 압축하지 않는다.
+ * - minSize보다 작은 바디("ok" 같은)는 압축해도 헤더 때문에 이득이 없으므로 그대로 보낸다.
+ * - 이미 Content-Encoding이 있는 응답, 2xx가 아니거나 204/206인 응답은 건드리지 않는다.
+ * - Deflater는 DeflaterPool에서 빌려 쓰고, 같은 바디는 CompressedBodyCache의 압축 결과를 그대로 쓴다.
+ * - 압축한 응답의 ETag에는 -gzip을 붙인다. 클라이언트가 그 값을 If-None-Match로 보내면 안쪽에는 원래 ETag로 바꿔서 보여주고,
+ *   안쪽이 304로 응답하면 ETag에 다시 -gzip을 붙인다. (ResponseCacheFilter나 checkNotModified()가 304를 낼 수 있게)
+ * 비동기 응답과 스트리밍 응답은 CompressingResponseWrapper가 pass-through로 바꿔서 압축하지 않는다.
+ * StaticContentFilter가 바깥에 있어서 정적 파일은 여기까지 오지 않는다. (미리 압축한 변형이 따로 있다)
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+    private static final String GZIP_ETAG_SUFFIX = "-" + GZIP + "\"";
+
+    private final DeflaterPool deflaterPool;
+    private final CompressionLevels levels;
+    private final CompressedBodyCache cache;
+    private final int minSize;
+    private final int maxBufferSize;
+
+    public CompressionFilter(DeflaterPool deflaterPool, CompressionLevels levels, CompressedBodyCache cache,
+                             int minSize, int maxBufferSize) {
+        this.deflaterPool = deflaterPool;
+        this.levels = levels;
+        this.cache = cache;
+        this.minSize = minSize;
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CompressingResponseWrapper wrapper = new CompressingResponseWrapper(response, levels, maxBufferSize);
+        CompressionRequest compressionRequest = new CompressionRequest(request, wrapper);
+        filterChain.doFilter(compressionRequest, wrapper);
+        if (wrapper.isPassThrough()) {
+            return;
+        }
+        if (response.getStatus() == HttpServletResponse.SC_NOT_MODIFIED && compressionRequest.hasGzipEtag()) {
+            addGzipSuffix(response);
+        }
+        wrapper.finishBuffering();
+        write(request, response, wrapper);
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, CompressingResponseWrapper wrapper)
+            throws IOException {
+        byte[] body = wrapper.buffer();
+        int length = wrapper.count();
+        String contentType = response.getContentType();
+        int level = levels.levelFor(contentType);
+        if (level != CompressionLevels.NONE && length >= minSize) {
+            addVary(response);
+            if (isCompressible(response) && acceptsGzip(request)) {
+                byte[] compressed = compress(contentType, level, body, length);
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+                // 인코딩이 다르면 다른 표현이므로 ETag도 달라야 한다.
+                addGzipSuffix(response);
+                response.setContentLength(compressed.length);
+                response.getOutputStream().write(compressed);
+                return;
+            }
+        }
+
+        if (length > 0) {
+            response.setContentLength(length);
+            response.getOutputStream().write(body, 0, length);
+        } else if (wrapper.declaredContentLength() >= 0) {
+            response.setContentLengthLong(wrapper.declaredContentLength());
+        }
+    }
+
+    private byte[] compress(String contentType, int level, byte[] body, int length) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(body, 0, length);
+        int crc = (int) crc32.getValue();
+        if (!cache.accepts(length)) {
+            return deflaterPool.gzip(body, length, crc, level);
+        }
+        byte[] compressed = cache.get(contentType, level, body, length, crc);
+        if (compressed == null) {
+            compressed = deflaterPool.gzip(body, length, crc, level);
+            cache.put(contentType, level, body, length, crc, compressed);
+        }
+        return compressed;
+    }
+
+    private static void addGzipSuffix(HttpServletResponse response) {
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        if (etag != null && etag.endsWith("\"") && !etag.endsWith(GZIP_ETAG_SUFFIX)) {
+            response.setHeader(HttpHeaders.ETAG, etag.substring(0, etag.length() - 1) + GZIP_ETAG_SUFFIX);
+        }
+    }
+
+    private static boolean isCompressible(HttpServletResponse response) {
+        int status = response.getStatus();
+        return status >= 200 && status < 300
+                && status != HttpServletResponse.SC_NO_CONTENT && status != HttpServletResponse.SC_PARTIAL_CONTENT
+                && !response.containsHeader(HttpHeaders.CONTENT_ENCODING);
+    }
+
+    /**
+     * "gzip;q=0" 처럼 명시적으로 거부한 경우만 빼고 gzip이나 *가 있으면 받는다고 본다.
+     */
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase(GZIP) || name.equals("*")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static void addVary(HttpServletResponse response) {
+        for (String vary : response.getHeaders(HttpHeaders.VARY)) {
+            if (vary.contains(HttpHeaders.ACCEPT_ENCODING) || vary.equals("*")) {
+                return;
+            }
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    /**
+     * 비동기 처리가 시작되면 응답은 필터가 끝난 뒤 다른 스레드에서 쓰이므로 모으지 않고 바로 내보내게 한다.
+     * 스프링은 DispatcherServlet이 받은 요청의 startAsync()를 호출하고, 안쪽 래퍼들은 이 호출을 여기까지 넘긴다.
+     * If-None-Match의 "...-gzip" 태그는 원래 ETag로 바꿔서 보여준다. 안쪽은 압축 전 ETag만 알기 때문이다.
+     */
+    private static class CompressionRequest extends HttpServletRequestWrapper {
+
+        private final CompressingResponseWrapper response;
+
+        CompressionRequest(HttpServletRequest request, CompressingResponseWrapper response) {
+            super(request);
+            this.response = response;
+        }
+
+        boolean hasGzipEtag() {
+            String ifNoneMatch = super.getHeader(HttpHeaders.IF_NONE_MATCH);
+            return ifNoneMatch != null && ifNoneMatch.contains(GZIP_ETAG_SUFFIX);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            String value = super.getHeader(name);
+            return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name) ? stripGzipSuffix(value) : value;
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            Enumeration<String> values = super.getHeaders(name);
+            if (values == null || !HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name)) {
+                return values;
+            }
+            return Collections.enumeration(Collections.list(values).stream()
+                    .map(CompressionRequest::stripGzipSuffix)
+                    .toList());
+        }
+
+        @Override
+        public AsyncContext startAsync() {
+            passThrough();
+            return super.startAsync();
+        }
+
+        @Override
+        public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+            passThrough();
+            return super.startAsync(servletRequest, servletResponse);
+        }
+
+        private void passThrough() {
+            try {
+                response.passThrough();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static String stripGzipSuffix(String value) {
+            return value == null ? null : value.replace(GZIP_ETAG_SUFFIX, "\"");
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package hello.springmvc.web.compression;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * content type별 압축 수준. "text/html:6,application/json:1,text/*:6" 처럼 적고, 앞에서부터 처음 맞는 항목을 쓴다.
+ * 목록에 없는 타입(이미지, zip 같은 이미 압축된 형식 포함)은 압축하지 않는다.
+ * 응답의 Content-Type 문자열은 몇 가지뿐이므로 판정 결과를 문자열 기준으로 기억해 둔다.
+ */
+public class CompressionLevels {
+
+    public static final int NONE = -1;
+
+    private final List<Rule> rules = new ArrayList<>();
+    private final Map<String, Integer> resolved = new ConcurrentHashMap<>();
+
+    public CompressionLevels(String spec) {
+        for (String item : spec.split(",")) {
+            String trimmed = item.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int colon = trimmed.lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("expected <media-type>:<level> but was " + trimmed);
+            }
+            int level = Integer.parseInt(trimmed.substring(colon + 1).trim());
+            if (level < 0 || level > 9) {
+                throw new IllegalArgumentException("compression level must be 0-9: " + trimmed);
+            }
+            rules.add(new Rule(MediaType.parseMediaType(trimmed.substring(0, colon).trim()), level));
+        }
+    }
+
+    /**
+     * @return 압축 수준(0-9). 압축하지 않을 타입이면 NONE
+     */
+    public int levelFor(String contentType) {
+        if (contentType == null) {
+            return NONE;
+        }
+        Integer level = resolved.get(contentType);
+        if (level == null) {
+            level = resolve(contentType);
+            if (resolved.size() < 256) {
+                resolved.put(contentType, level);
+            }
+        }
+        return level;
+    }
+
+    private int resolve(String contentType) {
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return NONE;
+        }
+        for (Rule rule : rules) {
+            if (rule.mediaType().includes(mediaType)) {
+                return rule.level();
+            }
+        }
+        return NONE;
+    }
+
+    private record Rule(MediaType mediaType, int level) {
+    }
+}
@@ -0,0 +1,96 @@
+package hello.springmvc.web.compression;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * gzip 인코더 풀. Deflater는 생성할 때 zlib 상태(수백 KB의 네이티브 메모리)를 할당하고 end()를 불러야 해제되므로
+ * 응답마다 새로 만들면 할당 비용과 네이티브 메모리 회수 지연이 둘 다 생긴다. 여기서는 reset()해서 다시 쓴다.
+ * 출력 버퍼도 같이 묶어서 재사용한다. 풀이 비어 있으면 새로 만들고, 가득 차 있으면 반납할 때 end()로 버린다.
+ */
+public class DeflaterPool {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+    private static final int GZIP_TRAILER_SIZE = 8;
+    /**
+     * 이보다 커진 출력 버퍼는 풀에 돌려놓지 않는다. 큰 응답 한 번 때문에 메모리를 계속 잡고 있지 않게 한다.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 256 * 1024;
+
+    private final ArrayBlockingQueue<Encoder> pool;
+
+    public DeflaterPool(int maxPooled) {
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, maxPooled));
+    }
+
+    /**
+     * input[0, length)를 gzip 형식으로 압축한다.
+     * @param crc input의 CRC32. 호출하는 쪽이 캐시 키로 이미 계산했으므로 받아서 trailer에 쓴다.
+     */
+    public byte[] gzip(byte[] input, int length, int crc, int level) {
+        Encoder encoder = pool.poll();
+        if (encoder == null) {
+            encoder = new Encoder();
+        }
+        try {
+            return encoder.gzip(input, length, crc, level);
+        } finally {
+            encoder.deflater.reset();
+            if (encoder.buffer.length > MAX_RETAINED_BUFFER_SIZE) {
+                encoder.buffer = new byte[0];
+            }
+            if (!pool.offer(encoder)) {
+                encoder.deflater.end();
+            }
+        }
+    }
+
+    public int pooled() {
+        return pool.size();
+    }
+
+    private static final class Encoder {
+
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        private int level = Deflater.DEFAULT_COMPRESSION;
+        private byte[] buffer = new byte[0];
+
+        byte[] gzip(byte[] input, int length, int crc, int level) {
+            if (this.level != level) {
+                deflater.setLevel(level);
+                this.level = level;
+            }
+            deflater.setInput(input, 0, length);
+            deflater.finish();
+
+            // zlib의 deflateBound와 같은 상한. 보통 한 번의 deflate()로 끝난다.
+            int bound = GZIP_HEADER.length + length + (length >> 12) + (length >> 14) + (length >> 25) + 13
+                    + GZIP_TRAILER_SIZE;
+            if (buffer.length < bound) {
+                buffer = new byte[bound];
+            }
+            System.arraycopy(GZIP_HEADER, 0, buffer, 0, GZIP_HEADER.length);
+            int position = GZIP_HEADER.length;
+            while (!deflater.finished()) {
+                if (position == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                position += deflater.deflate(buffer, position, buffer.length - position);
+            }
+            if (buffer.length < position + GZIP_TRAILER_SIZE) {
+                buffer = Arrays.copyOf(buffer, position + GZIP_TRAILER_SIZE);
+            }
+            writeIntLittleEndian(buffer, position, crc);
+            writeIntLittleEndian(buffer, position + 4, length);
+            return Arrays.copyOf(buffer, position + GZIP_TRAILER_SIZE);
+        }
+
+        private static void writeIntLittleEndian(byte[] buffer, int offset, int value) {
+            buffer[offset] = (byte) value;
+            buffer[offset + 1] = (byte) (value >>> 8);
+            buffer[offset + 2] = (byte) (value >>> 16);
+            buffer[offset + 3] = (byte) (value >>> 24);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package hello.springmvc.web.idempotency;
+
+import hello.springmvc.web.support.CapturedResponse;
+import hello.springmvc.web.support.HandlerAnnotationIndex;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * '@Idempotent' 핸들러로 가는 요청 중 Idempotency-Key 헤더가 있는 요청을 처리한다.
+ * 키는 메서드, 경로, 클라이언트까지 포함해서 만든다. 같은 키를 다른 경로나 다른 클라이언트가 써도 서로 섞이지 않는다.
+ * 클라이언트는 로그인 사용자(getUserPrincipal)가 있으면 그 이름, 없으면 getRemoteAddr()로 구분한다.
+ * - 처음 온 요청(리더)은 핸들러를 실행하고, 응답을 CapturedResponse로 저장소에 남긴다.
+ * - 같은 키로 온 요청은 리더의 응답을 그대로 쓰고 Idempotent-Replayed: true를 붙인다.
+ *   리더가 아직 처리 중이면 maxWait까지 기다리고, 그래도 안 끝나면 409로 나중에 다시 보내라고 한다.
+ * - 같은 키인데 쿼리 스트링, Content-Type, 바디가 다르면(요청 지문이 다르면) 422로 거절한다.
+ *   지문을 만들려고 바디를 먼저 다 읽으므로 바디가 maxRequestSize보다 크면 413.
+ * - 리더가 예외, 5xx로 끝났거나 바디가 maxBodySize보다 크면 결과를 남기지 않는다.
+ *   이때 기다리던 요청 중 하나가 새 리더가 되어 다시 실행한다.
+ * - 핸들러가 비동기로 넘어가면 ShallowEtagHeaderFilter처럼 비동기 디스패치가 끝난 뒤에 응답을 남기고 내보낸다.
+ */
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final String SLOT_ATTRIBUTE = IdempotencyFilter.class.getName() + ".SLOT";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final HandlerAnnotationIndex<Idempotent> index;
+    private final IdempotencyStore<CapturedResponse> store;
+    private final long maxWaitMillis;
+    private final int maxBodySize;
+    private final int maxRequestSize;
+
+    public IdempotencyFilter(HandlerAnnotationIndex<Idempotent> index, IdempotencyStore<CapturedResponse> store,
+                             long maxWaitMillis, int maxBodySize, int maxRequestSize) {
+        this.index = index;
+        this.store = store;
+        this.maxWaitMillis = maxWaitMillis;
+        this.maxBodySize = maxBodySize;
+        this.maxRequestSize = maxRequestSize;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            IdempotencyStore.Slot<CapturedResponse> slot =
+                    (IdempotencyStore.Slot<CapturedResponse>) request.getAttribute(SLOT_ATTRIBUTE);
+            if (slot == null) {
+                filterChain.doFilter(request, response);
+            } else {
+                execute(slot, request, response, filterChain);
+            }
+            return;
+        }
+
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY);
+        if (idempotencyKey == null || index.find(request) == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "invalid " + IDEMPOTENCY_KEY);
+            return;
+        }
+        if (request.getContentLengthLong() > maxRequestSize) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(maxRequestSize + 1);
+        if (body.length > maxRequestSize) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+
+        HttpServletRequest bodyRequest = new CachedBodyRequest(request, body);
+        byte[] fingerprint = fingerprint(request, body);
+        String key = request.getMethod() + ' ' + request.getRequestURI() + '\n' + client(request)
+                + '\n' + idempotencyKey;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        while (true) {
+            IdempotencyStore.Slot<CapturedResponse> slot = store.acquire(key, fingerprint);
+            if (slot.isLeader()) {
+                lead(slot, bodyRequest, response, filterChain);
+                return;
+            }
+            if (!MessageDigest.isEqual(slot.fingerprint(), fingerprint)) {
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                        IDEMPOTENCY_KEY + " was already used with a different request");
+                return;
+            }
+
+            try {
+                CapturedResponse captured = slot.result().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                response.setHeader(IDEMPOTENT_REPLAYED, "true");
+                captured.writeTo(response);
+                return;
+            } catch (TimeoutException e) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpServletResponse.SC_CONFLICT,
+                        "request with the same " + IDEMPOTENCY_KEY + " is in progress");
+                return;
+            } catch (ExecutionException e) {
+                // 리더가 결과를 남기지 못했다. 다시 acquire()해서 새 리더가 되거나 새 리더를 기다린다.
+                log.debug("idempotent leader abandoned. key= {}, cause= {}", key, e.getCause().toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("idempotency wait cancelled");
+            }
+        }
+    }
+
+    private void lead(IdempotencyStore.Slot<CapturedResponse> slot, HttpServletRequest request,
+                      HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        request.setAttribute(SLOT_ATTRIBUTE, slot);
+        execute(slot, request, new ContentCachingResponseWrapper(response), filterChain);
+    }
+
+    /**
+     * 첫 디스패치와 비동기 디스패치가 같이 쓴다. 비동기로 넘어가면 결과를 남기지 않고 돌아가고,
+     * 비동기 디스패치 없이 끝나는 경우(연결 끊김 등)를 위해 완료 리스너에서 abandon한다. 이미 complete()했으면 아무 일도 없다.
+     */
+    private void execute(IdempotencyStore.Slot<CapturedResponse> slot, HttpServletRequest request,
+                         HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            store.abandon(slot, e);
+            throw e;
+        }
+
+        if (request.isAsyncStarted()) {
+            if (!isAsyncDispatch(request)) {
+                request.getAsyncContext().addListener(new AbandonOnComplete(slot));
+            }
+            return;
+        }
+        ContentCachingResponseWrapper wrapper =
+                WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper.getStatus() >= 500 || wrapper.getContentSize() > maxBodySize) {
+            store.abandon(slot, new IllegalStateException("response not stored. status= " + wrapper.getStatus()));
+        } else {
+            store.complete(slot, CapturedResponse.of(wrapper));
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static String client(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "user:" + principal.getName() : "addr:" + request.getRemoteAddr();
+    }
+
+    private static byte[] fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(request.getQueryString()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(String.valueOf(request.getContentType()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            return digest.digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private class AbandonOnComplete implements AsyncListener {
+
+        private final IdempotencyStore.Slot<CapturedResponse> slot;
+
+        AbandonOnComplete(IdempotencyStore.Slot<CapturedResponse> slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            store.abandon(slot, new IllegalStateException("async request completed without a stored response"));
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    /**
+     * 지문을 만들려고 먼저 읽은 바디를 핸들러가 다시 읽을 수 있게 돌려준다.
+     * 바디를 이미 읽었으므로 form-urlencoded 바디의 getParameter()는 바디 값을 못 본다. (@Idempotent 핸들러는 JSON/텍스트 바디만 받는다)
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * 바디가 이미 메모리에 있으므로 기다릴 것 없이 바로 onDataAvailable, onAllDataRead를 부른다.
+                 * isReady()가 늘 true라 리스너는 onDataAvailable 안에서 끝까지 읽는다.
+                 */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        readListener.onDataAvailable();
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws UnsupportedEncodingException {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : "UTF-8";
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), encoding));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
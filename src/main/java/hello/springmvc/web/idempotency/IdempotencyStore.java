@@ -0,0 +1,321 @@
+package hello.springmvc.web.idempotency;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Idempotency-Key별 처리 결과를 ttl 동안 들고 있는 저장소.
+ * - 키 해시로 나눈 세그먼트마다 락을 따로 둬서, 다른 세그먼트의 키끼리는 서로 기다리지 않는다.
+ * - 세그먼트마다 LRU 순서를 유지하고, 세그먼트 용량(maxEntries, maxWeight를 세그먼트 수로 나눈 값)을 넘으면
+ *   가장 오래 안 쓴 키부터 버린다. 무게는 complete()할 때 weigher로 잰다. (저장한 응답 바이트 수)
+ * - 아직 처리 중인(결과가 없는) 키는 LRU로도 만료로도 버리지 않는다. 버리면 재전송된 요청이 리더가 되어 같은 POST를 한 번 더 실행한다.
+ *   그래서 처리 중인 키가 많으면 세그먼트가 잠깐 용량을 넘을 수 있다.
+ * - 만료는 타이머 휠로 처리한다. 키는 만료 틱에 해당하는 칸의 리스트에 들어가고,
+ *   세그먼트에 접근할 때 지난 틱의 칸만 비운다. 전체를 훑지 않으므로 키가 많아도 만료 비용은 만료되는 키 수에 비례한다.
+ *   ttl이 휠 절반(WHEEL_SIZE / 2 틱)에 들어오도록 틱 길이를 정하므로, 칸을 비울 때 만날 키는 거의 다 만료된 키다.
+ * LRU 리스트와 휠 리스트는 노드 안의 포인터로 연결해서(intrusive) 노드 하나 말고는 키마다 따로 할당하지 않는다.
+ * 처음 acquire()한 쪽이 리더가 되고, 리더는 끝나면 complete()(결과 보관) 또는 abandon()(키 삭제)을 호출해야 한다.
+ */
+public class IdempotencyStore<V> {
+
+    private static final int WHEEL_SIZE = 256;
+
+    private final Segment<V>[] segments;
+    private final int segmentShift;
+    private final ToLongFunction<? super V> weigher;
+    private final long tickNanos;
+    private final long ttlTicks;
+    private final LongSupplier clock;
+
+    public IdempotencyStore(int maxEntries, long maxWeight, ToLongFunction<? super V> weigher, Duration ttl) {
+        this(maxEntries, maxWeight, weigher, ttl, Runtime.getRuntime().availableProcessors() * 4, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    IdempotencyStore(int maxEntries, long maxWeight, ToLongFunction<? super V> weigher, Duration ttl,
+                     int concurrency, LongSupplier clock) {
+        int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(concurrency, maxEntries)) * 2 - 1);
+        this.segments = new Segment[segmentCount];
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+        int capacity = Math.max(1, (maxEntries + segmentCount - 1) / segmentCount);
+        long weightCapacity = Math.max(1, maxWeight / segmentCount);
+        this.weigher = weigher;
+        this.tickNanos = Math.max(1_000_000L, ttl.toNanos() / (WHEEL_SIZE / 2));
+        this.ttlTicks = Math.max(1, (ttl.toNanos() + tickNanos - 1) / tickNanos);
+        this.clock = clock;
+        long now = tick();
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(capacity, weightCapacity, now);
+        }
+    }
+
+    /**
+     * 키가 없으면 새로 만들고 리더 Slot을, 있으면 그 결과를 기다릴 수 있는 Slot을 돌려준다.
+     * @param fingerprint 요청 지문. 리더가 아닌 Slot의 fingerprint()는 리더가 넘긴 값이다.
+     */
+    public Slot<V> acquire(String key, byte[] fingerprint) {
+        long now = tick();
+        Segment<V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.expire(now);
+            Node<V> node = segment.map.get(key);
+            if (node != null && !node.result.isCompletedExceptionally()) {
+                segment.touch(node);
+                return new Slot<>(false, node);
+            }
+            if (node != null) {
+                // abandon()이 결과를 실패로 바꾸고 지우기 직전이다. 기다리지 않고 바로 새 리더가 된다.
+                segment.remove(node);
+            }
+            node = new Node<>(key, fingerprint, now + ttlTicks);
+            segment.insert(node);
+            return new Slot<>(true, node);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 결과를 남긴다. 그 사이 키가 빠졌더라도(abandon 등) 기다리던 요청들은 결과를 받는다.
+     * 이때부터 키가 LRU, 만료 대상이 되고 결과의 무게가 세그먼트 무게에 더해진다.
+     */
+    public void complete(Slot<V> slot, V value) {
+        Node<V> node = slot.node;
+        if (!node.result.complete(value)) {
+            return;
+        }
+        Segment<V> segment = segmentFor(node.key);
+        segment.lock.lock();
+        try {
+            if (segment.map.get(node.key) == node) {
+                node.weight = weigher.applyAsLong(value);
+                segment.weight += node.weight;
+                segment.touch(node);
+                segment.evict();
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 결과를 남기지 않고 키를 지운다. 기다리던 요청들은 예외를 받고, 같은 키로 다시 acquire()할 수 있다.
+     * 이미 complete()한 Slot이면 아무것도 하지 않는다.
+     */
+    public void abandon(Slot<V> slot, Throwable cause) {
+        Node<V> node = slot.node;
+        if (!node.result.completeExceptionally(cause)) {
+            return;
+        }
+        Segment<V> segment = segmentFor(node.key);
+        segment.lock.lock();
+        try {
+            if (segment.map.get(node.key) == node) {
+                segment.remove(node);
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.map.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public long weight() {
+        long weight = 0;
+        for (Segment<V> segment : segments) {
+            segment.lock.lock();
+            try {
+                weight += segment.weight;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return weight;
+    }
+
+    private long tick() {
+        return clock.getAsLong() / tickNanos;
+    }
+
+    /**
+     * String.hashCode()는 비슷한 키("key1", "key2" ...)끼리 아래 비트만 조금 다르다.
+     * 황금비 상수를 곱해서 위 비트까지 섞은 뒤 위 비트로 세그먼트를 고른다.
+     */
+    private Segment<V> segmentFor(String key) {
+        if (segments.length == 1) {
+            return segments[0];
+        }
+        return segments[(key.hashCode() * 0x9E3779B9) >>> segmentShift];
+    }
+
+    public static final class Slot<V> {
+
+        private final boolean leader;
+        private final Node<V> node;
+
+        private Slot(boolean leader, Node<V> node) {
+            this.leader = leader;
+            this.node = node;
+        }
+
+        public boolean isLeader() {
+            return leader;
+        }
+
+        public byte[] fingerprint() {
+            return node.fingerprint;
+        }
+
+        public CompletableFuture<V> result() {
+            return node.result;
+        }
+    }
+
+    private static final class Node<V> {
+
+        final String key;
+        final byte[] fingerprint;
+        final long expiresAtTick;
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        long weight;
+        Node<V> lruPrev;
+        Node<V> lruNext;
+        Node<V> wheelPrev;
+        Node<V> wheelNext;
+
+        Node(String key, byte[] fingerprint, long expiresAtTick) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.expiresAtTick = expiresAtTick;
+        }
+
+        boolean inFlight() {
+            return !result.isDone();
+        }
+    }
+
+    private static final class Segment<V> {
+
+        final ReentrantLock lock = new ReentrantLock();
+        final HashMap<String, Node<V>> map = new HashMap<>();
+        final int capacity;
+        final long weightCapacity;
+        /**
+         * 원형 리스트의 머리. lruHead.lruNext가 가장 오래 안 쓴 노드다.
+         */
+        final Node<V> lruHead = sentinel();
+        @SuppressWarnings("unchecked")
+        final Node<V>[] wheel = new Node[WHEEL_SIZE];
+        long currentTick;
+        long weight;
+
+        Segment(int capacity, long weightCapacity, long now) {
+            this.capacity = capacity;
+            this.weightCapacity = weightCapacity;
+            this.currentTick = now;
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                wheel[i] = sentinel();
+            }
+        }
+
+        void insert(Node<V> node) {
+            map.put(node.key, node);
+            linkLru(node);
+            Node<V> bucket = wheel[(int) (node.expiresAtTick & (WHEEL_SIZE - 1))];
+            node.wheelPrev = bucket.wheelPrev;
+            node.wheelNext = bucket;
+            bucket.wheelPrev.wheelNext = node;
+            bucket.wheelPrev = node;
+            evict();
+        }
+
+        /**
+         * 개수나 무게가 넘치면 LRU 쪽부터 결과가 나온 노드를 버린다. 처리 중인 노드는 건너뛴다.
+         */
+        void evict() {
+            Node<V> node = lruHead.lruNext;
+            while ((map.size() > capacity || weight > weightCapacity) && node != lruHead) {
+                Node<V> next = node.lruNext;
+                if (!node.inFlight()) {
+                    remove(node);
+                }
+                node = next;
+            }
+        }
+
+        void touch(Node<V> node) {
+            unlinkLru(node);
+            linkLru(node);
+        }
+
+        void remove(Node<V> node) {
+            map.remove(node.key);
+            weight -= node.weight;
+            unlinkLru(node);
+            node.wheelPrev.wheelNext = node.wheelNext;
+            node.wheelNext.wheelPrev = node.wheelPrev;
+            node.wheelPrev = null;
+            node.wheelNext = null;
+        }
+
+        /**
+         * currentTick 다음 틱부터 now까지 지나간 칸을 비운다. 한 바퀴 이상 지났으면 모든 칸을 한 번씩만 본다.
+         * 만료됐어도 처리 중인 노드는 칸에 남겨 두고 휠이 다음에 한 바퀴 돌 때 다시 본다.
+         */
+        void expire(long now) {
+            if (now <= currentTick) {
+                return;
+            }
+            long from = now - currentTick >= WHEEL_SIZE ? now - WHEEL_SIZE + 1 : currentTick + 1;
+            for (long tick = from; tick <= now; tick++) {
+                Node<V> bucket = wheel[(int) (tick & (WHEEL_SIZE - 1))];
+                Node<V> node = bucket.wheelNext;
+                while (node != bucket) {
+                    Node<V> next = node.wheelNext;
+                    if (node.expiresAtTick <= now && !node.inFlight()) {
+                        remove(node);
+                    }
+                    node = next;
+                }
+            }
+            currentTick = now;
+        }
+
+        private void linkLru(Node<V> node) {
+            node.lruPrev = lruHead.lruPrev;
+            node.lruNext = lruHead;
+            lruHead.lruPrev.lruNext = node;
+            lruHead.lruPrev = node;
+        }
+
+        private void unlinkLru(Node<V> node) {
+            node.lruPrev.lruNext = node.lruNext;
+            node.lruNext.lruPrev = node.lruPrev;
+        }
+
+        private static <V> Node<V> sentinel() {
+            Node<V> sentinel = new Node<>(null, null, Long.MAX_VALUE);
+            sentinel.lruPrev = sentinel;
+            sentinel.lruNext = sentinel;
+            sentinel.wheelPrev = sentinel;
+            sentinel.wheelNext = sentinel;
+            return sentinel;
+        }
+    }
+}
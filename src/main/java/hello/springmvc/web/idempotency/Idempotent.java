@@ -0,0 +1,18 @@
+package hello.springmvc.web.idempotency;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 클라이언트가 Idempotency-Key 헤더를 보내면, 같은 키로 다시 온 요청(재시도)은 핸들러를 실행하지 않고
+ * 처음 요청의 응답을 그대로 돌려준다. 처음 요청이 아직 처리 중이면 끝날 때까지 기다린다.
+ * 헤더가 없는 요청은 평소처럼 처리한다. 등록, 결제처럼 두 번 실행되면 안 되는 POST 핸들러에 붙인다.
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Idempotent {
+}
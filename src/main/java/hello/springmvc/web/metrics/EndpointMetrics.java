@@ -0,0 +1,57 @@
+package hello.springmvc.web.metrics;
+
+/**
+ * 핸들러 메서드 하나의 지표. 요청 스레드는 record()만 호출하고, 스냅숏은 MetricsRegistry의 스케줄러 스레드만 만든다.
+ */
+class EndpointMetrics {
+
+    private final LogHistogram latencyNanos = new LogHistogram();
+    private final LogHistogram requestBytes = new LogHistogram();
+    private final LogHistogram responseBytes = new LogHistogram();
+    private final LogHistogram allocatedBytes = new LogHistogram();
+
+    private Snapshot previous = Snapshot.EMPTY;
+    private volatile Snapshot interval = Snapshot.EMPTY;
+    private volatile long total;
+
+    /**
+     * @param allocated 측정할 수 없으면 음수
+     */
+    void record(long elapsedNanos, long requestSize, long responseSize, long allocated) {
+        latencyNanos.record(elapsedNanos);
+        requestBytes.record(requestSize);
+        responseBytes.record(responseSize);
+        allocatedBytes.record(allocated);
+    }
+
+    /**
+     * 지금까지의 누적값을 찍고, 이전 스냅숏과의 차이를 새 구간으로 바꿔 끼운다.
+     */
+    void rotate() {
+        Snapshot current = new Snapshot(latencyNanos.snapshot(), requestBytes.snapshot(),
+                responseBytes.snapshot(), allocatedBytes.snapshot());
+        interval = current.minus(previous);
+        total = current.latencyNanos().count();
+        previous = current;
+    }
+
+    Snapshot interval() {
+        return interval;
+    }
+
+    long total() {
+        return total;
+    }
+
+    record Snapshot(HistogramSnapshot latencyNanos, HistogramSnapshot requestBytes,
+                    HistogramSnapshot responseBytes, HistogramSnapshot allocatedBytes) {
+
+        static final Snapshot EMPTY = new Snapshot(HistogramSnapshot.EMPTY, HistogramSnapshot.EMPTY,
+                HistogramSnapshot.EMPTY, HistogramSnapshot.EMPTY);
+
+        Snapshot minus(Snapshot other) {
+            return new Snapshot(latencyNanos.minus(other.latencyNanos), requestBytes.minus(other.requestBytes),
+                    responseBytes.minus(other.responseBytes), allocatedBytes.minus(other.allocatedBytes));
+        }
+    }
+}
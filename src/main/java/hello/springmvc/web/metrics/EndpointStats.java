@@ -0,0 +1,11 @@
+package hello.springmvc.web.metrics;
+
+/**
+ * /metrics 응답 한 줄. 시간은 마이크로초, 크기는 바이트이고 total을 뺀 값은 모두 직전 스냅숏 구간 기준이다.
+ * allocated 값은 요청 스레드에서 할당한 바이트(ThreadMXBean)이며, 측정할 수 없는 JVM이면 0이다.
+ */
+public record EndpointStats(String handler, long total, long count,
+                            long p50Micros, long p99Micros, long p999Micros, long maxMicros,
+                            long requestBytesMean, long responseBytesMean,
+                            long allocatedBytesP50, long allocatedBytesP99) {
+}
@@ -0,0 +1,58 @@
+package hello.springmvc.web.metrics;
+
+/**
+ * LogHistogram의 특정 시점 사본. 두 스냅숏의 차이(minus)가 그 사이 구간의 분포다.
+ */
+record HistogramSnapshot(long[] counts, long sum) {
+
+    static final HistogramSnapshot EMPTY = new HistogramSnapshot(new long[LogHistogram.BUCKETS], 0);
+
+    HistogramSnapshot minus(HistogramSnapshot previous) {
+        long[] diff = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            diff[i] = counts[i] - previous.counts[i];
+        }
+        return new HistogramSnapshot(diff, sum - previous.sum);
+    }
+
+    long count() {
+        long count = 0;
+        for (long c : counts) {
+            count += c;
+        }
+        return count;
+    }
+
+    long mean() {
+        long count = count();
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * @param percentile 0 ~ 100
+     */
+    long percentile(double percentile) {
+        long count = count();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return LogHistogram.valueOf(i);
+            }
+        }
+        return max();
+    }
+
+    long max() {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] > 0) {
+                return LogHistogram.valueOf(i);
+            }
+        }
+        return 0;
+    }
+}
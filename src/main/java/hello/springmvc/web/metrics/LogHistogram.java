@@ -0,0 +1,57 @@
+package hello.springmvc.web.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HdrHistogram과 같은 log-linear 버킷 히스토그램. 2의 거듭제곱 구간마다 16개 버킷으로 나누므로 오차는 6.25% 이내.
+ * 기록은 버킷 하나에 getAndIncrement 한 번이라 락이 없다. 값은 누적만 하고,
+ * 구간별 분포는 MetricsRegistry가 주기적으로 찍은 스냅숏끼리 빼서 구한다.
+ */
+class LogHistogram {
+
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+
+    void record(long value) {
+        if (value < 0) {
+            return;
+        }
+        counts.getAndIncrement(index(value));
+        sum.add(value);
+    }
+
+    HistogramSnapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new HistogramSnapshot(copy, sum.sum());
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * 버킷에 들어가는 값 범위의 가운데.
+     */
+    static long valueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lowerBound = (1L << exponent) | ((long) (index % SUB_BUCKETS) << shift);
+        return lowerBound + ((1L << shift) >> 1);
+    }
+}
@@ -0,0 +1,50 @@
+package hello.springmvc.web.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+/**
+ * 로컬(루프백)에서 온 요청에만 지표를 보여준다. 밖에서 오면 없는 경로처럼 404.
+ * GET /metrics     -> JSON
+ * GET /metrics.txt -> 핸들러당 한 줄짜리 텍스트
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "hello.metrics.enabled", havingValue = "true")
+public class MetricsController {
+
+    private final MetricsRegistry metricsRegistry;
+
+    @GetMapping("/metrics")
+    public ResponseEntity<List<EndpointStats>> metrics(HttpServletRequest request) {
+        if (!isLocal(request)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(metricsRegistry.stats());
+    }
+
+    @GetMapping(value = "/metrics.txt", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> dump(HttpServletRequest request) {
+        if (!isLocal(request)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(metricsRegistry.dump());
+    }
+
+    private static boolean isLocal(HttpServletRequest request) {
+        try {
+            return InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
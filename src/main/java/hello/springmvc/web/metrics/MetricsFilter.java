@@ -0,0 +1,112 @@
+package hello.springmvc.web.metrics;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * basePackage 아래 핸들러 메서드로 간 요청마다 지연 시간, 요청/응답 바디 크기, 요청 스레드가 할당한 바이트를 기록한다.
+ * 어느 핸들러로 갔는지는 체인이 끝난 뒤 DispatcherServlet이 남긴 BEST_MATCHING_HANDLER_ATTRIBUTE로 안다.
+ * 비동기 요청은 완료 시점(AsyncListener)에 지연 시간을 기록하고, 할당량은 첫 디스패치 구간만 잰다.
+ */
+public class MetricsFilter extends OncePerRequestFilter {
+
+    private final MetricsRegistry registry;
+    private final String basePackage;
+    private final com.sun.management.ThreadMXBean threadMXBean;
+
+    public MetricsFilter(MetricsRegistry registry, String basePackage) {
+        this.registry = registry;
+        this.basePackage = basePackage + ".";
+        this.threadMXBean = allocationMXBean();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        long allocatedBefore = allocatedBytes();
+        CountingRequestWrapper countingRequest = new CountingRequestWrapper(request);
+        CountingResponseWrapper countingResponse = new CountingResponseWrapper(response);
+        try {
+            filterChain.doFilter(countingRequest, countingResponse);
+        } finally {
+            long allocated = allocatedBefore < 0 ? -1 : allocatedBytes() - allocatedBefore;
+            EndpointMetrics metrics = endpoint(request);
+            if (metrics != null) {
+                if (request.isAsyncStarted()) {
+                    request.getAsyncContext().addListener(
+                            new CompletionListener(metrics, start, allocated, countingRequest, countingResponse));
+                } else {
+                    metrics.record(System.nanoTime() - start, requestBytes(countingRequest, request),
+                            countingResponse.finish(), allocated);
+                }
+            }
+        }
+    }
+
+    private EndpointMetrics endpoint(HttpServletRequest request) {
+        if (!(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler)) {
+            return null;
+        }
+        Class<?> type = handler.getBeanType();
+        if (!type.getName().startsWith(basePackage)) {
+            return null;
+        }
+        return registry.endpoint(type.getSimpleName() + "#" + handler.getMethod().getName());
+    }
+
+    /**
+     * 컨테이너가 getParameter()로 바디를 읽은 경우(form)는 스트림을 거치지 않으므로 Content-Length로 대신한다.
+     */
+    private static long requestBytes(CountingRequestWrapper countingRequest, HttpServletRequest request) {
+        long counted = countingRequest.count();
+        return counted > 0 ? counted : Math.max(0, request.getContentLengthLong());
+    }
+
+    private long allocatedBytes() {
+        return threadMXBean == null ? -1 : threadMXBean.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationMXBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sunBean
+                && sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+            return sunBean;
+        }
+        return null;
+    }
+
+    private record CompletionListener(EndpointMetrics metrics, long start, long allocated,
+                                      CountingRequestWrapper request, CountingResponseWrapper response)
+            implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            metrics.record(System.nanoTime() - start, requestBytes(request, (HttpServletRequest) request.getRequest()),
+                    response.finish(), allocated);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package hello.springmvc.web.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 핸들러별 EndpointMetrics 모음. snapshotInterval 마다 스케줄러 스레드 하나가 모든 히스토그램을 찍어서
+ * 구간 분포를 바꿔 끼우므로, /metrics 조회는 요청 스레드가 쓰고 있는 배열을 건드리지 않는다.
+ */
+@Slf4j
+public class MetricsRegistry implements AutoCloseable {
+
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final boolean logDump;
+
+    public MetricsRegistry(Duration snapshotInterval, boolean logDump) {
+        this.logDump = logDump;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hello-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = snapshotInterval.toMillis();
+        scheduler.scheduleAtFixedRate(this::rotate, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    EndpointMetrics endpoint(String handler) {
+        return endpoints.computeIfAbsent(handler, key -> new EndpointMetrics());
+    }
+
+    public List<EndpointStats> stats() {
+        List<EndpointStats> stats = new ArrayList<>();
+        endpoints.forEach((handler, metrics) -> {
+            EndpointMetrics.Snapshot interval = metrics.interval();
+            HistogramSnapshot latency = interval.latencyNanos();
+            stats.add(new EndpointStats(handler, metrics.total(), latency.count(),
+                    micros(latency.percentile(50)), micros(latency.percentile(99)),
+                    micros(latency.percentile(99.9)), micros(latency.max()),
+                    interval.requestBytes().mean(), interval.responseBytes().mean(),
+                    interval.allocatedBytes().percentile(50), interval.allocatedBytes().percentile(99)));
+        });
+        stats.sort((a, b) -> a.handler().compareTo(b.handler()));
+        return stats;
+    }
+
+    /**
+     * 핸들러당 한 줄짜리 텍스트.
+     * ex) RequestParamController#requestParamV1 total=1200 n=118 p50=85us p99=1210us p999=3400us max=4100us req=24B res=2B alloc50=11264B alloc99=16384B
+     */
+    public String dump() {
+        StringBuilder text = new StringBuilder();
+        for (EndpointStats s : stats()) {
+            text.append(s.handler())
+                    .append(" total=").append(s.total())
+                    .append(" n=").append(s.count())
+                    .append(" p50=").append(s.p50Micros()).append("us")
+                    .append(" p99=").append(s.p99Micros()).append("us")
+                    .append(" p999=").append(s.p999Micros()).append("us")
+                    .append(" max=").append(s.maxMicros()).append("us")
+                    .append(" req=").append(s.requestBytesMean()).append('B')
+                    .append(" res=").append(s.responseBytesMean()).append('B')
+                    .append(" alloc50=").append(s.allocatedBytesP50()).append('B')
+                    .append(" alloc99=").append(s.allocatedBytesP99()).append('B')
+                    .append('\n');
+        }
+        return text.toString();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    void rotate() {
+        try {
+            endpoints.values().forEach(EndpointMetrics::rotate);
+            if (logDump && !endpoints.isEmpty()) {
+                log.info("metrics\n{}", dump());
+            }
+        } catch (RuntimeException e) {
+            // 예외가 나가면 scheduleAtFixedRate가 이후 실행을 멈춘다.
+            log.warn("metrics rotate failed", e);
+        }
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,72 @@
+package hello.springmvc.web.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 동시에 처리 중인 요청 수를 limit 이하로 묶고, limit은 관측한 지연 시간에 맞춰 AIMD로 조절한다.
+ * - 응답이 targetLatency보다 늦으면 limit을 backoff 비율만큼 곱해서 줄인다. (multiplicative decrease)
+ * - 제때 끝났고 한도를 절반 이상 쓰고 있었다면 1/limit 씩 늘린다. limit개가 끝날 때마다 1 늘어나는 셈이다. (additive increase)
+ * 요청이 큐에 쌓여 지연이 늘어나기 시작하면 한도가 줄어서, 받아준 요청은 목표 지연 근처에서 끝나고 나머지는 바로 거절된다.
+ * inFlight와 limit(double 비트) 모두 CAS로만 바꾼다.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long targetLatencyNanos) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(
+                Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit))));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * tryAcquire()가 true였던 요청이 끝나면 한 번 호출한다.
+     */
+    public void release(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            double next;
+            if (latencyNanos > targetLatencyNanos) {
+                next = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else if (inFlightBefore * 2 >= limit) {
+                next = Math.min(maxLimit, limit + 1 / limit);
+            } else {
+                return;
+            }
+            if (next == limit || limitBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    public int limit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,113 @@
+package hello.springmvc.web.ratelimit;
+
+import hello.springmvc.web.support.HandlerAnnotationIndex;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * @RateLimited 핸들러로 가는 요청을 가장 바깥에서 거른다.
+ * - 토큰 버킷(클라이언트별, 경로별)이 비어 있으면 429
+ * - 동시 처리 한도(AdaptiveConcurrencyLimiter)가 차 있으면 503 (서버 쪽 과부하라서 클라이언트 잘못이 아니다)
+ * 거절할 때는 상태와 Retry-After만 쓰고 끝낸다. 바디는 읽지 않고, sendError()의 에러 페이지 디스패치도 하지 않는다.
+ * 바디가 있는 요청이면 Connection: close를 붙여서 톰캣이 남은 바디를 읽어 버리지 않고 연결을 닫게 한다.
+ * 클라이언트는 getRemoteAddr()로 구분한다. (프록시 뒤라면 server.forward-headers-strategy를 설정해야 한다)
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final HandlerAnnotationIndex<RateLimited> index;
+    private final Function<String, RouteLimit> routeLimits;
+    private final int maxClients;
+    private final ConcurrentMap<String, RouteLimiter> limiters = new ConcurrentHashMap<>();
+
+    public RateLimitFilter(HandlerAnnotationIndex<RateLimited> index, Function<String, RouteLimit> routeLimits,
+                           int maxClients) {
+        this.index = index;
+        this.routeLimits = routeLimits;
+        this.maxClients = maxClients;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimited rateLimited = index.find(request);
+        if (rateLimited == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RouteLimiter limiter = limiters.computeIfAbsent(rateLimited.value(),
+                route -> new RouteLimiter(routeLimits.apply(route), maxClients, System.nanoTime()));
+        long start = System.nanoTime();
+        long wait = limiter.tryAcquire(request.getRemoteAddr(), start);
+        if (wait > 0) {
+            reject(request, response, 429, wait);
+            return;
+        }
+        AdaptiveConcurrencyLimiter concurrencyLimiter = limiter.concurrencyLimiter();
+        if (!concurrencyLimiter.tryAcquire()) {
+            reject(request, response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseListener(concurrencyLimiter, start));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                concurrencyLimiter.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * 클라이언트는 거절 사유와 상관없이 같은 방식(Retry-After 후 재시도)으로 처리하면 된다.
+     */
+    private static void reject(HttpServletRequest request, HttpServletResponse response, int status, long waitNanos) {
+        response.setStatus(status);
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        if (request.getContentLengthLong() != 0) {
+            response.setHeader(HttpHeaders.CONNECTION, "close");
+        }
+        response.setContentLength(0);
+    }
+
+    /**
+     * 비동기 요청은 응답이 끝났을 때 지연 시간을 잰다. 타임아웃, 에러 뒤에도 onComplete는 호출된다.
+     */
+    private record ReleaseListener(AdaptiveConcurrencyLimiter limiter, long start) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limiter.release(System.nanoTime() - start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
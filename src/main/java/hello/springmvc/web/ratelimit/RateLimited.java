@@ -0,0 +1,20 @@
+package hello.springmvc.web.ratelimit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 비싼 핸들러를 과부하에서 보호한다. 같은 value(경로 그룹 이름)를 붙인 핸들러들은 제한을 함께 쓴다.
+ * 제한 값은 application.properties의 hello.rate-limit.routes.{value}.* 에서 읽는다. (RouteLimit)
+ * 클래스와 메서드에 모두 붙어 있으면 메서드 쪽 그룹을 쓴다.
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+
+    String value();
+}
@@ -0,0 +1,26 @@
+package hello.springmvc.web.ratelimit;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * hello.rate-limit.routes.{이름}.* 설정. 적지 않은 값은 기본값을 쓴다.
+ * @param rate               경로 전체의 초당 허용 요청 수. 0이면 제한하지 않는다.
+ * @param burst              rate를 넘어 한 번에 몰려도 받아주는 요청 수
+ * @param clientRate         클라이언트(IP)별 초당 허용 요청 수. 0이면 제한하지 않는다.
+ * @param clientBurst        클라이언트별 burst
+ * @param initialConcurrency 동시 처리 한도 시작값
+ * @param minConcurrency     지연 시간이 길어져도 이 밑으로는 줄이지 않는다.
+ * @param maxConcurrency     지연 시간이 짧아도 이 위로는 늘리지 않는다.
+ * @param targetLatency      이보다 오래 걸린 요청이 보이면 동시 처리 한도를 줄인다.
+ */
+public record RouteLimit(@DefaultValue("0") double rate,
+                         @DefaultValue("1") int burst,
+                         @DefaultValue("0") double clientRate,
+                         @DefaultValue("1") int clientBurst,
+                         @DefaultValue("64") int initialConcurrency,
+                         @DefaultValue("4") int minConcurrency,
+                         @DefaultValue("256") int maxConcurrency,
+                         @DefaultValue("100ms") Duration targetLatency) {
+}
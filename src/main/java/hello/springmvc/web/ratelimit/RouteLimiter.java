@@ -0,0 +1,94 @@
+package hello.springmvc.web.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @RateLimited 경로 그룹 하나의 상태. 경로 전체 버킷, 클라이언트별 버킷, 동시 처리 한도를 가진다.
+ * 클라이언트별 버킷은 maxClients개를 넘지 않는다. 꽉 차면 가득 찬(한동안 요청이 없던) 버킷을 지우고,
+ * 그래도 자리가 없으면 가장 오래 요청이 없던 버킷부터 지운다.
+ */
+class RouteLimiter {
+
+    private final RouteLimit limit;
+    private final TokenBucket routeBucket;
+    private final ConcurrentMap<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final int maxClients;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    RouteLimiter(RouteLimit limit, int maxClients, long nowNanos) {
+        this.limit = limit;
+        this.routeBucket = limit.rate() > 0 ? new TokenBucket(limit.rate(), limit.burst(), nowNanos) : null;
+        this.maxClients = maxClients;
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(limit.initialConcurrency(), limit.minConcurrency(),
+                limit.maxConcurrency(), limit.targetLatency().toNanos());
+    }
+
+    /**
+     * 클라이언트 버킷을 먼저 본다. 한 클라이언트가 몰아 보낸 요청이 경로 전체 토큰을 먼저 써버리지 않게 하기 위해서다.
+     * 경로 버킷에서 거절되면 받아둔 클라이언트 토큰은 돌려준다. 경로가 막힌 동안 재시도만 해도 자기 몫이 줄어들면 안 된다.
+     * @return 0이면 허용, 아니면 기다려야 하는 나노초
+     */
+    long tryAcquire(String client, long nowNanos) {
+        TokenBucket clientBucket = limit.clientRate() > 0 ? clientBucket(client, nowNanos) : null;
+        if (clientBucket != null) {
+            long wait = clientBucket.tryAcquire(nowNanos);
+            if (wait > 0) {
+                return wait;
+            }
+        }
+        long wait = routeBucket == null ? 0 : routeBucket.tryAcquire(nowNanos);
+        if (wait > 0 && clientBucket != null) {
+            clientBucket.refund();
+        }
+        return wait;
+    }
+
+    AdaptiveConcurrencyLimiter concurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    int clientCount() {
+        return clientBuckets.size();
+    }
+
+    /**
+     * 새 클라이언트 등록만 락을 잡는다. 이미 있는 클라이언트는 락 없이 꺼낸다.
+     */
+    private TokenBucket clientBucket(String client, long nowNanos) {
+        TokenBucket bucket = clientBuckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        synchronized (clientBuckets) {
+            bucket = clientBuckets.get(client);
+            if (bucket == null) {
+                if (clientBuckets.size() >= maxClients) {
+                    evict(nowNanos);
+                }
+                bucket = new TokenBucket(limit.clientRate(), limit.clientBurst(), nowNanos);
+                clientBuckets.put(client, bucket);
+            }
+            return bucket;
+        }
+    }
+
+    /**
+     * 가득 찬 버킷은 지워도 새로 만든 것과 같으므로 먼저 지운다.
+     * 모두 쓰는 중이면 tat가 가장 이른(가장 오래 요청이 없던) 것부터 지운다.
+     * 이때는 한 번에 maxClients의 10%를 더 비워서 새 클라이언트가 올 때마다 정렬하지 않게 한다.
+     */
+    private void evict(long nowNanos) {
+        clientBuckets.values().removeIf(candidate -> candidate.isFull(nowNanos));
+        if (clientBuckets.size() < maxClients) {
+            return;
+        }
+        int excess = clientBuckets.size() - (maxClients - 1 - maxClients / 10);
+        clientBuckets.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().theoreticalArrivalNanos() - nowNanos))
+                .sorted(Map.Entry.comparingByValue())
+                .limit(excess)
+                .forEach(entry -> clientBuckets.remove(entry.getKey()));
+    }
+}
@@ -0,0 +1,59 @@
+package hello.springmvc.web.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GCRA(generic cell rate algorithm) 방식의 토큰 버킷. 토큰 개수 대신 "다음 요청이 도착해야 할 이론상 시각(tat)" 하나만 둔다.
+ * 요청이 오면 tat를 emissionInterval만큼 미루고, tat가 현재보다 tolerance 넘게 앞서 있으면 거절한다.
+ * 상태가 long 하나라서 락 없이 CAS 한 번으로 검사와 차감을 같이 한다. 리필 타이머도 필요 없다.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.toleranceNanos = emissionIntervalNanos * (Math.max(1, burst) - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return 0이면 허용. 거절이면 토큰이 생길 때까지 남은 나노초
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long start = tat - nowNanos > 0 ? tat : nowNanos;
+            long ahead = start - nowNanos;
+            if (ahead > toleranceNanos) {
+                return ahead - toleranceNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, start + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 방금 tryAcquire로 받은 토큰 하나를 돌려준다. 다른 한도에서 거절돼 요청이 실제로 처리되지 않았을 때 쓴다.
+     */
+    public void refund() {
+        theoreticalArrival.addAndGet(-emissionIntervalNanos);
+    }
+
+    /**
+     * 다음 요청이 도착해야 할 이론상 시각. 작을수록 오래 요청이 없던 버킷이다.
+     */
+    public long theoreticalArrivalNanos() {
+        return theoreticalArrival.get();
+    }
+
+    /**
+     * 버킷이 가득 찬 상태면 true. 지워도 새로 만든 버킷과 같으므로 정리 대상이다.
+     */
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() - nowNanos <= 0;
+    }
+}
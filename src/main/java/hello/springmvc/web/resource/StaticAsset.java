@@ -0,0 +1,69 @@
+package hello.springmvc.web.resource;
+
+import java.nio.file.Path;
+
+/**
+ * static/ 아래 파일 하나. 원본과 미리 압축해 둔 변형(gzip, br)을 같이 들고 있다.
+ * 변형마다 바디가 다르므로 강한 ETag도 따로 붙인다.
+ */
+public record StaticAsset(String contentType, Variant identity, Variant gzip, Variant brotli) {
+
+    public boolean hasCompressedVariant() {
+        return gzip != null || brotli != null;
+    }
+
+    /**
+     * Accept-Encoding에서 q=0이 아닌 인코딩 중 br, gzip 순으로 고르고, 없으면 원본.
+     */
+    public Variant select(String acceptEncoding) {
+        if (acceptEncoding == null || !hasCompressedVariant()) {
+            return identity;
+        }
+        if (brotli != null && accepts(acceptEncoding, "br")) {
+            return brotli;
+        }
+        if (gzip != null && accepts(acceptEncoding, "gzip")) {
+            return gzip;
+        }
+        return identity;
+    }
+
+    private static boolean accepts(String acceptEncoding, String encoding) {
+        boolean wildcard = false;
+        for (String token : acceptEncoding.split(",")) {
+            int semicolon = token.indexOf(';');
+            String name = (semicolon < 0 ? token : token.substring(0, semicolon)).trim();
+            boolean allowed = semicolon < 0 || !isZeroQuality(token.substring(semicolon + 1));
+            if (name.equalsIgnoreCase(encoding)) {
+                return allowed;
+            }
+            if (name.equals("*")) {
+                wildcard = allowed;
+            }
+        }
+        return wildcard;
+    }
+
+    private static boolean isZeroQuality(String parameter) {
+        String value = parameter.trim();
+        if (!value.startsWith("q=")) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(value.substring(2)) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param encoding Content-Encoding 값. 원본이면 null
+     * @param file     sendfile에 넘길 파일. 실제 파일 시스템 경로여야 한다.
+     */
+    public record Variant(String encoding, byte[] body, String etag, Path file) {
+
+        public long length() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package hello.springmvc.web.resource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 기동 시점에 classpath:static/ 아래 파일을 전부 읽어서 StaticAsset으로 만들어 둔다.
+ * - 텍스트 계열은 gzip으로 미리 압축한다. 압축해도 작아지지 않으면 원본만 둔다.
+ * - JDK에는 brotli 인코더가 없으므로 br은 빌드 때 만들어 둔 "파일명.br"이 있을 때만 쓴다. ("파일명.gz"도 있으면 그걸 쓴다)
+ * - jar 안의 리소스는 sendfile로 보낼 수 없으므로 변형마다 임시 디렉토리에 파일로 풀어둔다.
+ */
+@Slf4j
+public class StaticAssetRegistry implements Closeable {
+
+    private static final String LOCATION = "classpath:static/";
+
+    private final Map<String, StaticAsset> assets;
+    private final Path spoolDirectory;
+
+    private StaticAssetRegistry(Map<String, StaticAsset> assets, Path spoolDirectory) {
+        this.assets = assets;
+        this.spoolDirectory = spoolDirectory;
+    }
+
+    /**
+     * classpath:static/ 하나만 루트로 잡고, 경로는 그 루트 URL을 뺀 나머지로 만든다.
+     * classpath*:로 찾으면 의존성 jar에 들어 있는 static/ 까지 서빙하게 되고,
+     * URL에서 "/static/"을 찾아 자르면 static/a/static/b.css 같은 파일이 /b.css가 된다.
+     */
+    public static StaticAssetRegistry load() throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        Map<String, byte[]> files = new HashMap<>();
+        Resource root = resolver.getResource(LOCATION);
+        if (root.exists()) {
+            String rootUrl = root.getURL().toString();
+            if (!rootUrl.endsWith("/")) {
+                rootUrl += "/";
+            }
+            for (Resource resource : resolver.getResources(rootUrl + "**")) {
+                if (!resource.isReadable()) {
+                    continue; // 디렉토리
+                }
+                String url = resource.getURL().toString();
+                try (InputStream in = resource.getInputStream()) {
+                    files.put("/" + url.substring(rootUrl.length()), in.readAllBytes());
+                }
+            }
+        }
+
+        Path spoolDirectory = Files.createTempDirectory("hello-static");
+        Map<String, StaticAsset> assets = new HashMap<>();
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            String path = file.getKey();
+            if (path.endsWith(".gz") || path.endsWith(".br")) {
+                continue;
+            }
+            assets.put(path, createAsset(path, file.getValue(), files.get(path + ".gz"), files.get(path + ".br"), spoolDirectory));
+        }
+        StaticAsset welcome = assets.get("/index.html");
+        if (welcome != null) {
+            assets.put("/", welcome);
+        }
+        log.info("static assets loaded. count= {}, spool= {}", files.size(), spoolDirectory);
+        return new StaticAssetRegistry(Map.copyOf(assets), spoolDirectory);
+    }
+
+    public StaticAsset find(String path) {
+        return assets.get(path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        FileSystemUtils.deleteRecursively(spoolDirectory);
+    }
+
+    private static StaticAsset createAsset(String path, byte[] body, byte[] gzip, byte[] brotli, Path spoolDirectory)
+            throws IOException {
+        MediaType mediaType = MediaTypeFactory.getMediaType(path).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        boolean compressible = isCompressible(mediaType);
+        if (compressible && mediaType.getCharset() == null && mediaType.getType().equals("text")) {
+            mediaType = new MediaType(mediaType, StandardCharsets.UTF_8);
+        }
+
+        String hash = DigestUtils.md5DigestAsHex(body);
+        if (gzip == null && compressible) {
+            gzip = gzip(body);
+        }
+        return new StaticAsset(mediaType.toString(),
+                variant(null, body, hash, spoolDirectory),
+                gzip != null && gzip.length < body.length ? variant("gzip", gzip, hash, spoolDirectory) : null,
+                brotli != null && brotli.length < body.length ? variant("br", brotli, hash, spoolDirectory) : null);
+    }
+
+    private static StaticAsset.Variant variant(String encoding, byte[] body, String hash, Path spoolDirectory)
+            throws IOException {
+        String name = encoding == null ? hash : hash + "-" + encoding;
+        Path file = Files.write(spoolDirectory.resolve(name), body).toRealPath();
+        return new StaticAsset.Variant(encoding, body, "\"" + name + "\"", file);
+    }
+
+    private static boolean isCompressible(MediaType mediaType) {
+        String subtype = mediaType.getSubtype();
+        return mediaType.getType().equals("text")
+                || subtype.equals("javascript") || subtype.equals("json")
+                || subtype.endsWith("+xml") || subtype.equals("xml");
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 32);
+        // 기동할 때 한 번만 하므로 가장 높은 압축률을 쓴다.
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
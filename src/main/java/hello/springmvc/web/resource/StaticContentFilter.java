@@ -0,0 +1,140 @@
+package hello.springmvc.web.resource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * StaticAssetRegistry에 있는 경로면 스프링의 ResourceHttpRequestHandler까지 가지 않고 여기서 바로 응답한다.
+ * - Accept-Encoding에 맞는 변형을 고르고 Vary: Accept-Encoding을 붙인다.
+ * - If-None-Match가 ETag와 같으면 304.
+ * - Range는 단일 범위(bytes=a-b, bytes=a-, bytes=-n)만 처리하고 여러 범위는 무시하고 전체를 보낸다.
+ * - 톰캣이 sendfile을 지원하고 보낼 크기가 sendfileMinSize 이상이면 바디를 쓰지 않고 파일 경로만 넘긴다.
+ *   그러면 톰캣이 커널에서 소켓으로 바로 복사한다. 작은 파일은 메모리에 있는 바이트를 그대로 쓰는 편이 낫다.
+ */
+public class StaticContentFilter extends OncePerRequestFilter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final StaticAssetRegistry registry;
+    private final long sendfileMinSize;
+
+    public StaticContentFilter(StaticAssetRegistry registry, long sendfileMinSize) {
+        this.registry = registry;
+        this.sendfileMinSize = sendfileMinSize;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StaticAsset asset = registry.find(request.getRequestURI().substring(request.getContextPath().length()));
+        if (asset == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        StaticAsset.Variant variant = asset.select(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        response.setHeader(HttpHeaders.ETAG, variant.etag());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (asset.hasCompressedVariant()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.equals("*") || ifNoneMatch.contains(variant.etag()))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(asset.contentType());
+        if (variant.encoding() != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, variant.encoding());
+        }
+
+        long length = variant.length();
+        long start = 0;
+        long end = length - 1;
+        long[] range = parseRange(request, variant);
+        if (range != null && range.length == 0) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        if (range != null) {
+            start = range[0];
+            end = range[1];
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+        if (count >= sendfileMinSize && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, variant.file().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        response.getOutputStream().write(variant.body(), (int) start, (int) count);
+    }
+
+    /**
+     * @return Range가 없거나 무시해야 하면 null, 만족할 수 없는 범위면 빈 배열, 아니면 {start, end(포함)}
+     */
+    private static long[] parseRange(HttpServletRequest request, StaticAsset.Variant variant) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        // If-Range의 ETag가 다르면 그 사이 파일이 바뀐 것이므로 전체를 보낸다.
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(variant.etag())) {
+            return null;
+        }
+
+        long length = variant.length();
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix == 0) {
+                    return new long[0];
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? length - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), length - 1);
+                if (end < start) {
+                    return null;
+                }
+            }
+            return start >= length ? new long[0] : new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
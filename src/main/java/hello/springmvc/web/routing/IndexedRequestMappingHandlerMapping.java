@@ -0,0 +1,142 @@
+package hello.springmvc.web.routing;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 기본 RequestMappingHandlerMapping은 경로 변수가 있는 매핑을 찾을 때 등록된 매핑을 전부 검사하고 정렬한다.
+ * 이 구현은 기동 시점에 모든 매핑을 RouteTrie에 넣어두고, 요청 경로로 후보만 뽑은 뒤
+ * HTTP 메서드 비트마스크로 먼저 거르고 남은 후보에만 params, headers, consumes, produces 조건을 검사한다.
+ * 후보가 없거나 우열을 가릴 수 없으면 기본 구현에 맡긴다. (405, 415 같은 오류 응답도 기본 구현이 만든다)
+ * 트라이는 lookupPath(인코딩된 문자열)가 아니라 파싱해 둔 RequestPath로 찾는다. PathPattern처럼 디코딩한 세그먼트로 비교해야
+ * /mapping/user%73 같은 요청이 기본 구현과 같은 핸들러로 간다.
+ */
+public class IndexedRequestMappingHandlerMapping extends RequestMappingHandlerMapping {
+
+    private static final int ALL_METHODS = -1;
+
+    private volatile RouteTrie<Route> index;
+
+    @Override
+    protected void handlerMethodsInitialized(Map<RequestMappingInfo, HandlerMethod> handlerMethods) {
+        super.handlerMethodsInitialized(handlerMethods);
+        rebuildIndex();
+    }
+
+    @Override
+    public void registerMapping(RequestMappingInfo mapping, Object handler, Method method) {
+        super.registerMapping(mapping, handler, method);
+        rebuildIndex();
+    }
+
+    @Override
+    public void unregisterMapping(RequestMappingInfo mapping) {
+        super.unregisterMapping(mapping);
+        rebuildIndex();
+    }
+
+    @Override
+    protected HandlerMethod lookupHandlerMethod(String lookupPath, HttpServletRequest request) throws Exception {
+        RouteTrie<Route> index = this.index;
+        int methodBit = methodBit(request.getMethod());
+        if (index == null || methodBit == 0 || CorsUtils.isPreFlightRequest(request)
+                || !ServletRequestPathUtils.hasParsedRequestPath(request)) {
+            return super.lookupHandlerMethod(lookupPath, request);
+        }
+
+        PathContainer path = ServletRequestPathUtils.getParsedRequestPath(request).pathWithinApplication();
+        Comparator<RequestMappingInfo> comparator = null;
+        RequestMappingInfo bestInfo = null;
+        HandlerMethod bestHandler = null;
+        boolean ambiguous = false;
+        for (Route route : index.match(path)) {
+            if ((route.methods() & methodBit) == 0) {
+                continue;
+            }
+            RequestMappingInfo info = getMatchingMapping(route.info(), request);
+            if (info == null) {
+                continue;
+            }
+            if (bestInfo == null) {
+                bestInfo = info;
+                bestHandler = route.handlerMethod();
+                continue;
+            }
+            if (comparator == null) {
+                comparator = getMappingComparator(request);
+            }
+            int result = comparator.compare(info, bestInfo);
+            if (result < 0) {
+                bestInfo = info;
+                bestHandler = route.handlerMethod();
+                ambiguous = false;
+            } else if (result == 0) {
+                ambiguous = true;
+            }
+        }
+
+        if (bestInfo == null || ambiguous) {
+            return super.lookupHandlerMethod(lookupPath, request);
+        }
+        request.setAttribute(BEST_MATCHING_HANDLER_ATTRIBUTE, bestHandler);
+        handleMatch(bestInfo, lookupPath, request);
+        return bestHandler;
+    }
+
+    private void rebuildIndex() {
+        RouteTrie<Route> trie = new RouteTrie<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : getHandlerMethods().entrySet()) {
+            RequestMappingInfo info = entry.getKey();
+            if (info.getPathPatternsCondition() == null) {
+                // PathPatternParser 대신 AntPathMatcher를 쓰도록 설정된 경우. 색인 없이 기본 구현을 쓴다.
+                this.index = null;
+                return;
+            }
+            Route route = new Route(info, entry.getValue(), methodMask(info.getMethodsCondition().getMethods()));
+            for (PathPattern pattern : info.getPathPatternsCondition().getPatterns()) {
+                trie.add(pattern.getPatternString(), route);
+            }
+        }
+        this.index = trie;
+    }
+
+    /**
+     * GET 매핑은 HEAD 요청도 받는다. OPTIONS는 기본 구현이 따로 처리하므로 비트를 주지 않는다.
+     */
+    private static int methodMask(Set<RequestMethod> methods) {
+        if (methods.isEmpty()) {
+            return ALL_METHODS;
+        }
+        int mask = 0;
+        for (RequestMethod method : methods) {
+            mask |= 1 << method.ordinal();
+            if (method == RequestMethod.GET) {
+                mask |= 1 << RequestMethod.HEAD.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    private static int methodBit(String method) {
+        RequestMethod requestMethod = RequestMethod.resolve(method);
+        if (requestMethod == null || requestMethod == RequestMethod.OPTIONS) {
+            return 0;
+        }
+        return 1 << requestMethod.ordinal();
+    }
+
+    private record Route(RequestMappingInfo info, HandlerMethod handlerMethod, int methods) {
+    }
+}
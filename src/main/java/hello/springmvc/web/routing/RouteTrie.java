@@ -0,0 +1,136 @@
+package hello.springmvc.web.routing;
+
+import org.springframework.http.server.PathContainer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 경로 패턴을 '/' 단위 세그먼트로 쪼개서 저장하는 트라이.
+ * /mapping/{userId}, /mapping/users/{userId}/orders/{orderId} 처럼
+ * 리터럴 세그먼트와 {변수} 세그먼트로만 된 패턴을 넣을 수 있고,
+ * 조회 비용은 등록된 패턴 수가 아니라 요청 경로의 세그먼트 수에 비례한다.
+ * {id:\d+} 같은 정규식, *, ** 가 들어간 패턴은 트라이에 넣지 않고 항상 후보로 돌려준다.
+ * 요청 경로는 PathPattern과 똑같이 퍼센트 디코딩하고 매트릭스 변수(;a=b)를 뗀 세그먼트 값으로 비교한다.
+ * 그래서 /mapping/user%73 도 /mapping/users 리터럴로 찾아간다.
+ */
+public class RouteTrie<T> {
+
+    private final Node<T> root = new Node<>();
+    private final List<T> fallback = new ArrayList<>();
+    private int size;
+
+    public void add(String pattern, T value) {
+        size++;
+        Node<T> node = root;
+        for (String segment : segments(pattern)) {
+            if (isVariable(segment)) {
+                if (node.variable == null) {
+                    node.variable = new Node<>();
+                }
+                node = node.variable;
+            } else if (isLiteral(segment)) {
+                node = node.literals.computeIfAbsent(segment, key -> new Node<>());
+            } else {
+                fallback.add(value);
+                return;
+            }
+        }
+        node.values.add(value);
+    }
+
+    /**
+     * @param path 인코딩된 요청 경로 (ex. "/mapping/user%73")
+     */
+    public List<T> match(String path) {
+        return match(PathContainer.parsePath(path));
+    }
+
+    /**
+     * @return 경로와 모양이 맞는 후보들. 나머지 조건(HTTP 메서드, params, headers ...)은 호출하는 쪽에서 확인한다.
+     */
+    public List<T> match(PathContainer path) {
+        List<T> result = new ArrayList<>(fallback);
+        collect(root, segments(path), 0, result);
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void collect(Node<T> node, List<String> segments, int index, List<T> result) {
+        if (index == segments.size()) {
+            result.addAll(node.values);
+            return;
+        }
+
+        String segment = segments.get(index);
+        if (!node.literals.isEmpty()) {
+            Node<T> literal = node.literals.get(segment);
+            if (literal != null) {
+                collect(literal, segments, index + 1, result);
+            }
+        }
+        // 경로 변수는 빈 세그먼트와는 매칭되지 않는다.
+        if (node.variable != null && !segment.isEmpty()) {
+            collect(node.variable, segments, index + 1, result);
+        }
+    }
+
+    /**
+     * 패턴의 segments()와 같은 모양으로 자른다. "/" -> [], "/a/b" -> [a, b], "/a/" -> [a, ""], "/a//b" -> [a, "", b]
+     * 세그먼트 값은 PathSegment.valueToMatch() (디코딩하고 매트릭스 변수를 뗀 값)다.
+     */
+    private static List<String> segments(PathContainer path) {
+        List<PathContainer.Element> elements = path.elements();
+        List<String> segments = new ArrayList<>(elements.size() / 2 + 1);
+        boolean afterSeparator = false;
+        for (PathContainer.Element element : elements) {
+            if (element instanceof PathContainer.PathSegment segment) {
+                segments.add(segment.valueToMatch());
+                afterSeparator = false;
+            } else {
+                if (afterSeparator) {
+                    segments.add("");
+                }
+                afterSeparator = true;
+            }
+        }
+        if (afterSeparator && elements.size() > 1) {
+            segments.add("");
+        }
+        return segments;
+    }
+
+    /**
+     * "/" -> [], "/a/b" -> [a, b], "a/b" -> [a, b], "/a/" -> [a, ""]
+     */
+    private static String[] segments(String pattern) {
+        String path = pattern.startsWith("/") ? pattern.substring(1) : pattern;
+        return path.isEmpty() ? new String[0] : path.split("/", -1);
+    }
+
+    private static boolean isVariable(String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}'
+                && segment.charAt(1) != '*' && segment.indexOf(':') == -1 && segment.indexOf('{', 1) == -1;
+    }
+
+    private static boolean isLiteral(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '{' || c == '}' || c == '*' || c == '?') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Node<T> {
+        private final Map<String, Node<T>> literals = new HashMap<>();
+        private final List<T> values = new ArrayList<>(1);
+        private Node<T> variable;
+    }
+}
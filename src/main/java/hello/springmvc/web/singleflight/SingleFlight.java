@@ -0,0 +1,30 @@
+package hello.springmvc.web.singleflight;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 같은 요청(메서드, 경로, 쿼리, headers에 지정한 헤더 값이 모두 같은)이 동시에 여러 개 오면
+ * 핸들러는 처음 온 요청에서만 실행하고, 나머지는 그 응답을 복사해서 받는다.
+ * 응답이 요청 내용에만 달려 있는 조회용 GET 핸들러에 붙인다. (세션, 쿠키에 따라 응답이 달라지면 안 된다)
+ * Cookie, Authorization 헤더가 있는 요청은 headers()에 그 헤더를 넣지 않으면 모으지 않고,
+ * Set-Cookie를 쓰는 응답은 나눠주지 않는다.
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SingleFlight {
+
+    /**
+     * 키에 포함할 요청 헤더. 응답 형식이 Accept에 따라 달라지므로 기본으로 넣는다.
+     */
+    String[] headers() default {"Accept"};
+
+    /**
+     * 먼저 실행 중인 요청을 기다리는 최대 시간(ms). 넘으면 기다리던 요청이 직접 핸들러를 실행한다.
+     */
+    long maxWaitMillis() default 1000;
+}
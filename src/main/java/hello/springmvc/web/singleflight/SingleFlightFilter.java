@@ -0,0 +1,208 @@
+package hello.springmvc.web.singleflight;
+
+import hello.springmvc.web.support.CapturedResponse;
+import hello.springmvc.web.support.HandlerAnnotationIndex;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * '@SingleFlight' 핸들러로 가는 GET 요청을 키별로 모은다.
+ * 리더는 응답을 ContentCachingResponseWrapper로 받아 상태 코드, 헤더, 바디를 CapturedResponse로 만들어 나눠주고,
+ * 기다리던 요청들은 핸들러를 거치지 않고 그대로 복사해서 응답한다.
+ * - maxWaitMillis 안에 리더가 끝나지 않으면 기다리던 요청이 직접 실행한다.
+ * - 리더에서 예외가 나면 기다리던 요청들도 직접 실행한다.
+ * - 리더가 비동기로 넘어가면 ShallowEtagHeaderFilter처럼 비동기 디스패치가 끝난 뒤에 응답을 나눠주고 내보낸다.
+ *   비동기 디스패치 없이 끝나면(연결 끊김 등) 실패로 처리한다.
+ * - 기다리는 스레드가 인터럽트되면(요청 취소) 공유 결과는 건드리지 않고 그 요청만 빠진다.
+ * 다른 클라이언트에게 한 사람의 응답이 가지 않도록
+ * - Cookie, Authorization 헤더가 있는 요청은 그 헤더를 headers()에 적어 키에 넣은 경우에만 모은다.
+ * - 리더 응답에 Set-Cookie가 있으면 나눠주지 않는다. 기다리던 요청들은 리더가 실패했을 때처럼 직접 실행한다.
+ */
+@Slf4j
+public class SingleFlightFilter extends OncePerRequestFilter {
+
+    private static final String LEADER_ATTRIBUTE = SingleFlightFilter.class.getName() + ".LEADER";
+    private static final String[] CREDENTIAL_HEADERS = {HttpHeaders.COOKIE, HttpHeaders.AUTHORIZATION};
+
+    private final HandlerAnnotationIndex<SingleFlight> index;
+    private final SingleFlightGroup<String, CapturedResponse> group = new SingleFlightGroup<>();
+
+    public SingleFlightFilter(HandlerAnnotationIndex<SingleFlight> index) {
+        this.index = index;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            Leader leader = (Leader) request.getAttribute(LEADER_ATTRIBUTE);
+            if (leader == null) {
+                filterChain.doFilter(request, response);
+            } else {
+                execute(leader, request, response, filterChain);
+            }
+            return;
+        }
+
+        SingleFlight singleFlight = index.find(request);
+        if (singleFlight == null || !isShareable(request, singleFlight)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = key(request, singleFlight);
+        SingleFlightGroup.Flight<CapturedResponse> flight = group.join(key);
+        if (flight.isLeader()) {
+            Leader leader = new Leader(key, flight);
+            request.setAttribute(LEADER_ATTRIBUTE, leader);
+            execute(leader, request, new ContentCachingResponseWrapper(response), filterChain);
+            return;
+        }
+
+        CapturedResponse captured = await(flight, singleFlight, key);
+        if (captured == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        captured.writeTo(response);
+    }
+
+    /**
+     * 첫 디스패치와 비동기 디스패치가 같이 쓴다. 비동기로 넘어가면 결과 없이 돌아가고 비동기 디스패치에서 마저 처리한다.
+     */
+    private void execute(Leader leader, HttpServletRequest request, HttpServletResponse response,
+                         FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            group.fail(leader.key(), leader.flight(), e);
+            throw e;
+        }
+
+        if (request.isAsyncStarted()) {
+            if (!isAsyncDispatch(request)) {
+                request.getAsyncContext().addListener(new FailOnComplete(leader));
+            }
+            return;
+        }
+        ContentCachingResponseWrapper wrapper =
+                WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper.containsHeader(HttpHeaders.SET_COOKIE)) {
+            group.fail(leader.key(), leader.flight(), new IllegalStateException("response sets a cookie"));
+        } else {
+            group.complete(leader.key(), leader.flight(), CapturedResponse.of(wrapper));
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    /**
+     * @return 공유받을 응답. 직접 실행해야 하면 null
+     */
+    private CapturedResponse await(SingleFlightGroup.Flight<CapturedResponse> flight, SingleFlight singleFlight,
+                                   String key) throws IOException {
+        try {
+            return flight.result().get(singleFlight.maxWaitMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.debug("single-flight wait timed out. key= {}", key);
+            return null;
+        } catch (ExecutionException e) {
+            log.debug("single-flight leader failed. key= {}, cause= {}", key, e.getCause().toString());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("single-flight wait cancelled");
+        }
+    }
+
+    /**
+     * 사용자를 구분하는 헤더(Cookie, Authorization)가 있는데 키에 들어가지 않으면 다른 사용자의 요청과 섞이므로 모으지 않는다.
+     */
+    private static boolean isShareable(HttpServletRequest request, SingleFlight singleFlight) {
+        for (String credential : CREDENTIAL_HEADERS) {
+            if (request.getHeader(credential) != null && !containsIgnoreCase(singleFlight.headers(), credential)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsIgnoreCase(String[] names, String name) {
+        for (String candidate : names) {
+            if (candidate.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String key(HttpServletRequest request, SingleFlight singleFlight) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        if (request.getQueryString() != null) {
+            key.append('?').append(request.getQueryString());
+        }
+        for (String header : singleFlight.headers()) {
+            key.append('\n').append(header).append(':').append(request.getHeader(header));
+        }
+        return key.toString();
+    }
+
+    private record Leader(String key, SingleFlightGroup.Flight<CapturedResponse> flight) {
+    }
+
+    /**
+     * 리더 요청이 끝날 때 실패로 처리한다. 이미 complete()했으면 fail()은 아무 일도 하지 않는다.
+     */
+    private class FailOnComplete implements AsyncListener {
+
+        private final Leader leader;
+
+        FailOnComplete(Leader leader) {
+            this.leader = leader;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            group.fail(leader.key(), leader.flight(),
+                    new IllegalStateException("async request completed without a shared response"));
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 비동기 디스패치에서 다시 startAsync()하면 리스너가 지워지므로 새 AsyncContext에 다시 등록한다.
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
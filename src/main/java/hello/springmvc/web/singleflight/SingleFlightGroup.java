@@ -0,0 +1,58 @@
+package hello.springmvc.web.singleflight;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 키마다 진행 중인 실행 하나를 들고 있다.
+ * join()이 새 Flight를 만들었으면 호출한 쪽이 리더이고, 리더는 끝나면 complete() 또는 fail()을 호출해야 한다.
+ * 끝난 실행은 바로 맵에서 빠지므로 결과를 캐시하지는 않는다. (끝난 뒤에 온 요청은 새로 실행한다)
+ */
+public class SingleFlightGroup<K, V> {
+
+    private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    public Flight<V> join(K key) {
+        Flight<V> created = new Flight<>(true);
+        Flight<V> existing = flights.putIfAbsent(key, created);
+        return existing != null ? new Flight<>(false, existing.result) : created;
+    }
+
+    public void complete(K key, Flight<V> flight, V value) {
+        flights.remove(key, flight);
+        flight.result.complete(value);
+    }
+
+    public void fail(K key, Flight<V> flight, Throwable cause) {
+        flights.remove(key, flight);
+        flight.result.completeExceptionally(cause);
+    }
+
+    public int inFlight() {
+        return flights.size();
+    }
+
+    public static final class Flight<V> {
+
+        private final boolean leader;
+        private final CompletableFuture<V> result;
+
+        private Flight(boolean leader) {
+            this(leader, new CompletableFuture<>());
+        }
+
+        private Flight(boolean leader, CompletableFuture<V> result) {
+            this.leader = leader;
+            this.result = result;
+        }
+
+        public boolean isLeader() {
+            return leader;
+        }
+
+        public CompletableFuture<V> result() {
+            return result;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package hello.springmvc.web.support;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 한 번 만든 응답의 사본. 다른 요청에 그대로 다시 써줄 때 쓴다. (SingleFlightFilter, IdempotencyFilter)
+ * 바디 길이는 writeTo에서 다시 쓰므로 Content-Length 헤더는 저장하지 않는다.
+ */
+public record CapturedResponse(int status, String contentType, List<String[]> headers, byte[] body) {
+
+    public static CapturedResponse of(ContentCachingResponseWrapper wrapper) {
+        List<String[]> headers = new ArrayList<>();
+        for (String name : wrapper.getHeaderNames()) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) || HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                continue;
+            }
+            for (String value : wrapper.getHeaders(name)) {
+                headers.add(new String[]{name, value});
+            }
+        }
+        return new CapturedResponse(wrapper.getStatus(), wrapper.getContentType(), List.copyOf(headers),
+                wrapper.getContentAsByteArray());
+    }
+
+    /**
+     * 메모리에서 차지하는 대략의 바이트 수. 헤더 문자열은 글자당 1바이트(Latin-1)로 센다.
+     */
+    public long estimatedSize() {
+        long size = 64 + body.length;
+        for (String[] header : headers) {
+            size += 56 + header[0].length() + header[1].length();
+        }
+        return size;
+    }
+
+    public void writeTo(HttpServletResponse response) throws IOException {
+        response.setStatus(status);
+        if (contentType != null) {
+            response.setContentType(contentType);
+        }
+        for (String[] header : headers) {
+            response.addHeader(header[0], header[1]);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,110 @@
+package hello.springmvc.web.support;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.RequestPath;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 특정 애너테이션이 붙은 핸들러 메서드(또는 컨트롤러)의 HTTP 메서드와 경로 패턴을 모아둔 색인.
+ * 필터는 DispatcherServlet보다 앞에서 돌기 때문에 어떤 핸들러가 호출될지 모른다.
+ * 그래서 필터에서 "이 요청이 애너테이션 붙은 핸들러로 가는가?"를 이 색인으로 판단한다.
+ * params, headers, consumes 같은 추가 조건은 보지 않고 메서드와 경로만 비교한다.
+ * 스프링 MVC처럼 HEAD 요청은 GET 핸들러와도 맞는 것으로 본다.
+ * 필터는 MVC 빈들보다 먼저 만들어지므로, 색인은 첫 요청 때 만든다.
+ */
+public class HandlerAnnotationIndex<A extends Annotation> {
+
+    private final Class<A> annotationType;
+    private final ApplicationContext applicationContext;
+    private volatile List<Entry<A>> entries;
+
+    public HandlerAnnotationIndex(Class<A> annotationType, ApplicationContext applicationContext) {
+        this.annotationType = annotationType;
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * @return 요청이 향하는 핸들러에 붙은 애너테이션. 없으면 null
+     */
+    public A find(HttpServletRequest request) {
+        List<Entry<A>> entries = entries();
+        if (entries.isEmpty()) {
+            return null;
+        }
+
+        RequestMethod method = RequestMethod.resolve(request.getMethod());
+        PathContainer path = RequestPath.parse(request.getRequestURI(), request.getContextPath()).pathWithinApplication();
+        for (Entry<A> entry : entries) {
+            if (entry.matches(method, path)) {
+                return entry.annotation();
+            }
+        }
+        return null;
+    }
+
+    private List<Entry<A>> entries() {
+        List<Entry<A>> result = entries;
+        if (result == null) {
+            synchronized (this) {
+                result = entries;
+                if (result == null) {
+                    result = build();
+                    entries = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<Entry<A>> build() {
+        RequestMappingHandlerMapping handlerMapping =
+                applicationContext.getBean("requestMappingHandlerMapping", RequestMappingHandlerMapping.class);
+
+        List<Entry<A>> result = new ArrayList<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> mapping : handlerMapping.getHandlerMethods().entrySet()) {
+            HandlerMethod handlerMethod = mapping.getValue();
+            A annotation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), annotationType);
+            if (annotation == null) {
+                annotation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), annotationType);
+            }
+            RequestMappingInfo info = mapping.getKey();
+            if (annotation != null && info.getPathPatternsCondition() != null) {
+                result.add(new Entry<>(info.getMethodsCondition().getMethods(),
+                        info.getPathPatternsCondition().getPatterns(), annotation));
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    /**
+     * @param methods 비어 있으면 모든 HTTP 메서드
+     */
+    private record Entry<A>(Set<RequestMethod> methods, Set<PathPattern> patterns, A annotation) {
+
+        boolean matches(RequestMethod method, PathContainer path) {
+            if (!methods.isEmpty() && !methods.contains(method)
+                    && !(method == RequestMethod.HEAD && methods.contains(RequestMethod.GET))) {
+                return false;
+            }
+            for (PathPattern pattern : patterns) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package hello.springmvc.web.view;
+
+import hello.springmvc.web.cache.ResponseCacheStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.thymeleaf.spring6.view.AbstractThymeleafView;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 다른 ViewResolver(타임리프)가 찾은 뷰를 감싸서, 렌더링 결과를 모델 내용 기준으로 캐시한다.
+ * 모델이 작고(maxModelSize 이하) 값이 모두 String, 숫자 같은 불변 타입일 때만 캐시하고,
+ * 그 외에는 원래 뷰가 그대로 응답에 스트리밍한다.
+ * 렌더링 결과가 요청(경로, 세션 등)에 따라 달라지는 템플릿에는 쓰면 안 된다.
+ */
+public class RenderedViewCacheResolver implements ViewResolver, Ordered {
+
+    private final ViewResolver delegate;
+    private final ResponseCacheStore store;
+    private final int maxModelSize;
+    private final long ttlSeconds;
+
+    public RenderedViewCacheResolver(ViewResolver delegate, ResponseCacheStore store, int maxModelSize, long ttlSeconds) {
+        this.delegate = delegate;
+        this.store = store;
+        this.maxModelSize = maxModelSize;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    @Override
+    public View resolveViewName(String viewName, Locale locale) throws Exception {
+        View view = delegate.resolveViewName(viewName, locale);
+        // redirect:, forward: 는 템플릿 렌더링이 아니므로 감싸지 않는다.
+        if (!(view instanceof AbstractThymeleafView)) {
+            return view;
+        }
+        return new CachingView(viewName + '|' + locale, view);
+    }
+
+    /**
+     * ContentNegotiatingViewResolver가 후보 중 앞에 있는 뷰를 고르도록 감싼 대상보다 먼저 둔다.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 10;
+    }
+
+    private String cacheKey(String viewKey, Map<String, ?> model) {
+        if (model == null) {
+            return viewKey;
+        }
+
+        Map<String, Object> attributes = new TreeMap<>();
+        for (Map.Entry<String, ?> entry : model.entrySet()) {
+            // BindingResult 같은 스프링 내부 속성은 렌더링 결과에 영향이 없다.
+            if (entry.getKey().startsWith("org.springframework.")) {
+                continue;
+            }
+            if (!isImmutable(entry.getValue()) || attributes.size() == maxModelSize) {
+                return null;
+            }
+            attributes.put(entry.getKey(), entry.getValue());
+        }
+        return viewKey + '|' + attributes;
+    }
+
+    private boolean isImmutable(Object value) {
+        return value == null || value instanceof String || value instanceof Number
+                || value instanceof Boolean || value instanceof Character || value instanceof Enum<?>;
+    }
+
+    private class CachingView implements View {
+
+        private final String viewKey;
+        private final View view;
+
+        CachingView(String viewKey, View view) {
+            this.viewKey = viewKey;
+            this.view = view;
+        }
+
+        @Override
+        public String getContentType() {
+            return view.getContentType();
+        }
+
+        @Override
+        public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response)
+                throws Exception {
+            String key = cacheKey(viewKey, model);
+            if (key == null) {
+                view.render(model, request, response);
+                return;
+            }
+
+            ResponseCacheStore.Entry entry = store.get(key);
+            if (entry != null) {
+                response.setContentType(entry.contentType());
+                response.setContentLength(entry.body().length);
+                response.getOutputStream().write(entry.body());
+                return;
+            }
+
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            view.render(model, request, wrapper);
+            if (wrapper.getStatus() == HttpServletResponse.SC_OK) {
+                store.put(key, wrapper.getContentAsByteArray(), wrapper.getContentType(), ttlSeconds);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+}
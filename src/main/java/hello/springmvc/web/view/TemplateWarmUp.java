@@ -0,0 +1,77 @@
+package hello.springmvc.web.view;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * 기동 시점에 spring.thymeleaf.prefix 아래 suffix로 끝나는 모든 템플릿을 한 번씩 처리해서 파싱 결과를 타임리프 템플릿 캐시에 올려둔다.
+ * 그러면 첫 요청이 템플릿 파싱 비용을 떠안지 않는다. spring.thymeleaf.cache=false 이면 캐시에 남지 않으므로 건너뛴다.
+ * 싱글톤 빈이 다 만들어진 직후, 톰캣이 요청을 받기 시작하기 전에 돈다. (ApplicationRunner는 톰캣이 뜬 뒤에 돈다)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TemplateWarmUp implements SmartInitializingSingleton {
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+
+    private final ITemplateEngine templateEngine;
+    private final ThymeleafProperties thymeleafProperties;
+    private final ResourcePatternResolver resourcePatternResolver = new PathMatchingResourcePatternResolver();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!thymeleafProperties.isCache()) {
+            return;
+        }
+        try {
+            log.info("warmed up {} templates", warmUp());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * prefix가 가리키는 디렉터리(클래스패스면 모든 jar, 디렉터리)마다 하위 템플릿을 찾는다.
+     * 템플릿 이름은 그 디렉터리 URL을 뺀 나머지 경로에서 suffix를 뗀 값이다. (뷰 이름과 같다)
+     * @return 처리에 성공한 템플릿 수
+     */
+    int warmUp() throws IOException {
+        String prefix = thymeleafProperties.getPrefix();
+        String suffix = thymeleafProperties.getSuffix();
+        String location = prefix.startsWith(CLASSPATH_PREFIX)
+                ? "classpath*:" + prefix.substring(CLASSPATH_PREFIX.length()) : prefix;
+
+        int count = 0;
+        for (Resource root : resourcePatternResolver.getResources(location)) {
+            String rootUrl = root.getURL().toString();
+            if (!rootUrl.endsWith("/")) {
+                rootUrl += "/";
+            }
+            for (Resource resource : resourcePatternResolver.getResources(rootUrl + "**/*" + suffix)) {
+                String url = resource.getURL().toString();
+                String templateName = url.substring(rootUrl.length(), url.length() - suffix.length());
+                try {
+                    // 빈 모델로 처리해도 파싱된 템플릿은 캐시에 남는다. 요청 정보가 필요한 템플릿은 실패할 수 있다.
+                    templateEngine.process(templateName, new Context(), Writer.nullWriter());
+                    count++;
+                } catch (RuntimeException e) {
+                    log.warn("template warm-up failed. template= {}, cause= {}", templateName, e.getMessage());
+                }
+            }
+        }
+        return count;
+    }
+}
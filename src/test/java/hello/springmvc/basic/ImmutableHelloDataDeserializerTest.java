@@ -0,0 +1,33 @@
+package hello.springmvc.basic;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImmutableHelloDataDeserializerTest {
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void readsNumbersAndNumericStrings() throws Exception {
+        assertThat(read("{\"username\":\"hello\",\"age\":20}")).isEqualTo(new ImmutableHelloData("hello", 20));
+        assertThat(read("{\"username\":\"hello\",\"age\":\"21\",\"extra\":[1]}"))
+                .isEqualTo(new ImmutableHelloData("hello", 21));
+        assertThat(read("{\"age\":null}")).isEqualTo(new ImmutableHelloData(null, 0));
+    }
+
+    @Test
+    void rejectsNonNumericAge() {
+        assertThatThrownBy(() -> read("{\"username\":\"hello\",\"age\":\"abc\"}"))
+                .isInstanceOf(InvalidFormatException.class);
+        assertThatThrownBy(() -> read("{\"age\":true}")).isInstanceOf(MismatchedInputException.class);
+    }
+
+    private ImmutableHelloData read(String json) throws Exception {
+        return objectMapper.readValue(json, ImmutableHelloData.class);
+    }
+}
@@ -0,0 +1,124 @@
+package hello.springmvc.basic.request;
+
+import hello.springmvc.support.ServerThreadSampler;
+import hello.springmvc.support.SlowClient;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 톰캣 워커 50개로 느린 업로드 400개, 느린 다운로드 64개를 받을 때, 동기 핸들러와 비동기(ReadListener/WriteListener) 핸들러의
+ * 전체 소요 시간, 처리량, 실행 중 일하고 있는 서버 스레드(톰캣 워커 http-nio-*, MVC 비동기 실행기 task-*)의 최대 수를 비교한다.
+ * - 동기 업로드는 워커가 바디를 기다리며 묶여 있어서 연결 수 / 50 배만큼 오래 걸리고,
+ *   비동기 업로드는 데이터가 왔을 때만 워커를 잠깐 쓰므로 거의 업로드 한 번 시간 안에 끝난다.
+ * - StreamingResponseBody 다운로드는 applicationTaskExecutor 스레드(기본 8개)가 느린 클라이언트에 쓰면서 묶이고,
+ *   WriteListener 다운로드는 소켓이 쓸 수 있을 때만 워커를 잠깐 쓴다.
+ * 바디(1MB)가 소켓 버퍼에 다 들어가 버리면 쓰는 쪽이 막히지 않으므로, 서버 송신 버퍼와 클라이언트 수신 버퍼를 64KB로 줄인다.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"server.tomcat.threads.max=50", "logging.level.hello.springmvc=warn"})
+class AsyncSlowClientLoadTest {
+
+    private static final int UPLOADS = 400;
+    private static final int BODY_SIZE = 4096;
+    private static final int CHUNKS = 16;
+    private static final long PAUSE_MILLIS = 100;
+    private static final int DOWNLOADS = 64;
+    private static final int DOWNLOAD_SIZE = 1024 * 1024;
+    private static final int READ_SIZE = 64 * 1024;
+
+    @LocalServerPort
+    int port;
+
+    @Test
+    void slowUploads() throws Exception {
+        Run async = run("upload async", UPLOADS,
+                () -> SlowClient.post(port, "/request-body-string-async", BODY_SIZE, CHUNKS, PAUSE_MILLIS));
+        Run sync = run("upload sync", UPLOADS,
+                () -> SlowClient.post(port, "/request-body-string-v1", BODY_SIZE, CHUNKS, PAUSE_MILLIS));
+
+        assertThat(sync.maxThreads()).isGreaterThanOrEqualTo(50);
+        assertThat(async.maxThreads() * 2).isLessThan(sync.maxThreads());
+        assertThat(async.throughput()).isGreaterThan(sync.throughput() * 3);
+    }
+
+    @Test
+    void slowDownloads() throws Exception {
+        String query = "?size=" + DOWNLOAD_SIZE;
+        Run nio = run("download nio", DOWNLOADS,
+                () -> SlowClient.get(port, "/response-body-string-nio" + query, READ_SIZE, PAUSE_MILLIS));
+        Run streaming = run("download streaming", DOWNLOADS,
+                () -> SlowClient.get(port, "/response-body-string-stream" + query, READ_SIZE, PAUSE_MILLIS));
+
+        // 스트리밍은 실행기 스레드가 모두 쓰기에서 막혀 있다. nio는 poller, acceptor 말고는 거의 비어 있다.
+        assertThat(nio.maxThreads()).isLessThan(streaming.maxThreads());
+        assertThat(nio.throughput()).isGreaterThan(streaming.throughput() * 2);
+    }
+
+    /**
+     * 같은 서버에서 비동기 쪽을 먼저 돌린다. 샘플러가 쉬는 풀 스레드는 세지 않지만, 순서까지 맞춰 앞선 부하의 영향을 줄인다.
+     */
+    private Run run(String name, int connections, Callable<?> client) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(connections);
+        try (ServerThreadSampler sampler = ServerThreadSampler.start("http-nio-", "task-")) {
+            long start = System.nanoTime();
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < connections; i++) {
+                results.add(clients.submit(client));
+            }
+            for (Future<?> result : results) {
+                Object value = result.get();
+                if (value instanceof Integer status) {
+                    assertThat(status).isEqualTo(200);
+                } else if (value instanceof Long bytes) {
+                    assertThat(bytes).isGreaterThan(DOWNLOAD_SIZE);
+                }
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            Run run = new Run(connections, elapsedMillis, sampler.max());
+            log.warn("{}: connections= {}, elapsed= {}ms, throughput= {}/s, maxServerThreads= {}",
+                    name, connections, elapsedMillis, run.throughput(), run.maxThreads());
+            return run;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @TestConfiguration
+    static class SmallSendBufferConfig {
+
+        @Bean
+        WebServerFactoryCustomizer<TomcatServletWebServerFactory> smallSendBuffer() {
+            return factory -> factory.addConnectorCustomizers(
+                    connector -> connector.setProperty("socket.txBufSize", String.valueOf(READ_SIZE)));
+        }
+    }
+
+    private record Run(int connections, long elapsedMillis, int maxThreads) {
+
+        /**
+         * 초당 끝낸 요청 수
+         */
+        double throughput() {
+            return connections * 1000.0 / Math.max(1, elapsedMillis);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package hello.springmvc.basic.request;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FormUrlEncodedReaderTest {
+
+    FormUrlEncodedReader reader = new FormUrlEncodedReader(4, DataSize.ofBytes(16), DataSize.ofBytes(64));
+
+    @Test
+    void decodesPercentAndPlus() throws IOException {
+        assertThat(read("username=%ED%95%9C+%EA%B8%80&age=20&empty=&flag"))
+                .containsExactly("username=한 글", "age=20", "empty=", "flag=");
+        // '='가 값 안에 또 나오면 값의 일부다. 이름이 없는 필드는 버린다.
+        assertThat(read("a=b%3Dc=d&&=x")).containsExactly("a=b=c=d");
+    }
+
+    @Test
+    void malformedPercentEncoding() {
+        assertThatThrownBy(() -> read("a=%G1")).isInstanceOf(MalformedFormException.class);
+        assertThatThrownBy(() -> read("a=%4")).isInstanceOf(MalformedFormException.class);
+    }
+
+    @Test
+    void parameterCountLimit() throws IOException {
+        assertThat(read("a=1&b=2&c=3&d=4")).hasSize(4);
+        assertThatThrownBy(() -> read("a=1&b=2&c=3&d=4&e=5")).isInstanceOf(MalformedFormException.class);
+    }
+
+    /**
+     * 필드 크기(16), 바디 크기(64) 제한. Content-Length가 없어도 읽는 도중에 끊는다.
+     */
+    @Test
+    void sizeLimits() throws IOException {
+        assertThat(read("a=" + "x".repeat(15))).hasSize(1);
+        assertThatThrownBy(() -> read("a=" + "x".repeat(16))).isInstanceOf(BodyTooLargeException.class);
+
+        String body = "a=1" + "&".repeat(70);
+        assertThatThrownBy(() -> read(body)).isInstanceOf(BodyTooLargeException.class);
+        assertThatThrownBy(() -> reader.read(new ByteArrayInputStream(new byte[0]), 65, (buffer, nameLength, length) -> {
+        })).isInstanceOf(BodyTooLargeException.class);
+    }
+
+    @Test
+    void parseInt() {
+        assertThat(parseInt("0")).isZero();
+        assertThat(parseInt("+42")).isEqualTo(42);
+        assertThat(parseInt("-42")).isEqualTo(-42);
+        assertThat(parseInt("2147483647")).isEqualTo(Integer.MAX_VALUE);
+        assertThat(parseInt("-2147483648")).isEqualTo(Integer.MIN_VALUE);
+
+        for (String invalid : new String[]{"", "-", "+", "2147483648", "-2147483649", "99999999999", "1a", " 1"}) {
+            assertThatThrownBy(() -> parseInt(invalid)).as(invalid).isInstanceOf(NumberFormatException.class);
+        }
+    }
+
+    private List<String> read(String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+        List<String> fields = new ArrayList<>();
+        reader.read(new ByteArrayInputStream(bytes), -1, (buffer, nameLength, length) ->
+                fields.add(FormUrlEncodedReader.toString(buffer, 0, nameLength, StandardCharsets.UTF_8) + "="
+                        + FormUrlEncodedReader.toString(buffer, nameLength, length, StandardCharsets.UTF_8)));
+        return fields;
+    }
+
+    private static int parseInt(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        return FormUrlEncodedReader.parseInt(bytes, 0, bytes.length);
+    }
+}
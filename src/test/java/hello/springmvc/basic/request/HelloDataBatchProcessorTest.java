@@ -0,0 +1,49 @@
+package hello.springmvc.basic.request;
+
+import hello.springmvc.basic.HelloData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HelloDataBatchProcessorTest {
+
+    HelloDataBatchProcessor processor = new HelloDataBatchProcessor(2, 1);
+
+    @AfterEach
+    void tearDown() {
+        processor.shutdown();
+    }
+
+    @Test
+    void collectsRejectionsAcrossBatches() {
+        HelloDataBatchProcessor.Session session = processor.openSession();
+        for (int i = 0; i < 5; i++) {
+            session.accept(helloData(i == 3 ? "" : "user" + i, 20));
+        }
+
+        BulkResult result = session.finish();
+
+        assertThat(result.accepted()).isEqualTo(4);
+        assertThat(result.rejections()).containsExactly(new BulkResult.Rejection(3, "username is empty"));
+    }
+
+    @Test
+    @Timeout(5)
+    void rejectsBatchesAfterShutdown() {
+        processor.shutdown();
+        HelloDataBatchProcessor.Session session = processor.openSession();
+        session.accept(helloData("userA", 20));
+
+        assertThatThrownBy(session::finish).isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    private static HelloData helloData(String username, int age) {
+        HelloData data = new HelloData();
+        data.setUsername(username);
+        data.setAge(age);
+        return data;
+    }
+}
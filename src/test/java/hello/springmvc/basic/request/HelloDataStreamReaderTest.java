@@ -0,0 +1,72 @@
+package hello.springmvc.basic.request;
+
+import hello.springmvc.basic.HelloData;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HelloDataStreamReaderTest {
+
+    HelloDataStreamReader reader = new HelloDataStreamReader(DataSize.ofBytes(256));
+    List<HelloData> records = new ArrayList<>();
+
+    @Test
+    void readsObjectArrayAndNdjson() throws IOException {
+        assertThat(read("{\"username\":\"a\",\"age\":1}")).isEqualTo(1);
+        assertThat(read("[{\"username\":\"b\",\"age\":2},{\"username\":\"c\",\"age\":3}]")).isEqualTo(2);
+        assertThat(read("{\"username\":\"d\",\"age\":4}\n{\"username\":\"e\",\"age\":5}\n")).isEqualTo(2);
+
+        assertThat(records).extracting(HelloData::getUsername).containsExactly("a", "b", "c", "d", "e");
+        assertThat(records).extracting(HelloData::getAge).containsExactly(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    void skipsUnknownFieldsAndAcceptsNumericStrings() throws IOException {
+        read("{\"username\":\"a\",\"extra\":{\"x\":[1,2]},\"age\":\" 20 \"}");
+
+        assertThat(records.get(0).getUsername()).isEqualTo("a");
+        assertThat(records.get(0).getAge()).isEqualTo(20);
+    }
+
+    @Test
+    void rejectsNonNumericAge() {
+        assertThatThrownBy(() -> read("{\"username\":\"a\",\"age\":\"abc\"}"))
+                .isInstanceOf(MalformedBodyException.class)
+                .hasMessageContaining("age is not a number");
+        assertThatThrownBy(() -> read("{\"username\":\"a\",\"age\":true}"))
+                .isInstanceOf(MalformedBodyException.class);
+    }
+
+    @Test
+    void rejectsMalformedJson() {
+        assertThatThrownBy(() -> read("[{\"username\":\"a\"")).isInstanceOf(MalformedBodyException.class);
+        assertThatThrownBy(() -> read("{\"username\":}")).isInstanceOf(MalformedBodyException.class);
+        assertThatThrownBy(() -> read("[{\"username\":\"a\"}] {}")).isInstanceOf(MalformedBodyException.class);
+        assertThatThrownBy(() -> read("[1]")).isInstanceOf(MalformedBodyException.class);
+    }
+
+    @Test
+    void rejectsBodyLargerThanMaxSize() {
+        String body = "{\"username\":\"" + "a".repeat(300) + "\"}";
+
+        assertThatThrownBy(() -> reader.read(stream(body), body.length(), records::add))
+                .isInstanceOf(BodyTooLargeException.class);
+        assertThatThrownBy(() -> read(body)).isInstanceOf(BodyTooLargeException.class);
+    }
+
+    private int read(String body) throws IOException {
+        return reader.read(stream(body), -1, records::add);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,151 @@
+package hello.springmvc.basic.request;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+
+/**
+ * 2GB 바디를 /request-body-upload 로 보낸다. loadTest 태스크는 힙을 256MB로 띄우므로
+ * 바디를 String이나 byte[]로 모으는 핸들러였다면 OutOfMemoryError로 끝난다.
+ * 서버가 돌려준 크기, CRC32C가 보낸 것과 같은지, 요청이 끝난 뒤 임시 파일이 지워졌는지 본다.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"hello.upload.dir=${java.io.tmpdir}/large-upload-load-test", "logging.level.hello.springmvc=warn"})
+class LargeUploadLoadTest {
+
+    private static final long BODY_SIZE = 2L * 1024 * 1024 * 1024;
+    private static final int CHUNK_SIZE = 1024 * 1024;
+    private static final long MAX_HEAP = 256L * 1024 * 1024;
+
+    @LocalServerPort
+    int port;
+
+    @Value("${hello.upload.dir}")
+    Path uploadDir;
+
+    @Test
+    void uploadTwoGigabytes() throws Exception {
+        assumeThat(Runtime.getRuntime().maxMemory()).as("run with -Xmx256m (./gradlew loadTest)")
+                .isLessThanOrEqualTo(MAX_HEAP);
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        AtomicLong peakHeap = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "heap-sampler");
+        sampler.start();
+
+        long start = System.nanoTime();
+        CRC32C crc = new CRC32C();
+        UploadResult result;
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout(300_000);
+            OutputStream out = socket.getOutputStream();
+            String head = "POST /request-body-upload HTTP/1.1\r\n"
+                    + "Host: localhost\r\n"
+                    + "Content-Type: application/octet-stream\r\n"
+                    + "Content-Length: " + BODY_SIZE + "\r\n"
+                    + "Connection: close\r\n\r\n";
+            out.write(head.getBytes(StandardCharsets.US_ASCII));
+
+            // 같은 조각이 반복되지 않도록 조각마다 앞 8바이트에 순번을 넣는다.
+            byte[] chunk = new byte[CHUNK_SIZE];
+            new Random(0).nextBytes(chunk);
+            for (long sent = 0, index = 0; sent < BODY_SIZE; sent += CHUNK_SIZE, index++) {
+                for (int i = 0; i < 8; i++) {
+                    chunk[i] = (byte) (index >>> (i * 8));
+                }
+                crc.update(chunk);
+                out.write(chunk);
+            }
+            out.flush();
+
+            result = new ObjectMapper().readValue(readBody(socket.getInputStream()), UploadResult.class);
+        } finally {
+            running.set(false);
+            sampler.join();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.warn("size= {}, elapsed= {}ms, peakHeap= {}MB, maxHeap= {}MB", result.size(), elapsedMillis,
+                peakHeap.get() >> 20, Runtime.getRuntime().maxMemory() >> 20);
+
+        assertThat(result.size()).isEqualTo(BODY_SIZE);
+        assertThat(result.crc32c()).isEqualTo(String.format("%08x", crc.getValue()));
+        // 파일은 응답을 보낸 직후 요청 스코프가 끝날 때 지워지므로 잠깐 기다린다.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (countFiles() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(countFiles()).isZero();
+    }
+
+    /**
+     * 상태 줄과 헤더를 건너뛰고 바디만 돌려준다. 상태 코드가 200이 아니면 실패.
+     */
+    private static byte[] readBody(InputStream socketInput) throws Exception {
+        InputStream in = new BufferedInputStream(socketInput);
+        String statusLine = readLine(in);
+        assertThat(statusLine).as(statusLine).contains(" 200 ");
+        boolean chunked = false;
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            chunked |= line.equalsIgnoreCase("Transfer-Encoding: chunked");
+        }
+        if (!chunked) {
+            return in.readAllBytes();
+        }
+        // 짧은 JSON이라 청크 하나로 온다.
+        int length = Integer.parseInt(readLine(in).trim(), 16);
+        return in.readNBytes(length);
+    }
+
+    private static String readLine(InputStream in) throws Exception {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    private long countFiles() throws Exception {
+        try (Stream<Path> files = Files.list(uploadDir)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package hello.springmvc.basic.request;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LazyHeadersTest {
+
+    @Test
+    void quotedValueIsUnquoted() {
+        assertThat(LazyHeaders.findCookie("a=\"hello world\"; b=2", "a")).isEqualTo("hello world");
+        assertThat(LazyHeaders.findCookie("a=\"\"", "a")).isEmpty();
+        // 닫는 따옴표가 없으면 그대로 둔다.
+        assertThat(LazyHeaders.findCookie("a=\"x", "a")).isEqualTo("\"x");
+    }
+
+    @Test
+    void emptyValue() {
+        assertThat(LazyHeaders.findCookie("a=; b=2", "a")).isEmpty();
+        assertThat(LazyHeaders.findCookie("a=; b=2", "b")).isEqualTo("2");
+        assertThat(LazyHeaders.findCookie("a=", "a")).isEmpty();
+    }
+
+    /**
+     * '='가 없는 항목은 값 없는 쿠키로 보고 건너뛴다. (null과 빈 값은 다르다)
+     */
+    @Test
+    void cookieWithoutValueIsSkipped() {
+        assertThat(LazyHeaders.findCookie("flag; a=1", "flag")).isNull();
+        assertThat(LazyHeaders.findCookie("flag; a=1", "a")).isEqualTo("1");
+    }
+
+    @Test
+    void nameMustMatchWholly() {
+        assertThat(LazyHeaders.findCookie("session=1; sessionId=2", "session")).isEqualTo("1");
+        assertThat(LazyHeaders.findCookie("sessionId=2; session=1", "session")).isEqualTo("1");
+        assertThat(LazyHeaders.findCookie("session=1; sessionId=2", "sessionId")).isEqualTo("2");
+        assertThat(LazyHeaders.findCookie("xsession=1; session=2", "session")).isEqualTo("2");
+        assertThat(LazyHeaders.findCookie("session=1", "sess")).isNull();
+    }
+
+    @Test
+    void whitespaceAroundSeparatorsIsIgnored() {
+        String header = "a=1 ;  b = 2 ;c=3";
+
+        assertThat(LazyHeaders.findCookie(header, "a")).isEqualTo("1");
+        assertThat(LazyHeaders.findCookie(header, "b")).isEqualTo("2");
+        assertThat(LazyHeaders.findCookie(header, "c")).isEqualTo("3");
+        assertThat(LazyHeaders.findCookie(" ; ;a=1;", "a")).isEqualTo("1");
+        assertThat(LazyHeaders.findCookie("", "a")).isNull();
+    }
+
+    @Test
+    void cookieLooksThroughEveryCookieHeader() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Cookie", "a=1");
+        request.addHeader("Cookie", "b=2");
+        LazyHeaders headers = new LazyHeaders(request);
+
+        assertThat(headers.cookie("a")).isEqualTo("1");
+        assertThat(headers.cookie("b")).isEqualTo("2");
+        assertThat(headers.cookie("c")).isNull();
+    }
+}
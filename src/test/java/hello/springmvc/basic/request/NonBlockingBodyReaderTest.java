@@ -0,0 +1,48 @@
+package hello.springmvc.basic.request;
+
+import hello.springmvc.basic.HelloData;
+import hello.springmvc.support.SlowClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "hello.async.max-body-size=1KB")
+class NonBlockingBodyReaderTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Test
+    void readsBodyArrivingInChunks() throws Exception {
+        assertThat(SlowClient.post(port, "/request-body-string-async", 1000, 5, 20)).isEqualTo(200);
+    }
+
+    @Test
+    void readsJsonBody() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<HelloData> response = restTemplate.postForEntity("/request-body-json-async",
+                new HttpEntity<>("{\"username\":\"hello\",\"age\":20}", headers), HelloData.class);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(response.getBody().getUsername()).isEqualTo("hello");
+        assertThat(response.getBody().getAge()).isEqualTo(20);
+    }
+
+    @Test
+    void rejectsBodyLargerThanMaxSize() throws Exception {
+        assertThat(SlowClient.post(port, "/request-body-string-async", 2048, 2, 10)).isEqualTo(413);
+    }
+}
@@ -0,0 +1,87 @@
+package hello.springmvc.basic.request;
+
+import hello.springmvc.SpringmvcApplication;
+import hello.springmvc.support.ServerThreadSampler;
+import hello.springmvc.support.SlowClient;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 느린 업로드 연결을 톰캣 워커 수(50)보다 훨씬 많이 동시에 열어서
+ * /request-body-string-v1, v2 가 몇 초 만에 모두 끝나는지 플랫폼 스레드 모드와 가상 스레드 모드로 각각 띄워 비교한다.
+ * 플랫폼 스레드 풀에서는 워커 50개가 바디를 기다리며 묶여 있으므로 연결 수 / 50 배만큼 오래 걸리고,
+ * 가상 스레드 모드에서는 연결 수와 상관없이 거의 한 업로드 시간 안에 끝난다.
+ * 스레드 수는 톰캣 스레드(http-nio-*)만 센다. 가상 스레드 모드의 요청 스레드는 가상 스레드라 여기에 잡히지 않는다.
+ * ./gradlew loadTest -PjavaVersion=21   (Java 21 미만이면 건너뛴다)
+ */
+@Slf4j
+@Tag("load")
+class SlowUploadLoadTest {
+
+    private static final int MAX_THREADS = 50;
+    private static final int CONNECTIONS = 400;
+    private static final int BODY_SIZE = 4096;
+    private static final int CHUNKS = 16;
+    private static final long PAUSE_MILLIS = 100;
+
+    @Test
+    void virtualThreadsScaleWithConnections() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21");
+
+        Run virtual = run(true);
+        Run platform = run(false);
+
+        // 플랫폼 모드는 워커 50개가 모두 묶이고, 가상 스레드 모드는 톰캣 플랫폼 스레드가 poller, acceptor 정도다.
+        assertThat(platform.tomcatThreads()).isGreaterThanOrEqualTo(MAX_THREADS);
+        assertThat(virtual.tomcatThreads()).isLessThan(MAX_THREADS / 5);
+        // 업로드 한 번이 CHUNKS * PAUSE_MILLIS(1.6초), 플랫폼 모드는 이론상 그 CONNECTIONS / MAX_THREADS(8)배
+        assertThat(virtual.elapsedMillis() * 3).isLessThan(platform.elapsedMillis());
+    }
+
+    /**
+     * 커맨드라인 인자로 모드를 주므로 loadTest의 -PvirtualThreads 시스템 프로퍼티보다 우선한다.
+     */
+    private Run run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringmvcApplication.class).run(
+                "--server.port=0", "--server.tomcat.threads.max=" + MAX_THREADS,
+                "--spring.threads.virtual.enabled=" + virtualThreads, "--logging.level.hello.springmvc=warn")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            ExecutorService clients = Executors.newFixedThreadPool(CONNECTIONS);
+            try (ServerThreadSampler sampler = ServerThreadSampler.start("http-nio-")) {
+                long start = System.nanoTime();
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int i = 0; i < CONNECTIONS; i++) {
+                    String path = i % 2 == 0 ? "/request-body-string-v1" : "/request-body-string-v2";
+                    results.add(clients.submit(() -> SlowClient.post(port, path, BODY_SIZE, CHUNKS, PAUSE_MILLIS)));
+                }
+                for (Future<Integer> result : results) {
+                    assertThat(result.get()).isEqualTo(200);
+                }
+                long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+                Run run = new Run(elapsedMillis, sampler.max());
+                log.warn("virtualThreads= {}, connections= {}, elapsed= {}ms, maxTomcatThreads= {}",
+                        virtualThreads, CONNECTIONS, elapsedMillis, run.tomcatThreads());
+                return run;
+            } finally {
+                clients.shutdownNow();
+            }
+        }
+    }
+
+    private record Run(long elapsedMillis, int tomcatThreads) {
+    }
+}
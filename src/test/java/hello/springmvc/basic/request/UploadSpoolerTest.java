@@ -0,0 +1,108 @@
+package hello.springmvc.basic.request;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32C;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UploadSpoolerTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * 버퍼(1KB)보다 큰 바디, 딱 맞는 바디, 빈 바디 모두 그대로 다시 읽히고 CRC32C가 맞는다.
+     */
+    @Test
+    void spoolsBodyToDisk() throws Exception {
+        UploadSpooler spooler = new UploadSpooler(directory.toString(), DataSize.ofMegabytes(1), DataSize.ofKilobytes(1), 2,
+                Duration.ofSeconds(5));
+        for (int length : new int[]{0, 1024, 100_000}) {
+            byte[] body = new byte[length];
+            new Random(length).nextBytes(body);
+            CRC32C crc = new CRC32C();
+            crc.update(body);
+
+            try (UploadedBody uploaded = spooler.spool(new ByteArrayInputStream(body), -1, "application/octet-stream", null)) {
+                assertThat(uploaded.size()).isEqualTo(length);
+                assertThat(uploaded.crc32c()).isEqualTo(crc.getValue());
+                try (InputStream in = uploaded.openStream()) {
+                    assertThat(in.readAllBytes()).isEqualTo(body);
+                }
+            }
+        }
+        assertThat(directory.toFile().list()).isEmpty();
+    }
+
+    /**
+     * Content-Length 없이 와도 max-size를 넘는 순간 멈추고 쓰던 파일을 지운다.
+     */
+    @Test
+    void tooLargeBodyIsDeleted() throws Exception {
+        UploadSpooler spooler = new UploadSpooler(directory.toString(), DataSize.ofKilobytes(4), DataSize.ofKilobytes(1), 1,
+                Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> spooler.spool(new ByteArrayInputStream(new byte[10_000]), -1, null, null))
+                .isInstanceOf(BodyTooLargeException.class);
+        assertThatThrownBy(() -> spooler.spool(new ByteArrayInputStream(new byte[0]), 10_000, null, null))
+                .isInstanceOf(BodyTooLargeException.class);
+        assertThat(directory.toFile().list()).isEmpty();
+
+        // 실패한 뒤에도 버퍼가 돌아와 있어야 다음 업로드를 받는다.
+        try (UploadedBody uploaded = spooler.spool(new ByteArrayInputStream(new byte[100]), 100, null, null)) {
+            assertThat(uploaded.size()).isEqualTo(100);
+        }
+    }
+
+    /**
+     * 버퍼가 모두 빌려진 동안 온 업로드는 buffer-wait만 기다리고 503으로 거절된다. 임시 파일도 만들지 않는다.
+     */
+    @Test
+    void rejectsUploadWhenNoBufferIsFree() throws Exception {
+        UploadSpooler spooler = new UploadSpooler(directory.toString(), DataSize.ofKilobytes(4), DataSize.ofKilobytes(1), 1,
+                Duration.ofMillis(50));
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InputStream slowBody = new InputStream() {
+            @Override
+            public int read() throws InterruptedIOException {
+                reading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return -1;
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<UploadedBody> first = executor.submit(() -> spooler.spool(slowBody, -1, null, null));
+            reading.await();
+
+            assertThatThrownBy(() -> spooler.spool(new ByteArrayInputStream(new byte[10]), 10, null, null))
+                    .isInstanceOf(ServiceUnavailableException.class);
+            assertThat(directory.toFile().list()).hasSize(1);
+
+            release.countDown();
+            first.get().close();
+            assertThat(directory.toFile().list()).isEmpty();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package hello.springmvc.basic.response;
+
+import hello.springmvc.basic.HelloData;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HelloDataStreamWriterTest {
+
+    HelloDataStreamWriter writer = new HelloDataStreamWriter(1);
+
+    @Test
+    void formats() throws Exception {
+        assertThat(write(HelloDataStreamWriter.Format.JSON))
+                .isEqualTo("[{\"username\":\"kim\",\"age\":20},{\"username\":\"lee\",\"age\":30}]");
+        assertThat(write(HelloDataStreamWriter.Format.NDJSON))
+                .isEqualTo("{\"username\":\"kim\",\"age\":20}\n{\"username\":\"lee\",\"age\":30}\n");
+        assertThat(write(HelloDataStreamWriter.Format.SSE))
+                .isEqualTo("data: {\"username\":\"kim\",\"age\":20}\n\ndata: {\"username\":\"lee\",\"age\":30}\n\n");
+    }
+
+    @Test
+    void empty() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = writer.write(out, HelloDataStreamWriter.Format.JSON, List.<HelloData>of().iterator(), 0);
+
+        assertThat(count).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("[]");
+    }
+
+    private String write(HelloDataStreamWriter.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = writer.write(out, format, List.of(helloData("kim", 20), helloData("lee", 30)).iterator(), 0);
+        assertThat(count).isEqualTo(2);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static HelloData helloData(String username, int age) {
+        HelloData helloData = new HelloData();
+        helloData.setUsername(username);
+        helloData.setAge(age);
+        return helloData;
+    }
+}
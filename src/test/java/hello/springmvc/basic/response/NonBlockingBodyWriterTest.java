@@ -0,0 +1,46 @@
+package hello.springmvc.basic.response;
+
+import hello.springmvc.support.SlowClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 비동기 타임아웃을 짧게 잡아서, 그보다 오래 걸리는 느린 다운로드도 끝까지 받는지 본다.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"hello.async.timeout=300ms", "spring.mvc.async.request-timeout=300ms"})
+class NonBlockingBodyWriterTest {
+
+    private static final int MAX_SIZE = 1024 * 1024;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Test
+    void writesSmallBody() {
+        assertThat(restTemplate.getForObject("/response-body-string-nio", String.class)).isEqualTo("ok");
+    }
+
+    @Test
+    void capsBodySize() {
+        byte[] body = restTemplate.getForObject("/response-body-string-nio?size=" + 64 * MAX_SIZE, byte[].class);
+
+        assertThat(body).hasSize(MAX_SIZE);
+    }
+
+    @Test
+    void slowClientOutlivesAsyncTimeout() throws Exception {
+        // 64KB씩 100ms마다 읽으므로 1MB를 다 받는 데 1.6초 넘게 걸린다.
+        long read = SlowClient.get(port, "/response-body-string-nio?size=" + MAX_SIZE, 64 * 1024, 100);
+
+        assertThat(read).isGreaterThan(MAX_SIZE);
+    }
+}
@@ -0,0 +1,64 @@
+package hello.springmvc.basic.response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import hello.springmvc.basic.BinaryMediaType;
+import hello.springmvc.basic.HelloData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * '@CachedResponse'가 붙은 /response-body-binary를 Accept를 바꿔가며 호출한다.
+ * 앞에서 캐시된 다른 형식의 응답이 섞여 나오면 안 된다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ResponseBodyBinaryTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void eachAcceptGetsItsOwnEncoding() throws Exception {
+        assertDecodes(MediaType.APPLICATION_JSON_VALUE, new ObjectMapper());
+        assertDecodes(BinaryMediaType.APPLICATION_CBOR_VALUE, new CBORMapper());
+        assertDecodes(BinaryMediaType.APPLICATION_SMILE_VALUE, new SmileMapper());
+        // 두 번째부터는 캐시에서 나간다.
+        assertDecodes(BinaryMediaType.APPLICATION_CBOR_VALUE, new CBORMapper());
+        assertDecodes(MediaType.APPLICATION_JSON_VALUE, new ObjectMapper());
+    }
+
+    @Test
+    void sameAcceptWrittenDifferentlySharesEntry() throws Exception {
+        MockHttpServletResponse first = perform("application/cbor,application/json");
+        MockHttpServletResponse second = perform("application/cbor, application/json");
+
+        assertThat(second.getContentType()).isEqualTo(BinaryMediaType.APPLICATION_CBOR_VALUE);
+        assertThat(second.getHeader("ETag")).isEqualTo(first.getHeader("ETag"));
+    }
+
+    private void assertDecodes(String accept, ObjectMapper mapper) throws Exception {
+        MockHttpServletResponse response = perform(accept);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(MediaType.parseMediaType(response.getContentType()).isCompatibleWith(MediaType.parseMediaType(accept)))
+                .isTrue();
+        assertThat(response.getHeaders("Vary")).contains("Accept");
+        HelloData helloData = mapper.readValue(response.getContentAsByteArray(), HelloData.class);
+        assertThat(helloData.getUsername()).isEqualTo("userA");
+        assertThat(helloData.getAge()).isEqualTo(20);
+    }
+
+    private MockHttpServletResponse perform(String accept) throws Exception {
+        return mockMvc.perform(get("/response-body-binary").header("Accept", accept)).andReturn().getResponse();
+    }
+}
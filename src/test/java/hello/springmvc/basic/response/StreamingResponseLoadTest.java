@@ -0,0 +1,78 @@
+package hello.springmvc.basic.response;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * /response-body-stream 으로 NDJSON 1000만 건을 받으면서 100만 건마다 GC 후 힙 사용량을 잰다.
+ * 서버가 목록을 메모리에 쌓는다면 힙이 건수에 비례해서 (수 GB) 늘어나야 하지만, 스트리밍이면 처음과 끝이 거의 같다.
+ * 클라이언트와 서버가 같은 JVM이므로 힙 측정에 둘 다 포함된다. 클라이언트도 바디를 버퍼 하나로만 읽는다.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"logging.level.hello.springmvc=warn"})
+class StreamingResponseLoadTest {
+
+    private static final long ROWS = 10_000_000;
+    private static final long SAMPLE_EVERY = 1_000_000;
+    private static final long MAX_HEAP_SPREAD = 64L * 1024 * 1024;
+
+    @LocalServerPort
+    int port;
+
+    @Test
+    void heapStaysFlatWhileStreaming() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/response-body-stream?format=ndjson&count=" + ROWS)).build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                contentType -> assertThat(contentType).startsWith("application/x-ndjson"));
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        List<Long> samples = new ArrayList<>();
+        long rows = 0;
+        long bytes = 0;
+        long start = System.nanoTime();
+        try (InputStream body = response.body()) {
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = body.read(buffer)) != -1) {
+                bytes += n;
+                for (int i = 0; i < n; i++) {
+                    if (buffer[i] == '\n' && ++rows % SAMPLE_EVERY == 0) {
+                        System.gc();
+                        samples.add(memory.getHeapMemoryUsage().getUsed());
+                    }
+                }
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        LongSummaryStatistics heap = samples.stream().mapToLong(Long::longValue).summaryStatistics();
+        log.warn("streamed rows= {}, bytes= {}, elapsed= {}ms, heapUsed min= {}MB max= {}MB",
+                rows, bytes, elapsedMillis, heap.getMin() >> 20, heap.getMax() >> 20);
+
+        assertThat(rows).isEqualTo(ROWS);
+        assertThat(samples).hasSize((int) (ROWS / SAMPLE_EVERY));
+        assertThat(heap.getMax() - heap.getMin()).isLessThan(MAX_HEAP_SPREAD);
+    }
+}
@@ -0,0 +1,75 @@
+package hello.springmvc.domain.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderRepositoryTest {
+
+    OrderRepository orderRepository = new OrderRepository();
+
+    @Test
+    void findById() {
+        Order order = orderRepository.save(1L, new OrderParam(10L, 2, 1000));
+        orderRepository.save(2L, new OrderParam(20L, 1, 500));
+
+        assertThat(orderRepository.findById(1L, order.orderId())).contains(order);
+        assertThat(orderRepository.findById(2L, order.orderId())).isEmpty();
+        assertThat(orderRepository.findById(3L, order.orderId())).isEmpty();
+    }
+
+    @Test
+    void findRangeWithCursor() {
+        for (int i = 0; i < 100; i++) {
+            orderRepository.save(1L, new OrderParam(i, 1, 100));
+        }
+
+        List<Order> orders = new ArrayList<>();
+        Long cursor = null;
+        do {
+            OrderPage page = orderRepository.findRange(1L, 11, 60, cursor, 7);
+            orders.addAll(page.orders());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(orders).extracting(Order::orderId).containsExactlyElementsOf(
+                LongStream.rangeClosed(11, 60).boxed().toList());
+    }
+
+    /**
+     * 마지막 주문 id가 Long.MAX_VALUE면 그 다음 커서는 범위 끝이다. 처음으로 돌아가면 안 된다.
+     */
+    @Test
+    void cursorAtMaxValueEndsRange() {
+        OrderBook book = new OrderBook(1L);
+        book.add(1, 0, 1, 1);
+        book.add(Long.MAX_VALUE, 0, 1, 1);
+
+        OrderPage first = book.range(0, Long.MAX_VALUE, null, 1);
+        OrderPage second = book.range(0, Long.MAX_VALUE, first.nextCursor(), 1);
+        OrderPage third = book.range(0, Long.MAX_VALUE, Long.MAX_VALUE, 1);
+
+        assertThat(second.orders()).extracting(Order::orderId).containsExactly(Long.MAX_VALUE);
+        assertThat(second.nextCursor()).isNull();
+        assertThat(third.orders()).isEmpty();
+        assertThat(third.nextCursor()).isNull();
+    }
+
+    @Test
+    void outOfOrderInsertKeepsIdsSorted() {
+        OrderBook book = new OrderBook(1L);
+        book.add(5, 0, 1, 1);
+        book.add(1, 0, 1, 1);
+        book.add(3, 0, 1, 1);
+        book.add(9, 0, 1, 1);
+
+        assertThat(book.range(0, Long.MAX_VALUE, null, 10).orders())
+                .extracting(Order::orderId).containsExactly(1L, 3L, 5L, 9L);
+        assertThat(book.find(3)).isNotNull();
+        assertThat(book.find(4)).isNull();
+    }
+}
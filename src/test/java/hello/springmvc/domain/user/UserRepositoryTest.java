@@ -0,0 +1,114 @@
+package hello.springmvc.domain.user;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserRepositoryTest {
+
+    UserRepository userRepository = new UserRepository();
+
+    @Test
+    void crud() {
+        User saved = userRepository.save("userA", 20);
+
+        assertThat(userRepository.findById(saved.id())).contains(saved);
+        assertThat(userRepository.update(saved.id(), new UserParam(null, 30)))
+                .contains(new User(saved.id(), "userA", 30));
+        assertThat(userRepository.delete(saved.id())).isTrue();
+        assertThat(userRepository.findById(saved.id())).isEmpty();
+        assertThat(userRepository.update(saved.id(), new UserParam("userB", null))).isEmpty();
+    }
+
+    @Test
+    void cursorPagination() {
+        for (int i = 0; i < 45; i++) {
+            userRepository.save("user" + i, i);
+        }
+
+        List<User> all = new ArrayList<>();
+        Long cursor = null;
+        do {
+            UserPage page = userRepository.findPage(cursor, 20);
+            all.addAll(page.users());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(all).hasSize(45);
+        assertThat(all).extracting(User::id).isSorted();
+    }
+
+    /**
+     * 16개 스레드가 등록/조회/수정/삭제/페이지 조회를 섞어서 동시에 실행해도
+     * 남은 회원 수가 (등록 - 삭제 성공)과 같고, 페이지를 끝까지 넘기면 중복 없이 전부 보이는지 확인한다.
+     */
+    @Test
+    void concurrentMixedReadsAndWrites() throws Exception {
+        int threads = 16;
+        int operations = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long saved = 0;
+                long deleted = 0;
+                for (int i = 0; i < operations; i++) {
+                    int op = random.nextInt(100);
+                    long id = random.nextLong(1, Math.max(2, saved * threads));
+                    if (op < 20) {
+                        userRepository.save("user", i);
+                        saved++;
+                    } else if (op < 25) {
+                        if (userRepository.delete(id)) {
+                            deleted++;
+                        }
+                    } else if (op < 35) {
+                        userRepository.update(id, new UserParam("updated", i));
+                    } else if (op < 40) {
+                        userRepository.findPage(id, 20);
+                    } else {
+                        userRepository.findById(id);
+                    }
+                }
+                return new long[]{saved, deleted};
+            }));
+        }
+
+        start.countDown();
+        long totalSaved = 0;
+        long totalDeleted = 0;
+        for (Future<long[]> result : results) {
+            long[] counts = result.get(30, TimeUnit.SECONDS);
+            totalSaved += counts[0];
+            totalDeleted += counts[1];
+        }
+        executor.shutdown();
+
+        long remaining = totalSaved - totalDeleted;
+        assertThat(userRepository.size()).isEqualTo((int) remaining);
+
+        Set<Long> ids = new HashSet<>();
+        Long cursor = null;
+        do {
+            UserPage page = userRepository.findPage(cursor, UserRepository.MAX_PAGE_SIZE);
+            page.users().forEach(user -> assertThat(ids.add(user.id())).isTrue());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertThat(ids).hasSize((int) remaining);
+    }
+}
@@ -0,0 +1,42 @@
+package hello.springmvc.startup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LazyControllerPostProcessorTest {
+
+    @Test
+    void onlyControllersNotListedAsEagerBecomeLazy() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("rareController", new AnnotatedGenericBeanDefinition(RareController.class));
+        beanFactory.registerBeanDefinition("hotController", new AnnotatedGenericBeanDefinition(HotController.class));
+        beanFactory.registerBeanDefinition("infrastructure", new AnnotatedGenericBeanDefinition(Infrastructure.class));
+
+        LazyControllerPostProcessor postProcessor = new LazyControllerPostProcessor();
+        postProcessor.setEnvironment(new MockEnvironment()
+                .withProperty("hello.fast-start.eager-controllers", "hotController"));
+        postProcessor.postProcessBeanFactory(beanFactory);
+
+        assertThat(beanFactory.getBeanDefinition("rareController").isLazyInit()).isTrue();
+        assertThat(beanFactory.getBeanDefinition("hotController").isLazyInit()).isFalse();
+        assertThat(beanFactory.getBeanDefinition("infrastructure").isLazyInit()).isFalse();
+    }
+
+    @RestController
+    static class RareController {
+    }
+
+    @RestController
+    static class HotController {
+    }
+
+    @Component
+    static class Infrastructure {
+    }
+}
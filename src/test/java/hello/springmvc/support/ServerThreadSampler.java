@@ -0,0 +1,88 @@
+package hello.springmvc.support;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 이름이 prefixes 중 하나로 시작하고 일을 하고 있는 플랫폼 스레드 수를 주기적으로 세서 최댓값을 남긴다.
+ * 부하 테스트는 클라이언트 스레드도 같은 JVM에서 돌기 때문에, JVM 전체 스레드 수 대신 서버 쪽 스레드만 이름으로 골라 센다.
+ * (톰캣 워커 "http-nio-...-exec-", MVC 비동기 실행기 "task-" 등) 가상 스레드는 Thread.getAllStackTraces()에 나오지 않는다.
+ * 스레드 풀은 한 번 늘어난 스레드를 한동안 남겨두므로, 풀에서 다음 일을 기다리는(getTask) 스레드는 세지 않는다.
+ * 그래야 같은 서버로 앞서 돌린 부하가 다음 측정에 섞이지 않는다.
+ */
+public final class ServerThreadSampler implements AutoCloseable {
+
+    private static final long INTERVAL_MILLIS = 10;
+
+    private final String[] prefixes;
+    private final AtomicInteger max = new AtomicInteger();
+    private final Thread sampler;
+    private volatile boolean running = true;
+
+    private ServerThreadSampler(String[] prefixes) {
+        this.prefixes = prefixes;
+        this.sampler = new Thread(this::sample, "server-thread-sampler");
+        this.sampler.setDaemon(true);
+    }
+
+    public static ServerThreadSampler start(String... prefixes) {
+        ServerThreadSampler sampler = new ServerThreadSampler(prefixes);
+        sampler.sampler.start();
+        return sampler;
+    }
+
+    /**
+     * @return 지금까지 본 최대 스레드 수
+     */
+    public int max() {
+        return max.get();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        sampler.join();
+    }
+
+    private void sample() {
+        while (running) {
+            max.accumulateAndGet(count(), Math::max);
+            try {
+                Thread.sleep(INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private int count() {
+        int count = 0;
+        for (Map.Entry<Thread, StackTraceElement[]> entry : Thread.getAllStackTraces().entrySet()) {
+            if (matches(entry.getKey().getName()) && !isIdle(entry.getValue())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * java.util.concurrent, 톰캣의 ThreadPoolExecutor 모두 일을 기다릴 때 getTask()에 있다.
+     */
+    private static boolean isIdle(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            if ("getTask".equals(frame.getMethodName()) && frame.getClassName().endsWith("ThreadPoolExecutor")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matches(String name) {
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
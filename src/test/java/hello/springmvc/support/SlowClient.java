@@ -0,0 +1,85 @@
+package hello.springmvc.support;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 바디를 조금씩 천천히 보내거나(느린 업로드) 받는(느린 다운로드) 클라이언트.
+ * HTTP 클라이언트 라이브러리는 바디를 한 번에 보내버리므로 소켓에 직접 쓴다.
+ */
+public final class SlowClient {
+
+    private SlowClient() {
+    }
+
+    /**
+     * @param chunks      바디를 몇 조각으로 나눠 보낼지
+     * @param pauseMillis 조각 사이 대기 시간
+     * @return 응답 상태 코드
+     */
+    public static int post(int port, String path, int bodySize, int chunks, long pauseMillis)
+            throws IOException, InterruptedException {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout(120_000);
+            OutputStream out = socket.getOutputStream();
+            String head = "POST " + path + " HTTP/1.1\r\n"
+                    + "Host: localhost\r\n"
+                    + "Content-Type: text/plain\r\n"
+                    + "Content-Length: " + bodySize + "\r\n"
+                    + "Connection: close\r\n\r\n";
+            out.write(head.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            byte[] chunk = new byte[Math.max(1, bodySize / chunks)];
+            Arrays.fill(chunk, (byte) 'a');
+            int sent = 0;
+            while (sent < bodySize) {
+                int length = Math.min(chunk.length, bodySize - sent);
+                out.write(chunk, 0, length);
+                out.flush();
+                sent += length;
+                Thread.sleep(pauseMillis);
+            }
+
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            String statusLine = reader.readLine();
+            return Integer.parseInt(statusLine.split(" ")[1]);
+        }
+    }
+
+    /**
+     * 응답 바디를 readSize씩 천천히 읽는(느린 다운로드) 클라이언트.
+     * @return 읽은 바디 바이트 수
+     */
+    public static long get(int port, String path, int readSize, long pauseMillis)
+            throws IOException, InterruptedException {
+        try (Socket socket = new Socket()) {
+            // 수신 윈도우는 연결할 때 정해지므로 connect() 전에 줄인다.
+            socket.setReceiveBufferSize(readSize);
+            socket.connect(new InetSocketAddress("localhost", port));
+            socket.setSoTimeout(120_000);
+            String head = "GET " + path + " HTTP/1.1\r\n"
+                    + "Host: localhost\r\n"
+                    + "Connection: close\r\n\r\n";
+            socket.getOutputStream().write(head.getBytes(StandardCharsets.US_ASCII));
+
+            InputStream in = socket.getInputStream();
+            byte[] buffer = new byte[readSize];
+            long total = 0;
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                total += n;
+                Thread.sleep(pauseMillis);
+            }
+            return total;
+        }
+    }
+}
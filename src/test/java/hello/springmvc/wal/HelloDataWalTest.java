@@ -0,0 +1,100 @@
+package hello.springmvc.wal;
+
+import hello.springmvc.basic.HelloData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HelloDataWalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void concurrentAppendsAreReplayed() throws Exception {
+        Path path = dir.resolve("hello.wal");
+        HelloDataWal wal = new HelloDataWal(true, path.toString(), 64);
+        wal.open();
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int age = i;
+            futures.add(executor.submit(() -> wal.append(helloData("user" + age, age))));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        wal.close();
+
+        List<HelloData> replayed = new ArrayList<>();
+        assertThat(new HelloDataWal(true, path.toString(), 64).replay(replayed::add)).isEqualTo(1000);
+        assertThat(replayed).extracting(HelloData::getAge).containsExactlyInAnyOrder(
+                IntStream.range(0, 1000).boxed().toArray(Integer[]::new));
+    }
+
+    /**
+     * 쓰다가 죽어서 마지막 레코드가 잘린 경우, 재기동하면 잘린 부분만 버리고 그 뒤에 이어서 쓴다.
+     */
+    @Test
+    void tornTailIsTruncatedOnOpen() throws Exception {
+        Path path = dir.resolve("hello.wal");
+        HelloDataWal wal = new HelloDataWal(true, path.toString(), 64);
+        wal.open();
+        wal.append(helloData("userA", 10));
+        wal.append(helloData(null, 20));
+        wal.close();
+
+        byte[] torn = WalCodec.encode(helloData("userC", 30)).array();
+        Files.write(path, Arrays.copyOf(torn, torn.length - 3), StandardOpenOption.APPEND);
+
+        HelloDataWal reopened = new HelloDataWal(true, path.toString(), 64);
+        reopened.open();
+        reopened.append(helloData("userD", 40));
+        reopened.close();
+
+        List<HelloData> replayed = new ArrayList<>();
+        reopened.replay(replayed::add);
+        assertThat(replayed).extracting(HelloData::getUsername).containsExactly("userA", null, "userD");
+    }
+
+    /**
+     * 같은 파일을 두 번째로 열면 잠금을 못 잡고 바로 실패한다. 앞의 것이 닫히면 다시 열 수 있다.
+     */
+    @Test
+    void secondWriterFailsFast() throws Exception {
+        Path path = dir.resolve("hello.wal");
+        HelloDataWal wal = new HelloDataWal(true, path.toString(), 64);
+        wal.open();
+
+        assertThatThrownBy(() -> new HelloDataWal(true, path.toString(), 64).open())
+                .isInstanceOf(IllegalStateException.class);
+
+        wal.close();
+        HelloDataWal reopened = new HelloDataWal(true, path.toString(), 64);
+        reopened.open();
+        reopened.close();
+    }
+
+    private static HelloData helloData(String username, int age) {
+        HelloData data = new HelloData();
+        data.setUsername(username);
+        data.setAge(age);
+        return data;
+    }
+}
@@ -0,0 +1,200 @@
+package hello.springmvc.web.cache;
+
+import hello.springmvc.web.support.HandlerAnnotationIndex;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 서블릿이 호출될 때마다 calls를 올리고 "call-{n}"을 쓴다. 캐시에서 나간 응답은 calls가 그대로다.
+ */
+class ResponseCacheFilterTest {
+
+    ResponseCacheFilter filter;
+    AtomicLong clock = new AtomicLong();
+    AtomicInteger calls = new AtomicInteger();
+
+    HttpServlet servlet = new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            int call = calls.incrementAndGet();
+            String accept = request.getHeader(HttpHeaders.ACCEPT);
+            response.setContentType(accept != null && accept.startsWith("application/") ? accept : "text/plain");
+            response.getOutputStream().write(("call-" + call).getBytes(StandardCharsets.UTF_8));
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        StaticWebApplicationContext context = new StaticWebApplicationContext();
+        context.getBeanFactory().registerSingleton("testController", new TestController());
+        context.refresh();
+        RequestMappingHandlerMapping mapping = new RequestMappingHandlerMapping();
+        mapping.setApplicationContext(context);
+        mapping.afterPropertiesSet();
+        context.getBeanFactory().registerSingleton("requestMappingHandlerMapping", mapping);
+
+        filter = new ResponseCacheFilter(new HandlerAnnotationIndex<>(CachedResponse.class, context),
+                new ResponseCacheStore(16, 2, clock::get));
+    }
+
+    @Test
+    void secondRequestIsServedFromCache() throws Exception {
+        MockHttpServletResponse miss = perform(get("/cached"));
+        MockHttpServletResponse hit = perform(get("/cached"));
+
+        assertThat(miss.getContentAsString()).isEqualTo("call-1");
+        assertThat(hit.getContentAsString()).isEqualTo("call-1");
+        assertThat(hit.getContentLength()).isEqualTo(6);
+        assertThat(hit.getHeader(HttpHeaders.ETAG)).isEqualTo(miss.getHeader(HttpHeaders.ETAG)).isNotNull();
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void uncachedHandlerAlwaysRuns() throws Exception {
+        perform(get("/plain"));
+        perform(get("/plain"));
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void matchingIfNoneMatchGetsNotModified() throws Exception {
+        String etag = perform(get("/cached")).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest request = get("/cached");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = perform(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+
+        request = get("/cached");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"stale\"");
+        assertThat(perform(request).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void expiredEntryRunsHandlerAgain() throws Exception {
+        perform(get("/cached"));
+        clock.set(Duration.ofSeconds(9).toNanos());
+        assertThat(perform(get("/cached")).getContentAsString()).isEqualTo("call-1");
+
+        clock.set(Duration.ofSeconds(11).toNanos());
+        assertThat(perform(get("/cached")).getContentAsString()).isEqualTo("call-2");
+    }
+
+    @Test
+    void headUsesCachedGetWithoutBody() throws Exception {
+        perform(get("/cached"));
+
+        MockHttpServletResponse head = perform(new MockHttpServletRequest("HEAD", "/cached"));
+
+        assertThat(head.getStatus()).isEqualTo(200);
+        assertThat(head.getContentLength()).isEqualTo(6);
+        assertThat(head.getContentAsByteArray()).isEmpty();
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void headMissIsNotStored() throws Exception {
+        perform(new MockHttpServletRequest("HEAD", "/cached"));
+
+        assertThat(perform(get("/cached")).getContentAsString()).isEqualTo("call-2");
+    }
+
+    @Test
+    void undeclaredQueryParamsShareEntry() throws Exception {
+        perform(get("/cached?a=1"));
+        perform(get("/cached?a=2&b=3"));
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void declaredQueryParamsSplitEntries() throws Exception {
+        assertThat(perform(get("/paged?page=1&utm=x")).getContentAsString()).isEqualTo("call-1");
+        assertThat(perform(get("/paged?page=2")).getContentAsString()).isEqualTo("call-2");
+        assertThat(perform(get("/paged?utm=y&page=1")).getContentAsString()).isEqualTo("call-1");
+    }
+
+    @Test
+    void acceptVariantsAreCachedSeparatelyUpToLimit() throws Exception {
+        assertThat(perform(get("/cached", "application/json")).getContentType()).startsWith("application/json");
+        assertThat(perform(get("/cached", "application/cbor")).getContentType()).startsWith("application/cbor");
+        MockHttpServletResponse json = perform(get("/cached", "application/json"));
+        assertThat(json.getContentAsString()).isEqualTo("call-1");
+        assertThat(json.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+
+        // variant 한도(2)를 넘은 Accept는 저장하지 않고 매번 핸들러가 만든다.
+        perform(get("/cached", "application/smile"));
+        perform(get("/cached", "application/smile"));
+        assertThat(calls).hasValue(4);
+        assertThat(perform(get("/cached", "application/cbor")).getContentAsString()).isEqualTo("call-2");
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(servlet));
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String uri, String accept) {
+        MockHttpServletRequest request = get(uri);
+        request.addHeader(HttpHeaders.ACCEPT, accept);
+        return request;
+    }
+
+    private static MockHttpServletRequest get(String uri) {
+        int query = uri.indexOf('?');
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", query < 0 ? uri : uri.substring(0, query));
+        if (query >= 0) {
+            request.setQueryString(uri.substring(query + 1));
+            for (String pair : uri.substring(query + 1).split("&")) {
+                String[] nameValue = pair.split("=", 2);
+                request.addParameter(nameValue[0], nameValue[1]);
+            }
+        }
+        return request;
+    }
+
+    @RestController
+    static class TestController {
+
+        @CachedResponse(ttlSeconds = 10)
+        @GetMapping("/cached")
+        String cached() {
+            return "cached";
+        }
+
+        @CachedResponse(params = "page")
+        @GetMapping("/paged")
+        String paged() {
+            return "paged";
+        }
+
+        @GetMapping("/plain")
+        String plain() {
+            return "plain";
+        }
+    }
+}
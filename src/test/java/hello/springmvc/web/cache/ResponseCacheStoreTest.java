@@ -0,0 +1,84 @@
+package hello.springmvc.web.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheStoreTest {
+
+    private static final byte[] BODY = "ok".getBytes();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void expiresAfterTtl() {
+        ResponseCacheStore store = new ResponseCacheStore(10, 1, clock::get);
+        ResponseCacheStore.Entry entry = store.put("a", BODY, "text/plain", 10);
+
+        clock.set(Duration.ofSeconds(9).toNanos());
+        assertThat(store.get("a")).isSameAs(entry);
+
+        clock.set(Duration.ofSeconds(11).toNanos());
+        assertThat(store.get("a")).isNull();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedKey() {
+        ResponseCacheStore store = new ResponseCacheStore(2, 1, clock::get);
+        store.put("a", BODY, "text/plain", 60);
+        store.put("b", BODY, "text/plain", 60);
+        store.get("a");
+
+        store.put("c", BODY, "text/plain", 60);
+
+        assertThat(store.get("a")).isNotNull();
+        assertThat(store.get("b")).isNull();
+        assertThat(store.get("c")).isNotNull();
+    }
+
+    /**
+     * variant가 가득 찬 키에는 새 variant를 넣지 않는다. 다른 키는 밀려나지 않는다.
+     */
+    @Test
+    void refusesVariantsOverLimit() {
+        ResponseCacheStore store = new ResponseCacheStore(2, 2, clock::get);
+        store.put("other", BODY, "text/plain", 60);
+        assertThat(store.put("a", "json", BODY, "application/json", 60)).isNotNull();
+        assertThat(store.put("a", "cbor", BODY, "application/cbor", 60)).isNotNull();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(store.put("a", "x-" + i, BODY, "application/json", 60)).isNull();
+        }
+
+        assertThat(store.get("a", "json")).isNotNull();
+        assertThat(store.get("a", "cbor")).isNotNull();
+        assertThat(store.get("other")).isNotNull();
+        // 이미 있는 variant는 덮어쓸 수 있다.
+        assertThat(store.put("a", "json", BODY, "application/json", 60)).isNotNull();
+    }
+
+    @Test
+    void expiredVariantFreesItsPlace() {
+        ResponseCacheStore store = new ResponseCacheStore(10, 1, clock::get);
+        store.put("a", "json", BODY, "application/json", 10);
+
+        clock.set(Duration.ofSeconds(11).toNanos());
+
+        assertThat(store.put("a", "cbor", BODY, "application/cbor", 10)).isNotNull();
+        assertThat(store.get("a", "json")).isNull();
+    }
+
+    @Test
+    void etagFollowsBody() {
+        ResponseCacheStore store = new ResponseCacheStore(10, 1, clock::get);
+
+        String first = store.put("a", BODY, "text/plain", 60).etag();
+        String same = store.put("b", BODY, "text/plain", 60).etag();
+        String other = store.put("c", "changed".getBytes(), "text/plain", 60).etag();
+
+        assertThat(first).startsWith("\"").endsWith("\"").isEqualTo(same).isNotEqualTo(other);
+    }
+}
@@ -0,0 +1,181 @@
+package hello.springmvc.web.compression;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressionFilterTest {
+
+    static final String JSON = "{\"username\":\"hello\",\"age\":20}".repeat(100);
+
+    DeflaterPool deflaterPool = new DeflaterPool(4);
+    CompressedBodyCache cache = new CompressedBodyCache(16, 64 * 1024);
+    CompressionFilter filter = new CompressionFilter(deflaterPool,
+            new CompressionLevels("text/html:6,application/json:1"), cache, 1024, 1024 * 1024);
+
+    @Test
+    void compressesLargeJson() throws Exception {
+        MockHttpServletResponse response = perform(gzipRequest(), "application/json", JSON);
+
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(response.getContentLength()).isEqualTo(response.getContentAsByteArray().length);
+        assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(JSON);
+        assertThat(deflaterPool.pooled()).isEqualTo(1);
+    }
+
+    @Test
+    void repeatedBodyUsesCachedBytes() throws Exception {
+        MockHttpServletResponse first = perform(gzipRequest(), "application/json", JSON);
+        MockHttpServletResponse second = perform(gzipRequest(), "application/json", JSON);
+
+        assertThat(second.getContentAsByteArray()).isEqualTo(first.getContentAsByteArray());
+        byte[] body = JSON.getBytes(StandardCharsets.UTF_8);
+        assertThat(cache.get(first.getContentType(), 1, body, body.length, crc(body)))
+                .isEqualTo(first.getContentAsByteArray());
+    }
+
+    @Test
+    void skipsSmallBodiesUnlistedTypesAndClientsWithoutGzip() throws Exception {
+        MockHttpServletResponse small = perform(gzipRequest(), "text/html", "ok");
+        assertThat(small.getHeader("Content-Encoding")).isNull();
+        assertThat(small.getContentAsString()).isEqualTo("ok");
+        assertThat(small.getContentLength()).isEqualTo(2);
+
+        MockHttpServletResponse png = perform(gzipRequest(), "image/png", JSON);
+        assertThat(png.getHeader("Content-Encoding")).isNull();
+
+        MockHttpServletResponse refused = perform(new MockHttpServletRequest("GET", "/test"), "application/json", JSON);
+        assertThat(refused.getHeader("Content-Encoding")).isNull();
+        assertThat(refused.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(refused.getContentAsString()).isEqualTo(JSON);
+    }
+
+    @Test
+    void flushBufferSwitchesToPassThrough() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(gzipRequest(), response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.setContentType("application/json");
+                response.getOutputStream().write(JSON.getBytes(StandardCharsets.UTF_8));
+                response.flushBuffer();
+            }
+        }));
+
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(JSON);
+    }
+
+    /**
+     * 압축하지 않을 타입은 모으지 않고 첫 쓰기부터 원래 응답으로 바로 나간다.
+     */
+    @Test
+    void unlistedTypeIsNotBuffered() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        byte[] body = JSON.getBytes(StandardCharsets.UTF_8);
+        filter.doFilter(gzipRequest(), response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse wrapped) throws IOException {
+                wrapped.setContentType("application/cbor");
+                wrapped.getOutputStream().write(body, 0, 10);
+                assertThat(response.getContentAsByteArray()).hasSize(10);
+                wrapped.getOutputStream().write(body, 10, body.length - 10);
+            }
+        }));
+
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+        assertThat(response.getContentAsByteArray()).isEqualTo(body);
+    }
+
+    @Test
+    void compressesBodyCopiedFromContentCachingWrapper() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(gzipRequest(), response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+                wrapper.setContentType("application/json");
+                wrapper.getOutputStream().write(JSON.getBytes(StandardCharsets.UTF_8));
+                wrapper.setHeader("ETag", "\"abc\"");
+                // 선언한 길이만큼 쓴 뒤 flushBuffer()까지 부른다.
+                wrapper.copyBodyToResponse();
+            }
+        }));
+
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(response.getHeader("ETag")).isEqualTo("\"abc-gzip\"");
+        assertThat(response.getContentLength()).isEqualTo(response.getContentAsByteArray().length);
+        assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(JSON);
+    }
+
+    @Test
+    void gzipEtagIsRevalidatedAgainstOriginalEtag() throws Exception {
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                if (new ServletWebRequest(request, response).checkNotModified("\"abc\"")) {
+                    return;
+                }
+                response.setContentType("application/json");
+                response.getOutputStream().write(JSON.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(gzipRequest(), first, new MockFilterChain(servlet));
+        assertThat(first.getHeader("ETag")).isEqualTo("\"abc-gzip\"");
+
+        MockHttpServletRequest revalidate = gzipRequest();
+        revalidate.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(revalidate, second, new MockFilterChain(servlet));
+
+        assertThat(second.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+        assertThat(second.getHeader("ETag")).isEqualTo("\"abc-gzip\"");
+        assertThat(second.getContentAsByteArray()).isEmpty();
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, String contentType, String body)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.setContentType(contentType);
+                response.setCharacterEncoding("UTF-8");
+                response.getWriter().write(body);
+            }
+        }));
+        return response;
+    }
+
+    private static MockHttpServletRequest gzipRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/test");
+        request.addHeader("Accept-Encoding", "gzip, deflate, br");
+        return request;
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        return new String(new GZIPInputStream(new ByteArrayInputStream(body)).readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static int crc(byte[] body) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(body);
+        return (int) crc32.getValue();
+    }
+}
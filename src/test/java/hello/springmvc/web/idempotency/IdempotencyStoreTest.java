@@ -0,0 +1,198 @@
+package hello.springmvc.web.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyStoreTest {
+
+    private static final byte[] FINGERPRINT = {1};
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void duplicateGetsLeaderResult() throws Exception {
+        IdempotencyStore<String> store = store(100, Long.MAX_VALUE);
+
+        IdempotencyStore.Slot<String> leader = store.acquire("a", FINGERPRINT);
+        IdempotencyStore.Slot<String> duplicate = store.acquire("a", FINGERPRINT);
+        assertThat(leader.isLeader()).isTrue();
+        assertThat(duplicate.isLeader()).isFalse();
+        assertThat(duplicate.result()).isNotDone();
+
+        store.complete(leader, "ok");
+        assertThat(duplicate.result().get()).isEqualTo("ok");
+        assertThat(store.acquire("a", FINGERPRINT).result().get()).isEqualTo("ok");
+    }
+
+    @Test
+    void expiresAfterTtl() {
+        IdempotencyStore<String> store = store(100, Long.MAX_VALUE);
+        store.complete(store.acquire("a", FINGERPRINT), "ok");
+
+        clock.set(Duration.ofSeconds(9).toNanos());
+        assertThat(store.acquire("a", FINGERPRINT).isLeader()).isFalse();
+
+        clock.set(Duration.ofSeconds(11).toNanos());
+        assertThat(store.acquire("a", FINGERPRINT).isLeader()).isTrue();
+    }
+
+    /**
+     * 휠을 한 바퀴 넘게 건너뛰어도 만료된 키는 모두 빠진다.
+     */
+    @Test
+    void expiresAfterLongIdle() {
+        IdempotencyStore<String> store = store(100, Long.MAX_VALUE);
+        for (int i = 0; i < 50; i++) {
+            store.complete(store.acquire("k" + i, FINGERPRINT), "ok");
+            clock.addAndGet(Duration.ofMillis(100).toNanos());
+        }
+
+        clock.addAndGet(Duration.ofHours(1).toNanos());
+        store.acquire("other", FINGERPRINT);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        IdempotencyStore<String> store = store(3, Long.MAX_VALUE);
+        store.complete(store.acquire("a", FINGERPRINT), "ok");
+        store.complete(store.acquire("b", FINGERPRINT), "ok");
+        store.complete(store.acquire("c", FINGERPRINT), "ok");
+        store.acquire("a", FINGERPRINT); // a를 다시 쓰면 가장 오래 안 쓴 키는 b가 된다.
+        store.complete(store.acquire("d", FINGERPRINT), "ok");
+
+        assertThat(store.size()).isEqualTo(3);
+        assertThat(store.acquire("a", FINGERPRINT).isLeader()).isFalse();
+        assertThat(store.acquire("b", FINGERPRINT).isLeader()).isTrue();
+    }
+
+    @Test
+    void abandonAllowsRetry() {
+        IdempotencyStore<String> store = store(100, Long.MAX_VALUE);
+        IdempotencyStore.Slot<String> leader = store.acquire("a", FINGERPRINT);
+        IdempotencyStore.Slot<String> duplicate = store.acquire("a", FINGERPRINT);
+
+        store.abandon(leader, new IllegalStateException("failed"));
+        assertThat(duplicate.result()).isCompletedExceptionally();
+        assertThat(store.acquire("a", FINGERPRINT).isLeader()).isTrue();
+    }
+
+    /**
+     * 처리 중인 키는 용량이 넘쳐도 버리지 않는다. 버리면 재전송된 요청이 두 번째 리더가 된다.
+     */
+    @Test
+    void inFlightKeysAreNotEvicted() {
+        IdempotencyStore<String> store = store(2, Long.MAX_VALUE);
+        IdempotencyStore.Slot<String> a = store.acquire("a", FINGERPRINT);
+        store.acquire("b", FINGERPRINT);
+        store.acquire("c", FINGERPRINT);
+
+        assertThat(store.size()).isEqualTo(3);
+        assertThat(store.acquire("a", FINGERPRINT).isLeader()).isFalse();
+
+        // 결과가 나온 키부터 버린다.
+        store.complete(a, "ok");
+        store.acquire("d", FINGERPRINT);
+        assertThat(store.acquire("a", FINGERPRINT).isLeader()).isTrue();
+    }
+
+    @Test
+    void expiryKeepsInFlightKeys() {
+        IdempotencyStore<String> store = store(100, Long.MAX_VALUE);
+        store.acquire("a", FINGERPRINT);
+
+        clock.set(Duration.ofSeconds(11).toNanos());
+        assertThat(store.acquire("a", FINGERPRINT).isLeader()).isFalse();
+    }
+
+    /**
+     * 결과의 무게(여기서는 문자열 길이) 합계가 maxWeight를 넘으면 오래된 결과부터 버린다.
+     */
+    @Test
+    void evictsByWeight() {
+        IdempotencyStore<String> store = store(100, 10);
+        store.complete(store.acquire("a", FINGERPRINT), "12345");
+        store.complete(store.acquire("b", FINGERPRINT), "12345");
+        assertThat(store.weight()).isEqualTo(10);
+
+        store.complete(store.acquire("c", FINGERPRINT), "123");
+        assertThat(store.weight()).isEqualTo(8);
+        assertThat(store.acquire("a", FINGERPRINT).isLeader()).isTrue();
+        assertThat(store.acquire("b", FINGERPRINT).isLeader()).isFalse();
+    }
+
+    @Test
+    void duplicateSeesLeaderFingerprint() {
+        IdempotencyStore<String> store = store(100, Long.MAX_VALUE);
+        store.acquire("a", new byte[]{1, 2});
+
+        assertThat(store.acquire("a", new byte[]{3}).fingerprint()).containsExactly(1, 2);
+    }
+
+    /**
+     * 비슷한 키("key0" ~ "key499")도 세그먼트에 고르게 퍼져서, 세그먼트 16개 x 용량 63개에 500개가 다 들어간다.
+     */
+    @Test
+    void similarKeysSpreadAcrossSegments() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(1000, Long.MAX_VALUE, String::length,
+                Duration.ofSeconds(10), 16, clock::get);
+        for (int i = 0; i < 500; i++) {
+            store.complete(store.acquire("key" + i, FINGERPRINT), "ok");
+        }
+
+        assertThat(store.size()).isEqualTo(500);
+    }
+
+    /**
+     * 같은 키로 동시에 들어와도 리더는 하나다.
+     */
+    @Test
+    void concurrentDuplicatesHaveSingleLeader() throws Exception {
+        IdempotencyStore<String> store = new IdempotencyStore<>(1000, Long.MAX_VALUE, String::length,
+                Duration.ofSeconds(10), 16, clock::get);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            tasks.add(() -> {
+                start.await();
+                int leaders = 0;
+                for (int i = 0; i < 500; i++) {
+                    if (store.acquire("key" + i, FINGERPRINT).isLeader()) {
+                        leaders++;
+                    }
+                }
+                return leaders;
+            });
+        }
+
+        List<Future<Integer>> results = new ArrayList<>();
+        for (Callable<Integer> task : tasks) {
+            results.add(executor.submit(task));
+        }
+        start.countDown();
+        int leaders = 0;
+        for (Future<Integer> result : results) {
+            leaders += result.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(leaders).isEqualTo(500);
+    }
+
+    private IdempotencyStore<String> store(int maxEntries, long maxWeight) {
+        return new IdempotencyStore<>(maxEntries, maxWeight, String::length, Duration.ofSeconds(10), 1, clock::get);
+    }
+}
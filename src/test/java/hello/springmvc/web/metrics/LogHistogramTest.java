@@ -0,0 +1,41 @@
+package hello.springmvc.web.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LogHistogramTest {
+
+    @Test
+    void bucketValueIsWithinRelativeError() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong(1, Long.MAX_VALUE >> random.nextInt(62));
+            long bucketValue = LogHistogram.valueOf(LogHistogram.index(value));
+            assertThat((double) bucketValue).isCloseTo(value, within(value / 16.0 + 1));
+        }
+    }
+
+    @Test
+    void percentilesOfInterval() {
+        LogHistogram histogram = new LogHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        HistogramSnapshot first = histogram.snapshot();
+        for (int i = 0; i < 100; i++) {
+            histogram.record(5_000_000L);
+        }
+        HistogramSnapshot interval = histogram.snapshot().minus(first);
+
+        assertThat(first.count()).isEqualTo(1000);
+        assertThat((double) first.percentile(50)).isCloseTo(500_000, within(500_000 / 16.0));
+        assertThat((double) first.percentile(99)).isCloseTo(990_000, within(990_000 / 16.0));
+        assertThat(interval.count()).isEqualTo(100);
+        assertThat((double) interval.percentile(50)).isCloseTo(5_000_000, within(5_000_000 / 16.0));
+        assertThat(interval.mean()).isEqualTo(5_000_000L);
+    }
+}
@@ -0,0 +1,118 @@
+package hello.springmvc.web.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long TARGET = 100_000_000L;
+    private static final long FAST = TARGET / 10;
+    private static final long SLOW = TARGET * 2;
+
+    @Test
+    void rejectsAtLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 2, TARGET);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release(FAST);
+        assertThat(limiter.inFlight()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    /**
+     * 늦게 끝난 요청마다 0.9배씩 줄고, minLimit 밑으로는 내려가지 않는다.
+     */
+    @Test
+    void slowResponsesBackOffToMinLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 4, 100, TARGET);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+        }
+
+        limiter.release(SLOW);
+        assertThat(limiter.limit()).isEqualTo(9);
+
+        for (int i = 0; i < 9; i++) {
+            limiter.release(SLOW);
+        }
+        assertThat(limiter.limit()).isEqualTo(4);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    /**
+     * 한도를 꽉 채운 상태에서 제때 끝나면 조금씩 늘어나고, maxLimit에서 멈춘다.
+     */
+    @Test
+    void fastResponsesUnderLoadGrowToMaxLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 6, TARGET);
+
+        for (int round = 0; round < 100; round++) {
+            while (limiter.tryAcquire()) {
+            }
+            while (limiter.inFlight() > 0) {
+                limiter.release(FAST);
+            }
+        }
+
+        assertThat(limiter.limit()).isEqualTo(6);
+    }
+
+    /**
+     * 한도의 절반도 안 쓰고 있으면 빨리 끝나도 늘리지 않는다. 부하가 없을 때 한도만 커져 있으면 몰릴 때 보호가 안 된다.
+     */
+    @Test
+    void lightLoadDoesNotGrowLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, TARGET);
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    /**
+     * 여러 스레드가 동시에 tryAcquire()해도 CAS로 올리므로 처리 중인 수가 limit을 넘지 않는다.
+     */
+    @Test
+    void concurrentAcquireNeverExceedsLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 8, 8, TARGET);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            tasks.add(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (limiter.tryAcquire()) {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        running.decrementAndGet();
+                        limiter.release(FAST);
+                    }
+                }
+                return null;
+            });
+        }
+
+        for (Future<Void> result : executor.invokeAll(tasks)) {
+            result.get();
+        }
+        executor.shutdown();
+
+        assertThat(maxRunning.get()).isBetween(1, 8);
+        assertThat(limiter.inFlight()).isZero();
+    }
+}
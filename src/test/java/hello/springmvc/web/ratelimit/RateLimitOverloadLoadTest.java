@@ -0,0 +1,146 @@
+package hello.springmvc.web.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 동시 처리량이 8개(요청당 10ms, 초당 약 800건)인 백엔드에 클라이언트 300개가 쉬지 않고 요청을 보낸다.
+ * 보호가 없으면 요청이 백엔드 앞에 줄을 서서 지연 시간이 300 / 8 * 10ms 근처까지 늘어난다.
+ * '@RateLimited' 경로는 동시 처리 한도가 목표 지연(50ms)에 맞춰 줄어들어서, 받아준 요청의 p99가 묶여 있고 나머지는 바로 503을 받는다.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"server.tomcat.threads.max=400", "logging.level.hello.springmvc=warn",
+                "hello.rate-limit.routes.overload-test.initial-concurrency=16",
+                "hello.rate-limit.routes.overload-test.target-latency=50ms"})
+class RateLimitOverloadLoadTest {
+
+    private static final int CLIENTS = 300;
+    private static final long DURATION_MILLIS = 5000;
+    private static final long MAX_ADMITTED_P99_MILLIS = 150;
+
+    @LocalServerPort
+    int port;
+
+    @Test
+    void admittedLatencyStaysBoundedUnderOverload() throws Exception {
+        Result plain = run("/test/plain");
+        Result limited = run("/test/rate-limited");
+
+        log.warn("plain: admitted= {}, p99= {}ms / rate-limited: admitted= {}, shed= {}, p99= {}ms",
+                plain.admitted(), plain.p99Millis(), limited.admitted(), limited.shed(), limited.p99Millis());
+        assertThat(plain.shed()).isZero();
+        assertThat(limited.shed()).isPositive();
+        assertThat(limited.p99Millis()).isLessThan(MAX_ADMITTED_P99_MILLIS);
+        assertThat(limited.p99Millis()).isLessThan(plain.p99Millis() / 2);
+    }
+
+    private Result run(String path) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        long deadline = System.nanoTime() + DURATION_MILLIS * 1_000_000;
+        try {
+            List<Future<Result>> results = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                results.add(clients.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    int shed = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() == 200) {
+                            latencies.add((System.nanoTime() - start) / 1_000_000);
+                        } else {
+                            assertThat(response.statusCode()).isEqualTo(503);
+                            assertThat(response.headers().firstValue("Retry-After")).isPresent();
+                            shed++;
+                            Thread.sleep(5);
+                        }
+                    }
+                    return new Result(latencies, shed);
+                }));
+            }
+
+            List<Long> latencies = new ArrayList<>();
+            int shed = 0;
+            for (Future<Result> result : results) {
+                latencies.addAll(result.get().latencies());
+                shed += result.get().shed();
+            }
+            Collections.sort(latencies);
+            return new Result(latencies, shed);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private record Result(List<Long> latencies, int shed) {
+
+        int admitted() {
+            return latencies.size();
+        }
+
+        long p99Millis() {
+            return latencies.get(latencies.size() * 99 / 100);
+        }
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        SlowBackendController slowBackendController() {
+            return new SlowBackendController();
+        }
+    }
+
+    @RestController
+    static class SlowBackendController {
+
+        private final Semaphore capacity = new Semaphore(8);
+
+        @GetMapping("/test/plain")
+        public String plain() throws InterruptedException {
+            return work();
+        }
+
+        @RateLimited("overload-test")
+        @GetMapping("/test/rate-limited")
+        public String rateLimited() throws InterruptedException {
+            return work();
+        }
+
+        private String work() throws InterruptedException {
+            capacity.acquire();
+            try {
+                Thread.sleep(10);
+                return "ok";
+            } finally {
+                capacity.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package hello.springmvc.web.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    /**
+     * 경로 버킷에서 거절된 요청은 클라이언트 토큰을 쓰지 않는다.
+     */
+    @Test
+    void routeRejectionRefundsClientToken() {
+        RouteLimiter limiter = new RouteLimiter(limit(10, 1, 1, 3), 100, 0);
+
+        assertThat(limiter.tryAcquire("a", 0)).isZero();
+        // 경로 토큰이 100ms 뒤에 생기므로 모두 경로에서 거절된다. 클라이언트 토큰을 썼다면 a의 burst(3)가 바닥난다.
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("a", 0)).isPositive();
+        }
+
+        assertThat(limiter.tryAcquire("a", SECOND / 10)).isZero();
+    }
+
+    /**
+     * 모든 클라이언트가 요청 중이라 가득 찬 버킷이 없어도 maxClients를 넘지 않는다.
+     * 가장 오래 요청이 없던 클라이언트가 먼저 지워진다.
+     */
+    @Test
+    void clientBucketsStayWithinMaxClients() {
+        RouteLimiter limiter = new RouteLimiter(limit(0, 1, 1, 1), 10, 0);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("client-" + i, i);
+            assertThat(limiter.clientCount()).isLessThanOrEqualTo(10);
+        }
+        // 마지막 클라이언트는 남아 있어서 여전히 토큰이 없다.
+        assertThat(limiter.tryAcquire("client-99", 100)).isPositive();
+    }
+
+    private static RouteLimit limit(double rate, int burst, double clientRate, int clientBurst) {
+        return new RouteLimit(rate, burst, clientRate, clientBurst, 64, 4, 256, Duration.ofMillis(100));
+    }
+}
@@ -0,0 +1,62 @@
+package hello.springmvc.web.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void burstThenSteadyRate() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(0)).isZero();
+        }
+        assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND / 10);
+
+        // 100ms마다 토큰 하나가 생긴다.
+        assertThat(bucket.tryAcquire(SECOND / 10)).isZero();
+        assertThat(bucket.tryAcquire(SECOND / 10)).isPositive();
+        assertThat(bucket.isFull(SECOND / 10)).isFalse();
+        assertThat(bucket.isFull(SECOND)).isTrue();
+    }
+
+    /**
+     * 여러 스레드가 같은 시각에 몰려도 CAS로 차감하므로 burst보다 많이 통과하지 않는다.
+     */
+    @Test
+    void concurrentAcquireNeverExceedsBurst() throws Exception {
+        TokenBucket bucket = new TokenBucket(1, 100, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            tasks.add(() -> {
+                int admitted = 0;
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryAcquire(0) == 0) {
+                        admitted++;
+                    }
+                }
+                return admitted;
+            });
+        }
+
+        int admitted = 0;
+        for (Future<Integer> result : executor.invokeAll(tasks)) {
+            admitted += result.get();
+        }
+        executor.shutdown();
+
+        assertThat(admitted).isEqualTo(100);
+    }
+}
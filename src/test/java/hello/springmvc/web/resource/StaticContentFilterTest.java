@@ -0,0 +1,85 @@
+package hello.springmvc.web.resource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StaticContentFilterTest {
+
+    StaticAssetRegistry registry;
+    StaticContentFilter filter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        registry = StaticAssetRegistry.load();
+        filter = new StaticContentFilter(registry, Long.MAX_VALUE);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        registry.close();
+    }
+
+    @Test
+    void gzipVariantAndNotModified() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/basic/hello-form.html");
+        request.addHeader("Accept-Encoding", "gzip, deflate, br;q=0");
+        MockHttpServletResponse response = perform(request);
+
+        byte[] identity = registry.find("/basic/hello-form.html").identity().body();
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(response.getContentType()).isEqualTo("text/html;charset=UTF-8");
+        assertThat(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())).readAllBytes())
+                .isEqualTo(identity);
+
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/basic/hello-form.html");
+        conditional.addHeader("Accept-Encoding", "gzip");
+        conditional.addHeader("If-None-Match", response.getHeader("ETag"));
+        assertThat(perform(conditional).getStatus()).isEqualTo(304);
+
+        // 인코딩이 다르면 ETag도 다르므로 304가 아니다.
+        MockHttpServletRequest plain = new MockHttpServletRequest("GET", "/basic/hello-form.html");
+        plain.addHeader("If-None-Match", response.getHeader("ETag"));
+        assertThat(perform(plain).getContentAsByteArray()).isEqualTo(identity);
+    }
+
+    @Test
+    void singleRange() throws Exception {
+        byte[] identity = registry.find("/index.html").identity().body();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/index.html");
+        request.addHeader("Range", "bytes=10-19");
+        MockHttpServletResponse response = perform(request);
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 10-19/" + identity.length);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(identity, 10, 20));
+
+        MockHttpServletRequest unsatisfiable = new MockHttpServletRequest("GET", "/index.html");
+        unsatisfiable.addHeader("Range", "bytes=" + identity.length + "-");
+        assertThat(perform(unsatisfiable).getStatus()).isEqualTo(416);
+    }
+
+    @Test
+    void unknownPathPassesThrough() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/hello-form.html"), new MockHttpServletResponse(), chain);
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,119 @@
+package hello.springmvc.web.routing;
+
+import hello.springmvc.basic.requestmapping.MappingClassController;
+import hello.springmvc.basic.requestmapping.MappingController;
+import hello.springmvc.domain.order.OrderRepository;
+import hello.springmvc.domain.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 같은 요청을 기본 RequestMappingHandlerMapping과 IndexedRequestMappingHandlerMapping에 넣고
+ * 고른 핸들러 메서드(또는 던진 예외 종류)가 같은지 본다.
+ */
+class IndexedRequestMappingHandlerMappingTest {
+
+    RequestMappingHandlerMapping stock;
+    RequestMappingHandlerMapping indexed;
+
+    @BeforeEach
+    void setUp() {
+        StaticWebApplicationContext context = new StaticWebApplicationContext();
+        context.getBeanFactory().registerSingleton("mappingController", new MappingController(new OrderRepository()));
+        context.getBeanFactory().registerSingleton("mappingClassController",
+                new MappingClassController(new UserRepository()));
+        context.refresh();
+
+        stock = init(new RequestMappingHandlerMapping(), context);
+        indexed = init(new IndexedRequestMappingHandlerMapping(), context);
+    }
+
+    /**
+     * method, path, 헤더(이름=값 ;로 구분), 기대하는 핸들러 메서드 이름(없으면 예외 클래스 이름)
+     */
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', nullValues = "-", value = {
+            "GET    | /hello-basic                  | -                             | helloBasic",
+            "POST   | /hello-basic                  | -                             | helloBasic",
+            "GET    | /mapping-get-v1               | -                             | mappingGetV1",
+            "POST   | /mapping-get-v1               | -                             | HttpRequestMethodNotSupportedException",
+            "GET    | /mapping-get-v2               | -                             | mappingGetV2",
+            "GET    | /mapping/userA                | -                             | mappingPath",
+            "GET    | /mapping/users                | -                             | user",
+            "GET    | /mapping/user%73              | -                             | user",
+            "GET    | /mapping/users;a=b            | -                             | user",
+            "POST   | /mapping/users                | Content-Type=application/json | addUser",
+            "GET    | /mapping/users/1              | -                             | findUser",
+            "HEAD   | /mapping/users/1              | -                             | findUser",
+            "PATCH  | /mapping/users/1              | Content-Type=application/json | updateUser",
+            "DELETE | /mapping/users/1              | -                             | deleteUser",
+            "PUT    | /mapping/users/1              | -                             | HttpRequestMethodNotSupportedException",
+            "GET    | /mapping/users/1/orders/2     | -                             | mappingPath",
+            "GET    | /mapping/users/1/orders       | -                             | mappingOrders",
+            "POST   | /mapping/users/1/orders       | Content-Type=application/json | mappingAddOrder",
+            "GET    | /mapping/users/1/             | -                             | -",
+            "GET    | /mapping-param?mode=debug     | -                             | mappingParam",
+            "GET    | /mapping-param                | -                             | UnsatisfiedServletRequestParameterException",
+            "GET    | /mapping-header               | mode=debug                    | mappingHeader",
+            "GET    | /mapping-header               | mode=info                     | -",
+            "POST   | /mapping-consume              | Content-Type=application/json | mappingConsumes",
+            "POST   | /mapping-consume              | Content-Type=text/plain       | HttpMediaTypeNotSupportedException",
+            "POST   | /mapping-produce              | Accept=text/html              | mappingProduces",
+            "POST   | /mapping-produce              | Accept=application/json       | HttpMediaTypeNotAcceptableException",
+            "GET    | /unknown                      | -                             | -",
+    })
+    void sameHandlerAsStockMapping(String method, String uri, String headers, String expected) {
+        String stockResult = lookup(stock, method, uri, headers);
+        assertThat(lookup(indexed, method, uri, headers)).isEqualTo(stockResult);
+        assertThat(stockResult).isEqualTo(expected);
+    }
+
+    private static RequestMappingHandlerMapping init(RequestMappingHandlerMapping mapping,
+                                                     StaticWebApplicationContext context) {
+        mapping.setApplicationContext(context);
+        mapping.afterPropertiesSet();
+        return mapping;
+    }
+
+    /**
+     * @return 고른 핸들러 메서드 이름, 예외를 던지면 예외 클래스 이름, 못 찾으면 null
+     */
+    private static String lookup(RequestMappingHandlerMapping mapping, String method, String uri, String headers) {
+        int query = uri.indexOf('?');
+        MockHttpServletRequest request = new MockHttpServletRequest(method, query < 0 ? uri : uri.substring(0, query));
+        if (query >= 0) {
+            request.setQueryString(uri.substring(query + 1));
+            for (String pair : uri.substring(query + 1).split("&")) {
+                String[] nameValue = pair.split("=", 2);
+                request.addParameter(nameValue[0], nameValue[1]);
+            }
+        }
+        if (headers != null) {
+            for (String header : headers.split(";")) {
+                String[] nameValue = header.split("=", 2);
+                if (nameValue[0].equals("Content-Type")) {
+                    request.setContentType(nameValue[1]);
+                } else {
+                    request.addHeader(nameValue[0], nameValue[1]);
+                }
+            }
+        }
+        ServletRequestPathUtils.parseAndCache(request);
+
+        try {
+            HandlerExecutionChain chain = mapping.getHandler(request);
+            return chain == null ? null : ((HandlerMethod) chain.getHandler()).getMethod().getName();
+        } catch (Exception e) {
+            return e.getClass().getSimpleName();
+        }
+    }
+}
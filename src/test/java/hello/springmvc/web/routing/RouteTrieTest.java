@@ -0,0 +1,61 @@
+package hello.springmvc.web.routing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteTrieTest {
+
+    @Test
+    void literalAndVariableSegments() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("/mapping/{userId}", "path");
+        trie.add("/mapping/users", "users");
+        trie.add("/mapping/users/{userId}/orders/{orderId}", "order");
+        trie.add("/", "root");
+
+        assertThat(trie.match("/mapping/users")).containsExactlyInAnyOrder("users", "path");
+        assertThat(trie.match("/mapping/userA")).containsExactly("path");
+        assertThat(trie.match("/mapping/users/1/orders/2")).containsExactly("order");
+        assertThat(trie.match("/")).containsExactly("root");
+        assertThat(trie.match("/mapping")).isEmpty();
+    }
+
+    /**
+     * PathPattern처럼 디코딩하고 매트릭스 변수를 뗀 값으로 비교한다.
+     */
+    @Test
+    void matchesDecodedSegments() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("/mapping/users", "users");
+
+        assertThat(trie.match("/mapping/user%73")).containsExactly("users");
+        assertThat(trie.match("/mapping/users;jsessionid=1")).containsExactly("users");
+    }
+
+    /**
+     * 경로 변수는 빈 세그먼트와 매칭되지 않고, 끝의 '/'는 빈 세그먼트 하나로 본다.
+     */
+    @Test
+    void emptySegments() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("/mapping/{userId}", "path");
+        trie.add("/mapping/", "slash");
+
+        assertThat(trie.match("/mapping/")).containsExactly("slash");
+        assertThat(trie.match("/mapping//")).isEmpty();
+        assertThat(trie.match("/mapping/a/")).isEmpty();
+    }
+
+    @Test
+    void unsupportedPatternsAreAlwaysCandidates() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("/files/**", "files");
+        trie.add("/orders/{id:\\d+}", "regex");
+        trie.add("/hello-basic", "hello");
+
+        assertThat(trie.match("/anything")).containsExactly("files", "regex");
+        assertThat(trie.match("/hello-basic")).containsExactly("files", "regex", "hello");
+        assertThat(trie.size()).isEqualTo(3);
+    }
+}
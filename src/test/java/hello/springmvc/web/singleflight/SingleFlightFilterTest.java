@@ -0,0 +1,297 @@
+package hello.springmvc.web.singleflight;
+
+import hello.springmvc.web.support.HandlerAnnotationIndex;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 첫 요청(리더)은 release가 열릴 때까지 핸들러 안에서 기다리게 해두고, 그동안 온 요청이 어떻게 처리되는지 본다.
+ */
+class SingleFlightFilterTest {
+
+    SingleFlightFilter filter;
+    List<Thread> threads = new CopyOnWriteArrayList<>();
+    ExecutorService executor = Executors.newFixedThreadPool(4, task -> {
+        Thread thread = new Thread(task);
+        threads.add(thread);
+        return thread;
+    });
+    AtomicInteger calls = new AtomicInteger();
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    volatile boolean leaderFails;
+    volatile boolean leaderGoesAsync;
+    volatile boolean leaderSetsCookie;
+
+    HttpServlet servlet = new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response)
+                throws ServletException, IOException {
+            if (request.getDispatcherType() == DispatcherType.ASYNC) {
+                response.getWriter().write("async");
+                return;
+            }
+            int call = calls.incrementAndGet();
+            if (call == 1 && leaderGoesAsync) {
+                request.startAsync(request, response);
+                entered.countDown();
+                return;
+            }
+            if (call == 1) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new ServletException(e);
+                }
+                if (leaderFails) {
+                    throw new ServletException("leader failed");
+                }
+                if (leaderSetsCookie) {
+                    response.addHeader("Set-Cookie", "SESSION=leader");
+                }
+            }
+            response.getWriter().write("call-" + call);
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        StaticWebApplicationContext context = new StaticWebApplicationContext();
+        context.getBeanFactory().registerSingleton("testController", new TestController());
+        context.refresh();
+        RequestMappingHandlerMapping mapping = new RequestMappingHandlerMapping();
+        mapping.setApplicationContext(context);
+        mapping.afterPropertiesSet();
+        context.getBeanFactory().registerSingleton("requestMappingHandlerMapping", mapping);
+
+        filter = new SingleFlightFilter(new HandlerAnnotationIndex<>(SingleFlight.class, context));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void followerGetsLeaderResponse() throws Exception {
+        Future<MockHttpServletResponse> leader = submit("/flight");
+        entered.await();
+        Future<MockHttpServletResponse> follower = submit("/flight");
+        awaitWaiting(1);
+
+        release.countDown();
+
+        assertThat(leader.get().getContentAsString()).isEqualTo("call-1");
+        assertThat(follower.get().getContentAsString()).isEqualTo("call-1");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void followerRunsHandlerAfterMaxWait() throws Exception {
+        Future<MockHttpServletResponse> leader = submit("/short-wait");
+        entered.await();
+
+        MockHttpServletResponse follower = perform(request("/short-wait"));
+
+        assertThat(follower.getContentAsString()).isEqualTo("call-2");
+        release.countDown();
+        assertThat(leader.get().getContentAsString()).isEqualTo("call-1");
+    }
+
+    @Test
+    void followerRunsHandlerWhenLeaderFails() throws Exception {
+        leaderFails = true;
+        Future<MockHttpServletResponse> leader = submit("/flight");
+        entered.await();
+        Future<MockHttpServletResponse> follower = submit("/flight");
+        awaitWaiting(1);
+
+        release.countDown();
+
+        assertThatThrownBy(leader::get).isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("leader failed");
+        assertThat(follower.get().getContentAsString()).isEqualTo("call-2");
+    }
+
+    @Test
+    void interruptedFollowerLeavesOthersWaiting() throws Exception {
+        Future<MockHttpServletResponse> leader = submit("/flight");
+        entered.await();
+        Future<MockHttpServletResponse> interrupted = submit("/flight");
+        Future<MockHttpServletResponse> follower = submit("/flight");
+        awaitWaiting(2);
+
+        interrupted.cancel(true);
+        release.countDown();
+
+        assertThat(leader.get().getContentAsString()).isEqualTo("call-1");
+        assertThat(follower.get().getContentAsString()).isEqualTo("call-1");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void interruptedFollowerThrowsInterruptedIOException() throws Exception {
+        Future<MockHttpServletResponse> leader = submit("/flight");
+        entered.await();
+
+        Thread.currentThread().interrupt();
+        assertThatThrownBy(() -> perform(request("/flight"))).isInstanceOf(InterruptedIOException.class);
+        assertThat(Thread.interrupted()).isTrue();
+
+        release.countDown();
+        assertThat(leader.get().getContentAsString()).isEqualTo("call-1");
+    }
+
+    @Test
+    void requestWithCookieIsNotCoalesced() throws Exception {
+        Future<MockHttpServletResponse> leader = submit("/flight");
+        entered.await();
+
+        MockHttpServletRequest request = request("/flight");
+        request.addHeader("Cookie", "SESSION=other");
+        assertThat(perform(request).getContentAsString()).isEqualTo("call-2");
+
+        release.countDown();
+        assertThat(leader.get().getContentAsString()).isEqualTo("call-1");
+    }
+
+    @Test
+    void requestsWithSameCookieAreCoalescedWhenCookieIsInKey() throws Exception {
+        Future<MockHttpServletResponse> leader = submit("/per-user", "SESSION=a");
+        entered.await();
+        Future<MockHttpServletResponse> sameUser = submit("/per-user", "SESSION=a");
+        awaitWaiting(1);
+        MockHttpServletRequest otherUser = request("/per-user");
+        otherUser.addHeader("Cookie", "SESSION=b");
+        assertThat(perform(otherUser).getContentAsString()).isEqualTo("call-2");
+
+        release.countDown();
+
+        assertThat(leader.get().getContentAsString()).isEqualTo("call-1");
+        assertThat(sameUser.get().getContentAsString()).isEqualTo("call-1");
+    }
+
+    /**
+     * 리더의 세션 쿠키가 다른 요청에 복사되면 안 된다.
+     */
+    @Test
+    void responseSettingCookieIsNotShared() throws Exception {
+        leaderSetsCookie = true;
+        Future<MockHttpServletResponse> leader = submit("/flight");
+        entered.await();
+        Future<MockHttpServletResponse> follower = submit("/flight");
+        awaitWaiting(1);
+
+        release.countDown();
+
+        assertThat(leader.get().getHeader("Set-Cookie")).isEqualTo("SESSION=leader");
+        assertThat(follower.get().getContentAsString()).isEqualTo("call-2");
+        assertThat(follower.get().getHeader("Set-Cookie")).isNull();
+    }
+
+    @Test
+    void asyncLeaderSharesResponseAfterAsyncDispatch() throws Exception {
+        leaderGoesAsync = true;
+        MockHttpServletRequest request = request("/flight");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = perform(request);
+        assertThat(response.getContentAsString()).isEmpty();
+        Future<MockHttpServletResponse> follower = submit("/flight");
+        awaitWaiting(1);
+
+        AsyncContext asyncContext = request.getAsyncContext();
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, asyncContext.getResponse(), new MockFilterChain(servlet));
+
+        assertThat(response.getContentAsString()).isEqualTo("async");
+        assertThat(follower.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("async");
+    }
+
+    private Future<MockHttpServletResponse> submit(String uri) {
+        return executor.submit(() -> perform(request(uri)));
+    }
+
+    private Future<MockHttpServletResponse> submit(String uri, String cookie) {
+        return executor.submit(() -> {
+            MockHttpServletRequest request = request(uri);
+            request.addHeader("Cookie", cookie);
+            return perform(request);
+        });
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(servlet));
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+
+    /**
+     * 기다리는 요청 수가 count가 될 때까지 기다린다. 결과를 기다리는 요청은 시간 제한이 있는 get()에서 TIMED_WAITING이 된다.
+     * (리더는 release.await()에서 WAITING, 일이 없는 풀 스레드도 WAITING)
+     */
+    private void awaitWaiting(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (threads.stream().filter(t -> t.getState() == Thread.State.TIMED_WAITING).count() < count) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @RestController
+    static class TestController {
+
+        @SingleFlight(maxWaitMillis = 5000)
+        @GetMapping("/flight")
+        String flight() {
+            return "flight";
+        }
+
+        @SingleFlight(headers = {"Accept", "Cookie"}, maxWaitMillis = 5000)
+        @GetMapping("/per-user")
+        String perUser() {
+            return "per-user";
+        }
+
+        @SingleFlight(maxWaitMillis = 100)
+        @GetMapping("/short-wait")
+        String shortWait() {
+            return "short-wait";
+        }
+    }
+}
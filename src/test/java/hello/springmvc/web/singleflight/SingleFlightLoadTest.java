@@ -0,0 +1,127 @@
+package hello.springmvc.web.singleflight;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 동시 처리량이 4개로 제한된 느린 백엔드 앞에서, 80%가 키 하나에 몰리는 요청을 한꺼번에 보낸다.
+ * '@SingleFlight'가 붙은 경로와 안 붙은 경로를 같은 조건으로 호출해서 백엔드 호출 수와 p99 지연 시간을 비교한다.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"server.tomcat.threads.max=200", "logging.level.hello.springmvc=warn"})
+class SingleFlightLoadTest {
+
+    private static final int REQUESTS = 400;
+    private static final int HOT_KEY_PERCENT = 80;
+
+    @LocalServerPort
+    int port;
+
+    @Test
+    void burstyHotKey() throws Exception {
+        Result plain = burst("/test/plain/");
+        Result coalesced = burst("/test/single-flight/");
+
+        log.warn("plain: backendCalls= {}, p99= {}ms / single-flight: backendCalls= {}, p99= {}ms",
+                plain.backendCalls(), plain.p99Millis(), coalesced.backendCalls(), coalesced.p99Millis());
+        assertThat(coalesced.backendCalls()).isLessThan(plain.backendCalls() / 2);
+        assertThat(coalesced.p99Millis()).isLessThan(plain.p99Millis());
+    }
+
+    private Result burst(String prefix) throws Exception {
+        SlowBackendController.calls.set(0);
+        HttpClient client = HttpClient.newHttpClient();
+        ExecutorService clients = Executors.newFixedThreadPool(REQUESTS);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int key = random.nextInt(100) < HOT_KEY_PERCENT ? 1 : random.nextInt(2, 20);
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + prefix + key)).build();
+                results.add(clients.submit(() -> {
+                    long start = System.nanoTime();
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    assertThat(response.statusCode()).isEqualTo(200);
+                    assertThat(response.body()).isEqualTo("value-" + request.uri().getPath().substring(prefix.length()));
+                    return (System.nanoTime() - start) / 1_000_000;
+                }));
+            }
+
+            List<Long> latencies = new ArrayList<>();
+            for (Future<Long> result : results) {
+                latencies.add(result.get());
+            }
+            Collections.sort(latencies);
+            return new Result(SlowBackendController.calls.get(), latencies.get(latencies.size() * 99 / 100));
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private record Result(int backendCalls, long p99Millis) {
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        SlowBackendController slowBackendController() {
+            return new SlowBackendController();
+        }
+    }
+
+    @RestController
+    static class SlowBackendController {
+
+        static final AtomicInteger calls = new AtomicInteger();
+        private final Semaphore capacity = new Semaphore(4);
+
+        @GetMapping("/test/plain/{key}")
+        public String plain(@PathVariable String key) throws InterruptedException {
+            return lookup(key);
+        }
+
+        @SingleFlight
+        @GetMapping("/test/single-flight/{key}")
+        public String singleFlight(@PathVariable String key) throws InterruptedException {
+            return lookup(key);
+        }
+
+        private String lookup(String key) throws InterruptedException {
+            calls.incrementAndGet();
+            capacity.acquire();
+            try {
+                Thread.sleep(20);
+                return "value-" + key;
+            } finally {
+                capacity.release();
+            }
+        }
+    }
+}
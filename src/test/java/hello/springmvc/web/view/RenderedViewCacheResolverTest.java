@@ -0,0 +1,117 @@
+package hello.springmvc.web.view;
+
+import hello.springmvc.web.cache.ResponseCacheStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.view.RedirectView;
+import org.thymeleaf.spring6.view.ThymeleafView;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 타임리프 대신 렌더링할 때마다 renders를 올리고 "render-{n}"을 쓰는 뷰를 감싼다.
+ */
+class RenderedViewCacheResolverTest {
+
+    AtomicInteger renders = new AtomicInteger();
+    int status = HttpServletResponse.SC_OK;
+
+    ThymeleafView view = new ThymeleafView("hello") {
+        @Override
+        public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response)
+                throws Exception {
+            response.setStatus(status);
+            response.setContentType("text/html;charset=UTF-8");
+            response.getOutputStream().write(("render-" + renders.incrementAndGet()).getBytes(StandardCharsets.UTF_8));
+        }
+    };
+
+    RenderedViewCacheResolver resolver = new RenderedViewCacheResolver(
+            (viewName, locale) -> viewName.startsWith("redirect:") ? new RedirectView("/") : view,
+            new ResponseCacheStore(16), 2, 60);
+
+    @Test
+    void sameModelIsRenderedOnce() throws Exception {
+        MockHttpServletResponse first = render("hello", Map.of("data", "hello!"));
+        MockHttpServletResponse second = render("hello", Map.of("data", "hello!"));
+
+        assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo("render-1");
+        assertThat(second.getContentType()).startsWith("text/html");
+        assertThat(second.getContentLength()).isEqualTo(8);
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void differentModelOrLocaleRendersAgain() throws Exception {
+        render("hello", Map.of("data", "a"));
+        render("hello", Map.of("data", "b"));
+        render("hello", Map.of("data", "a"), Locale.KOREAN);
+
+        assertThat(renders).hasValue(3);
+    }
+
+    /**
+     * 캐시 키에 toString()으로 들어가는데 내용이 바뀔 수 있는 값(List 등)이면 캐시하지 않는다.
+     */
+    @Test
+    void mutableModelIsNotCached() throws Exception {
+        render("hello", Map.of("items", List.of("a")));
+        render("hello", Map.of("items", List.of("a")));
+
+        assertThat(renders).hasValue(2);
+    }
+
+    @Test
+    void modelLargerThanMaxSizeIsNotCached() throws Exception {
+        Map<String, Object> model = Map.of("a", 1, "b", 2, "c", 3);
+        render("hello", model);
+        render("hello", model);
+
+        assertThat(renders).hasValue(2);
+    }
+
+    @Test
+    void springAttributesDoNotAffectKey() throws Exception {
+        render("hello", Map.of("data", "a", BindingResult.MODEL_KEY_PREFIX + "data", new Object()));
+        render("hello", Map.of("data", "a", BindingResult.MODEL_KEY_PREFIX + "data", new Object()));
+
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void errorStatusIsNotCached() throws Exception {
+        status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        render("hello", Map.of("data", "a"));
+        status = HttpServletResponse.SC_OK;
+
+        assertThat(render("hello", Map.of("data", "a")).getContentAsString()).isEqualTo("render-2");
+    }
+
+    @Test
+    void redirectIsNotWrapped() throws Exception {
+        View redirect = resolver.resolveViewName("redirect:/", Locale.ENGLISH);
+
+        assertThat(redirect).isInstanceOf(RedirectView.class);
+    }
+
+    private MockHttpServletResponse render(String viewName, Map<String, ?> model) throws Exception {
+        return render(viewName, model, Locale.ENGLISH);
+    }
+
+    private MockHttpServletResponse render(String viewName, Map<String, ?> model, Locale locale) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        resolver.resolveViewName(viewName, locale).render(model, new MockHttpServletRequest(), response);
+        return response;
+    }
+}
@@ -0,0 +1,57 @@
+package hello.springmvc.web.view;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * src/main/resources/templates/response/hello.html 하나를 대상으로 한다.
+ */
+class TemplateWarmUpTest {
+
+    @Test
+    void warmsUpTemplatesUnderDefaultPrefix() throws Exception {
+        ThymeleafProperties properties = new ThymeleafProperties();
+        SpringTemplateEngine engine = engine("templates/", ".html");
+
+        assertThat(new TemplateWarmUp(engine, properties).warmUp()).isEqualTo(1);
+        assertThat(engine.getCacheManager().getTemplateCache().size()).isEqualTo(1);
+    }
+
+    /**
+     * 템플릿 이름은 설정한 prefix 기준이다. (prefix가 templates/response/ 이면 "hello")
+     */
+    @Test
+    void readsPrefixAndSuffixFromProperties() throws Exception {
+        ThymeleafProperties properties = new ThymeleafProperties();
+        properties.setPrefix("classpath:/templates/response/");
+        assertThat(new TemplateWarmUp(engine("templates/response/", ".html"), properties).warmUp()).isEqualTo(1);
+
+        properties.setSuffix(".htm");
+        assertThat(new TemplateWarmUp(engine("templates/response/", ".htm"), properties).warmUp()).isZero();
+    }
+
+    @Test
+    void skipsWhenTemplateCacheIsDisabled() {
+        ThymeleafProperties properties = new ThymeleafProperties();
+        properties.setCache(false);
+        SpringTemplateEngine engine = engine("templates/", ".html");
+
+        new TemplateWarmUp(engine, properties).afterSingletonsInstantiated();
+
+        assertThat(engine.getCacheManager().getTemplateCache().size()).isZero();
+    }
+
+    private static SpringTemplateEngine engine(String prefix, String suffix) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix(prefix);
+        resolver.setSuffix(suffix);
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+}